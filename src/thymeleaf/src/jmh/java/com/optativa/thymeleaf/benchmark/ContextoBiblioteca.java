@@ -0,0 +1,139 @@
+package com.optativa.thymeleaf.benchmark;
+
+import com.optativa.thymeleaf.ThymeleafApplication;
+import com.optativa.thymeleaf.datos.PropiedadesCarga;
+import com.optativa.thymeleaf.servicio.LibroServicio;
+import com.optativa.thymeleaf.servicio.PrestamoServicio;
+import com.optativa.thymeleaf.servicio.seguridad.UserDetailsServiceImpl;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Aplicación arrancada SIN servidor web sobre un dataset H2 generado con el perfil "carga".
+ *
+ * Se arranca una vez por fork (Level.Trial) y la comparten todos los hilos del benchmark.
+ * El tamaño del dataset se cambia con las mismas propiedades que el perfil "carga":
+ *
+ *   mvn -Pbenchmark test-compile exec:exec -Dbenchmark.jvm="-Dbiblioteca.carga.libros=500000"
+ */
+@State(Scope.Benchmark)
+public class ContextoBiblioteca {
+
+    /**
+     * Dataset por defecto: mucho menor que el de producción para que cada fork
+     * arranque en segundos. Se aplican como propiedades de sistema (por encima de
+     * application-carga.properties) solo si no se han indicado con -D.
+     */
+    private static final Map<String, String> PROPIEDADES_POR_DEFECTO = Map.of(
+            "biblioteca.carga.autores", "5000",
+            "biblioteca.carga.libros", "100000",
+            "biblioteca.carga.usuarios", "20000",
+            "biblioteca.carga.prestamos", "500000",
+            "spring.devtools.restart.enabled", "false");
+
+    /**
+     * Palabras frecuentes en los títulos que genera Faker → búsquedas con resultados
+     */
+    static final String[] PALABRAS_BUSQUEDA = {"the", "of", "love", "time", "death", "night", "man", "house"};
+
+    private ConfigurableApplicationContext contexto;
+    private LibroServicio libroServicio;
+    private PrestamoServicio prestamoServicio;
+    private UserDetailsServiceImpl userDetailsService;
+    private JdbcTemplate jdbc;
+    private List<Integer> librosDisponibles;
+    private final AtomicInteger siguienteLibro = new AtomicInteger();
+    private int usuarios;
+    private Integer idLector;
+    private long paginasCatalogo;
+    private long ultimoPrestamoInicial;
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        PROPIEDADES_POR_DEFECTO.forEach(System.getProperties()::putIfAbsent);
+        contexto = new SpringApplicationBuilder(ThymeleafApplication.class)
+                .profiles("carga")
+                .web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN")
+                .run();
+
+        // Se resuelven una vez: getBean() no debe formar parte de lo que se mide
+        libroServicio = contexto.getBean(LibroServicio.class);
+        prestamoServicio = contexto.getBean(PrestamoServicio.class);
+        userDetailsService = contexto.getBean(UserDetailsServiceImpl.class);
+
+        jdbc = contexto.getBean(JdbcTemplate.class);
+        librosDisponibles = jdbc.queryForList(
+                "select id from libro where disponible = true order by id fetch first 1024 rows only", Integer.class);
+        usuarios = contexto.getBean(PropiedadesCarga.class).getUsuarios();
+        idLector = jdbc.queryForObject("select id from usuarios where email = 'lector@biblioteca.com'", Integer.class);
+        paginasCatalogo = Math.max(1, jdbc.queryForObject("select count(*) from libro", Long.class) / 10);
+        ultimoPrestamoInicial = jdbc.queryForObject("select coalesce(max(id), 0) from prestamo", Long.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    public LibroServicio getLibroServicio() {
+        return libroServicio;
+    }
+
+    public PrestamoServicio getPrestamoServicio() {
+        return prestamoServicio;
+    }
+
+    public UserDetailsServiceImpl getUserDetailsService() {
+        return userDetailsService;
+    }
+
+    /**
+     * Un libro disponible distinto para cada hilo → los préstamos no compiten por el mismo ejemplar
+     */
+    public Integer reservarLibroDisponible() {
+        int i = siguienteLibro.getAndIncrement();
+        if (i >= librosDisponibles.size()) {
+            throw new IllegalStateException("No hay libros disponibles para " + (i + 1) + " hilos");
+        }
+        return librosDisponibles.get(i);
+    }
+
+    /**
+     * Borra los préstamos que ha creado el benchmark sobre un libro (los posteriores al
+     * dataset generado) → la tabla prestamo no crece de una iteración a otra
+     */
+    public void borrarPrestamosCreados(Integer libroId) {
+        jdbc.update("delete from prestamo where libro_id = ? and id > ?", libroId, ultimoPrestamoInicial);
+    }
+
+    /**
+     * Email de uno de los lectores generados por GeneradorDatosMasivos
+     */
+    public String emailLector(int indice) {
+        return "lector" + (indice % usuarios) + "@carga.biblioteca.com";
+    }
+
+    /**
+     * Usuario fijo "lector@biblioteca.com" (los préstamos del benchmark se hacen a su nombre)
+     */
+    public Integer getIdLector() {
+        return idLector;
+    }
+
+    public long getPaginasCatalogo() {
+        return paginasCatalogo;
+    }
+}
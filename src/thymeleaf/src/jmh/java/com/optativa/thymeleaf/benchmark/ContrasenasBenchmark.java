@@ -0,0 +1,57 @@
+package com.optativa.thymeleaf.benchmark;
+
+import com.optativa.thymeleaf.config.SecurityConfig;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logins por segundo según el algoritmo y el coste de los hashes: lo que cuesta comprobar
+ * una contraseña (PasswordEncoder.matches), que es casi todo el tiempo de un POST /login.
+ *
+ * Con 1 hilo el resultado es directamente logins/s por núcleo:
+ *
+ *   mvn -Pbenchmark test-compile exec:exec -Dbenchmark.jvm="-Dbenchmark.incluir=ContrasenasBenchmark -Dbenchmark.hilos=1"
+ *
+ * configuracion = algoritmo-coste, igual que biblioteca.contrasenas.algoritmo y
+ * biblioteca.contrasenas.coste-bcrypt (pbkdf2 ignora el coste: parámetros de Spring Security 5.8).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContrasenasBenchmark {
+
+    @Param({"bcrypt-8", "bcrypt-10", "bcrypt-12", "pbkdf2-10"})
+    public String configuracion;
+
+    private PasswordEncoder codificador;
+    private String hash;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        String[] partes = configuracion.split("-");
+        codificador = new SecurityConfig().passwordEncoder(partes[0], Integer.parseInt(partes[1]));
+        hash = codificador.encode("1234");
+    }
+
+    @Benchmark
+    public boolean comprobarContrasena() {
+        return codificador.matches("1234", hash);
+    }
+}
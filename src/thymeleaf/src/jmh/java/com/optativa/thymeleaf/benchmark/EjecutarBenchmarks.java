@@ -0,0 +1,59 @@
+package com.optativa.thymeleaf.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Lanza los benchmarks con 1 hilo y con N hilos y guarda cada ejecución en JSON
+ * (formato estándar de JMH → se puede comparar entre ejecuciones o con jmh.morethan.io).
+ *
+ * Se ejecuta con el perfil "benchmark" de Maven:
+ *
+ *   mvn -Pbenchmark test-compile exec:exec
+ *
+ * Opciones (propiedades de sistema, en -Dbenchmark.jvm="..."):
+ *   -Dbenchmark.hilos=1,8            número de hilos de cada ejecución (por defecto 1 y los núcleos)
+ *   -Dbenchmark.incluir=buscar.*     expresión regular con los benchmarks a ejecutar
+ *   -Dbenchmark.salida=target/jmh    carpeta de los resultados (resultados-<n>-hilos.json)
+ *   -Dbenchmark.rapido=true          1 iteración de 1 s (comprobar que todo funciona, no para medir)
+ *   -Dbenchmark.memoria=4g           heap de cada fork
+ *   -Dbiblioteca.carga.libros=...    tamaño del dataset (cualquier propiedad biblioteca.* o spring.*)
+ *
+ * Los forks de JMH heredan los argumentos de esta JVM → las -D de la aplicación les llegan tal cual.
+ */
+public class EjecutarBenchmarks {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String hilos = System.getProperty("benchmark.hilos", "1," + Runtime.getRuntime().availableProcessors());
+        String incluir = System.getProperty("benchmark.incluir", ServiciosBenchmark.class.getSimpleName());
+        Path salida = Path.of(System.getProperty("benchmark.salida", "target/jmh"));
+        Files.createDirectories(salida);
+
+        for (String valor : hilos.split(",")) {
+            int n = Integer.parseInt(valor.trim());
+            Path resultado = salida.resolve("resultados-" + n + "-hilos.json");
+
+            ChainedOptionsBuilder opciones = new OptionsBuilder()
+                    .include(incluir)
+                    .threads(n)
+                    .jvmArgsAppend("-Xmx" + System.getProperty("benchmark.memoria", "4g"))
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(resultado.toString());
+            if (Boolean.getBoolean("benchmark.rapido")) {
+                opciones.warmupIterations(1).warmupTime(TimeValue.seconds(1))
+                        .measurementIterations(1).measurementTime(TimeValue.seconds(1));
+            }
+            new Runner(opciones.build()).run();
+
+            System.out.println("→ Resultados con " + n + " hilo(s): " + resultado);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.optativa.thymeleaf.benchmark;
+
+import com.optativa.thymeleaf.proteccion.FiltroLimites;
+import com.optativa.thymeleaf.proteccion.PropiedadesLimites;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.servlet.FilterChain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coste de FiltroLimites por petición, sin servidor ni Spring (el filtro solo):
+ *
+ *   sinFiltro      → la cadena vacía (referencia)
+ *   rutaSinRegla   → GET /libros/5: recorrer las reglas y no aplicar ninguna
+ *   busqueda       → GET /libros?keyword=: cubo de tokens de la IP + límite adaptativo
+ *
+ * Cada hilo es un cliente distinto (su IP), como en producción; con varios hilos se ve
+ * además la contención en las franjas de los cubos y en el límite adaptativo.
+ *
+ *   mvn -Pbenchmark test-compile exec:exec -Dbenchmark.jvm="-Dbenchmark.incluir=LimitesBenchmark -Dbenchmark.hilos=1,4"
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LimitesBenchmark {
+
+    private static final FilterChain CADENA_VACIA = (peticion, respuesta) -> { };
+
+    @State(Scope.Benchmark)
+    public static class Filtro {
+        FiltroLimites filtro;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            // Mismas reglas que application.properties, con cubos que nunca se vacían:
+            // se mide el camino de una petición admitida
+            PropiedadesLimites propiedades = new PropiedadesLimites();
+            PropiedadesLimites.Regla busqueda = new PropiedadesLimites.Regla();
+            busqueda.setRuta("/libros");
+            busqueda.setParametro("keyword");
+            busqueda.setRafaga(Integer.MAX_VALUE);
+            busqueda.setPorMinuto(Integer.MAX_VALUE);
+            PropiedadesLimites.Regla login = new PropiedadesLimites.Regla();
+            login.setMetodo("POST");
+            login.setRuta("/login");
+            PropiedadesLimites.Regla solicitar = new PropiedadesLimites.Regla();
+            solicitar.setMetodo("POST");
+            solicitar.setRuta("/prestamos/solicitar");
+            propiedades.getReglas().put("login", login);
+            propiedades.getReglas().put("solicitar", solicitar);
+            propiedades.getReglas().put("busqueda", busqueda);
+            filtro = new FiltroLimites(propiedades, new SimpleMeterRegistry());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cliente {
+        private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+        MockHttpServletRequest busqueda;
+        MockHttpServletRequest detalle;
+        MockHttpServletResponse respuesta;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            String ip = "10.0.0." + SECUENCIA.incrementAndGet();
+            busqueda = new MockHttpServletRequest("GET", "/libros");
+            busqueda.setParameter("keyword", "quijote");
+            busqueda.setRemoteAddr(ip);
+            detalle = new MockHttpServletRequest("GET", "/libros/5");
+            detalle.setRemoteAddr(ip);
+            respuesta = new MockHttpServletResponse();
+        }
+    }
+
+    @Benchmark
+    public void sinFiltro(Cliente cliente) throws Exception {
+        CADENA_VACIA.doFilter(cliente.busqueda, cliente.respuesta);
+    }
+
+    @Benchmark
+    public void rutaSinRegla(Filtro filtro, Cliente cliente) throws Exception {
+        filtro.filtro.doFilter(cliente.detalle, cliente.respuesta, CADENA_VACIA);
+    }
+
+    @Benchmark
+    public void busqueda(Filtro filtro, Cliente cliente) throws Exception {
+        filtro.filtro.doFilter(cliente.busqueda, cliente.respuesta, CADENA_VACIA);
+    }
+}
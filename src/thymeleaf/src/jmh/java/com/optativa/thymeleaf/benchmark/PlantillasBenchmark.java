@@ -0,0 +1,153 @@
+package com.optativa.thymeleaf.benchmark;
+
+import com.optativa.thymeleaf.ThymeleafApplication;
+import com.optativa.thymeleaf.entidad.Libro;
+import com.optativa.thymeleaf.entidad.Usuario;
+import com.optativa.thymeleaf.servicio.LibroServicio;
+import com.optativa.thymeleaf.servicio.PrestamoServicio;
+import com.optativa.thymeleaf.servicio.UsuarioServicio;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.View;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo de render de cada plantilla, solo la vista (sin controlador, servicios ni SQL):
+ * el modelo se prepara una vez con los mismos datos que pondría el controlador.
+ *
+ *   cache=true  → spring.thymeleaf.cache=true  (perfil "prod"): la plantilla ya analizada
+ *   cache=false → spring.thymeleaf.cache=false (desarrollo): se lee y analiza en cada render
+ *
+ * La diferencia entre ambos es lo que cuesta analizar la plantilla y sus fragmentos
+ * (layout/main, navbar) en cada petición.
+ *
+ *   mvn -Pbenchmark test-compile exec:exec -Dbenchmark.jvm="-Dbenchmark.incluir=PlantillasBenchmark -Dbenchmark.hilos=1"
+ *
+ * Arranca la aplicación completa (servidor web en un puerto libre) porque ThymeleafView
+ * necesita el WebApplicationContext y el dialecto de seguridad.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlantillasBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cache;
+
+    @Param({"home", "login", "libros/lista-libros", "libros/detalle-libro", "prestamos/mis-prestamos"})
+    public String plantilla;
+
+    private ConfigurableApplicationContext contexto;
+    private WebApplicationContext web;
+    private View vista;
+    private Map<String, Object> modelo;
+    private SecurityContext seguridad;
+
+    @Setup(Level.Trial)
+    public void arrancar() throws Exception {
+        contexto = new SpringApplicationBuilder(ThymeleafApplication.class)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "server.port=0",
+                        "management.server.port=0",
+                        "spring.devtools.restart.enabled=false",
+                        "biblioteca.monitorizacion.trazas.habilitadas=false",
+                        "spring.thymeleaf.cache=" + cache)
+                .run();
+        web = (WebApplicationContext) contexto;
+
+        UserDetails lector = contexto.getBean(UserDetailsService.class).loadUserByUsername("lector@biblioteca.com");
+        seguridad = new SecurityContextImpl(
+                UsernamePasswordAuthenticationToken.authenticated(lector, null, lector.getAuthorities()));
+
+        vista = contexto.getBean(ThymeleafViewResolver.class).resolveViewName(plantilla, Locale.getDefault());
+        modelo = modelo(plantilla);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        SecurityContextHolder.clearContext();
+        contexto.close();
+    }
+
+    @Benchmark
+    public int renderizar() throws Exception {
+        SecurityContextHolder.setContext(seguridad);
+
+        MockHttpServletRequest peticion = new MockHttpServletRequest(web.getServletContext(), "GET", "/" + plantilla);
+        peticion.setAttribute(DispatcherServlet.WEB_APPLICATION_CONTEXT_ATTRIBUTE, web);
+        peticion.setAttribute("_csrf", new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", "benchmark"));
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+
+        vista.render(modelo, peticion, respuesta);
+        return respuesta.getContentAsByteArray().length;
+    }
+
+    /**
+     * Lo mismo que añade el controlador de cada vista
+     */
+    private Map<String, Object> modelo(String plantilla) {
+        LibroServicio libros = contexto.getBean(LibroServicio.class);
+        Map<String, Object> m = new HashMap<>();
+        switch (plantilla) {
+            case "home" -> m.put("titulo", "Bienvenido a la Biblioteca Online");
+            case "login" -> m.put("titulo", "Iniciar Sesión");
+            case "libros/lista-libros" -> {
+                Page<Libro> pagina = libros.obtenerTodosLosLibros(PageRequest.of(0, 10, Sort.by("titulo")));
+                m.put("libros", pagina.getContent());
+                m.put("page", pagina);
+                m.put("keyword", null);
+                m.put("titulo", "Catálogo de Libros");
+            }
+            case "libros/detalle-libro" -> {
+                Libro libro = libros.obtenerTodosLosLibros(PageRequest.of(0, 1)).getContent().get(0);
+                m.put("libro", libros.obtenerLibroPorId(libro.getId()).orElseThrow());
+                m.put("titulo", "Detalle: " + libro.getTitulo());
+            }
+            case "prestamos/mis-prestamos" -> {
+                Usuario lector = contexto.getBean(UsuarioServicio.class).findByEmail("lector@biblioteca.com").orElseThrow();
+                m.put("prestamos", contexto.getBean(PrestamoServicio.class).obtenerPrestamosPorUsuario(lector));
+                m.put("titulo", "Mis Préstamos");
+            }
+            default -> throw new IllegalArgumentException("Plantilla sin modelo: " + plantilla);
+        }
+        return m;
+    }
+}
@@ -0,0 +1,100 @@
+package com.optativa.thymeleaf.benchmark;
+
+import com.optativa.thymeleaf.entidad.Libro;
+import com.optativa.thymeleaf.entidad.Prestamo;
+import com.optativa.thymeleaf.servicio.PrestamoServicio;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rutas calientes de los servicios medidas de forma aislada (sin HTTP ni Thymeleaf):
+ *  - LibroServicio.buscarPorTitulo y obtenerTodosLosLibros(Pageable)
+ *  - PrestamoServicio.solicitarPrestamo + devolverPrestamo (el libro vuelve a quedar disponible;
+ *    los préstamos que se crean se borran al final de cada iteración)
+ *  - UserDetailsServiceImpl.loadUserByUsername
+ *
+ * El número de hilos lo decide EjecutarBenchmarks (1 hilo y N hilos por defecto).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiciosBenchmark {
+
+    /**
+     * Estado de cada hilo: su propio generador aleatorio y su propio libro para los préstamos
+     */
+    @State(Scope.Thread)
+    public static class Hilo {
+        SplittableRandom azar;
+        Integer libroId;
+
+        @Setup(Level.Trial)
+        public void preparar(ContextoBiblioteca contexto) {
+            azar = new SplittableRandom(Thread.currentThread().getId());
+            libroId = contexto.reservarLibroDisponible();
+        }
+
+        /**
+         * Cada llamada inserta un préstamo: sin esto la tabla crece durante toda la
+         * ejecución y las últimas iteraciones (y los hilos) miden otra cosa
+         */
+        @TearDown(Level.Iteration)
+        public void borrarPrestamos(ContextoBiblioteca contexto) {
+            contexto.borrarPrestamosCreados(libroId);
+        }
+    }
+
+    @Benchmark
+    public Page<Libro> buscarPorTitulo(ContextoBiblioteca contexto, Hilo hilo) {
+        String palabra = ContextoBiblioteca.PALABRAS_BUSQUEDA[hilo.azar.nextInt(ContextoBiblioteca.PALABRAS_BUSQUEDA.length)];
+        return contexto.getLibroServicio().buscarPorTitulo(palabra, pagina(0));
+    }
+
+    @Benchmark
+    public Page<Libro> obtenerTodosLosLibros(ContextoBiblioteca contexto, Hilo hilo) {
+        // Las primeras 100 páginas: lo que recorre un usuario real desde el catálogo
+        int pagina = hilo.azar.nextInt((int) Math.min(100, contexto.getPaginasCatalogo()));
+        return contexto.getLibroServicio().obtenerTodosLosLibros(pagina(pagina));
+    }
+
+    @Benchmark
+    public Prestamo solicitarYDevolverPrestamo(ContextoBiblioteca contexto, Hilo hilo) {
+        PrestamoServicio servicio = contexto.getPrestamoServicio();
+        Prestamo prestamo = servicio.solicitarPrestamo(hilo.libroId, contexto.getIdLector());
+        return servicio.devolverPrestamo(prestamo.getId());
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername(ContextoBiblioteca contexto, Hilo hilo) {
+        String email = contexto.emailLector(hilo.azar.nextInt(Integer.MAX_VALUE));
+        return contexto.getUserDetailsService().loadUserByUsername(email);
+    }
+
+    /**
+     * Misma paginación que /libros (@PageableDefault(size = 10, sort = "titulo"))
+     */
+    private static Pageable pagina(int numero) {
+        return PageRequest.of(numero, 10, Sort.by("titulo"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.optativa.thymeleaf.benchmark;
+
+import com.optativa.thymeleaf.config.SecurityConfig;
+import com.optativa.thymeleaf.entidad.enumerado.Rol;
+import com.optativa.thymeleaf.servicio.seguridad.EmisorTokens;
+import com.optativa.thymeleaf.servicio.seguridad.PropiedadesTokens;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import javax.crypto.SecretKey;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de autenticar una petición de la API con token (cadena /api/** de SecurityConfig),
+ * sin servidor ni Spring:
+ *
+ *   validarToken  → firma HMAC-SHA256 + emisor + caducidad (lo que se hace en cada petición)
+ *   emitirToken   → POST /api/token, sin contar la comprobación de la contraseña
+ *                   (eso es ContrasenasBenchmark)
+ *
+ *   mvn -Pbenchmark test-compile exec:exec -Dbenchmark.jvm="-Dbenchmark.incluir=TokensBenchmark -Dbenchmark.hilos=1"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokensBenchmark {
+
+    private JwtDecoder decodificador;
+    private EmisorTokens emisor;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        PropiedadesTokens propiedades = new PropiedadesTokens();
+        propiedades.setSecreto(Base64.getEncoder().encodeToString(new byte[32]));
+        SecurityConfig config = new SecurityConfig();
+        SecretKey clave = config.claveTokens(propiedades);
+        decodificador = config.jwtDecoder(clave, propiedades);
+        emisor = new EmisorTokens(config.jwtEncoder(clave), propiedades);
+        token = emisor.emitir(42, Rol.LECTOR).getTokenValue();
+    }
+
+    @Benchmark
+    public Jwt validarToken() {
+        return decodificador.decode(token);
+    }
+
+    @Benchmark
+    public Jwt emitirToken() {
+        return emisor.emitir(42, Rol.LECTOR);
+    }
+}
@@ -0,0 +1,26 @@
+package com.optativa.thymeleaf.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * ETag de los préstamos de la API (GET /api/prestamos/mios).
+ *
+ * El catálogo tiene su propia versión (VersionCatalogo) y contesta 304 antes de ir a
+ * la BD; los préstamos de cada usuario no. Aquí el ETag es el MD5 del JSON ya
+ * generado: la consulta se hace igual, pero si nada ha cambiado el quiosco o la app
+ * recibe un 304 sin cuerpo en lugar de volver a descargar la lista.
+ */
+@Configuration
+public class ApiConfig {
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> etagPrestamosApi() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registroFiltro =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registroFiltro.addUrlPatterns("/api/prestamos/mios");
+        return registroFiltro;
+    }
+}
@@ -0,0 +1,64 @@
+package com.optativa.thymeleaf.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.LazyInitializationException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEventListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Modo estricto para tests: cualquier carga perezosa (proxy o colección LAZY)
+ * fuera de una transacción lanza LazyInitializationException.
+ *
+ * Con spring.jpa.open-in-view=false Hibernate ya falla al tocar una relación
+ * no cargada después de la transacción; este modo además detecta las cargas que
+ * SÍ funcionarían si alguien vuelve a abrir la sesión durante la vista
+ * (open-in-view, un EntityManager abierto a mano...). Así cada vista tiene que
+ * recibir del servicio todo lo que navega (ver los @EntityGraph de los repositorios).
+ *
+ * Se activa con biblioteca.jpa.carga-perezosa-estricta=true (solo en tests).
+ */
+@Configuration
+@ConditionalOnProperty(name = "biblioteca.jpa.carga-perezosa-estricta", havingValue = "true")
+public class CargaPerezosaEstrictaConfig {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CargaPerezosaEstrictaConfig(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Los listeners se añaden DELANTE de los de Hibernate → fallan antes de lanzar la consulta
+     */
+    @PostConstruct
+    void registrarListeners() {
+        EventListenerRegistry registro = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        // IMMEDIATE_LOAD = inicialización de un proxy (@ManyToOne LAZY)
+        registro.prependListeners(EventType.LOAD, (LoadEventListener) (evento, tipo) -> {
+            if (tipo == LoadEventListener.IMMEDIATE_LOAD) {
+                comprobarTransaccion(evento.getEntityClassName() + "#" + evento.getEntityId());
+            }
+        });
+        registro.prependListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) evento ->
+                comprobarTransaccion(evento.getCollection().getRole()));
+    }
+
+    private static void comprobarTransaccion(String relacion) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new LazyInitializationException(
+                    "Carga perezosa de " + relacion + " fuera de una transacción: "
+                    + "añádela al plan de carga (@EntityGraph) de la consulta del servicio");
+        }
+    }
+}
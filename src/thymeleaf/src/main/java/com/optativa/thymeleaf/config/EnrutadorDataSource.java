@@ -0,0 +1,99 @@
+package com.optativa.thymeleaf.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * DataSource que reparte las conexiones entre la base de datos principal y la réplica de lectura.
+ *
+ * Regla:
+ *  - Transacción @Transactional(readOnly = true)  → RÉPLICA
+ *  - Cualquier otra cosa (escrituras, sin transacción) → PRINCIPAL
+ *
+ * Si la réplica no responde se usa la principal y no se vuelve a intentar
+ * con la réplica hasta que pasa el tiempo de reintento (evita pagar el fallo en cada petición).
+ *
+ * IMPORTANTE: debe envolverse en un LazyConnectionDataSourceProxy para que la conexión
+ * se pida cuando la transacción ya está marcada como de solo lectura (ver ReplicaLecturaConfig).
+ */
+public class EnrutadorDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrutadorDataSource.class);
+
+    /**
+     * Claves de enrutamiento
+     */
+    public enum Destino { PRINCIPAL, LECTURA }
+
+    private final DataSource principal;
+    private final DataSource lectura;
+    private final long reintentoNanos;
+
+    /**
+     * Momento (System.nanoTime) hasta el que la réplica se considera caída (0 = disponible)
+     */
+    private volatile long replicaCaidaHasta;
+
+    public EnrutadorDataSource(DataSource principal, DataSource lectura, Duration reintento) {
+        this.principal = principal;
+        this.lectura = lectura;
+        this.reintentoNanos = reintento.toNanos();
+        setTargetDataSources(Map.of(Destino.PRINCIPAL, principal, Destino.LECTURA, lectura));
+        setDefaultTargetDataSource(principal);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaDisponible()) {
+            return Destino.LECTURA;
+        }
+        return Destino.PRINCIPAL;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Destino.LECTURA) {
+            try {
+                return lectura.getConnection();
+            } catch (SQLException | RuntimeException e) {      // Hikari lanza PoolInitializationException (Runtime)
+                marcarReplicaCaida(e);
+            }
+        }
+        return principal.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (determineCurrentLookupKey() == Destino.LECTURA) {
+            try {
+                return lectura.getConnection(username, password);
+            } catch (SQLException | RuntimeException e) {
+                marcarReplicaCaida(e);
+            }
+        }
+        return principal.getConnection(username, password);
+    }
+
+    /**
+     * Pasado el plazo de reintento se vuelve a probar la réplica
+     */
+    private boolean replicaDisponible() {
+        long hasta = replicaCaidaHasta;
+        return hasta == 0 || System.nanoTime() - hasta >= 0;
+    }
+
+    private void marcarReplicaCaida(Exception e) {
+        long hasta = System.nanoTime() + reintentoNanos;
+        replicaCaidaHasta = hasta == 0 ? 1 : hasta;
+        log.warn("Réplica de lectura no disponible, se usa la base de datos principal: {}", e.getMessage());
+    }
+}
@@ -0,0 +1,97 @@
+package com.optativa.thymeleaf.config;
+
+import com.optativa.thymeleaf.entidad.Prestamo;
+import com.optativa.thymeleaf.repositorio.LibroRepositorio;
+import com.optativa.thymeleaf.repositorio.PrestamoRepositorio;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Métricas de negocio (gauges) que se publican en /actuator/prometheus junto a los
+ * timers @Timed de los servicios:
+ *
+ *  - biblioteca.prestamos.activos   → préstamos en estado ACTIVO
+ *  - biblioteca.prestamos.vencidos  → VENCIDO + ACTIVO con la fecha prevista ya pasada
+ *  - biblioteca.libros.disponibles  → libros con disponible = true
+ *
+ * Cada valor es un COUNT en la base de datos. Para que un scrape frecuente (o varios
+ * Prometheus a la vez) no se convierta en carga, el resultado se reutiliza durante
+ * biblioteca.metricas.refresco (30 s por defecto).
+ */
+@Configuration
+public class MetricasConfig {
+
+    @Bean
+    public MeterBinder metricasBiblioteca(
+            PrestamoRepositorio prestamoRepositorio,
+            LibroRepositorio libroRepositorio,
+            @Value("${biblioteca.metricas.refresco:30s}") Duration refresco) {
+
+        Conteo activos = new Conteo(refresco,
+                () -> prestamoRepositorio.countByEstado(Prestamo.EstadoPrestamo.ACTIVO));
+        Conteo vencidos = new Conteo(refresco,
+                () -> prestamoRepositorio.countByEstado(Prestamo.EstadoPrestamo.VENCIDO)
+                        + prestamoRepositorio.countByFechaDevolucionPrevistaBeforeAndEstado(
+                                LocalDate.now(), Prestamo.EstadoPrestamo.ACTIVO));
+        Conteo disponibles = new Conteo(refresco, libroRepositorio::countByDisponibleTrue);
+
+        return registro -> {
+            Gauge.builder("biblioteca.prestamos.activos", activos, Conteo::valor)
+                    .description("Préstamos en curso")
+                    .register(registro);
+            Gauge.builder("biblioteca.prestamos.vencidos", vencidos, Conteo::valor)
+                    .description("Préstamos fuera de plazo (marcados VENCIDO o activos con la fecha pasada)")
+                    .register(registro);
+            Gauge.builder("biblioteca.libros.disponibles", disponibles, Conteo::valor)
+                    .description("Libros que se pueden prestar ahora mismo")
+                    .register(registro);
+        };
+    }
+
+    /**
+     * Último valor de una consulta de conteo, recalculado como mucho una vez por intervalo.
+     *
+     * ReentrantLock y no synchronized: la consulta se hace con el cerrojo cogido y, con
+     * hilos virtuales (perfil "hilos-virtuales"), bloquearse en JDBC dentro de un
+     * synchronized fija el hilo portador (pinning) mientras dura el COUNT.
+     */
+    static class Conteo {
+
+        private final long intervaloNanos;
+        private final LongSupplier consulta;
+        private final ReentrantLock cerrojo = new ReentrantLock();
+        private long valor;
+        private long calculadoEn;
+        private boolean calculado;
+
+        Conteo(Duration intervalo, LongSupplier consulta) {
+            this.intervaloNanos = intervalo.toNanos();
+            this.consulta = consulta;
+        }
+
+        double valor() {
+            cerrojo.lock();
+            try {
+                long ahora = System.nanoTime();
+                if (!calculado || ahora - calculadoEn >= intervaloNanos) {
+                    valor = consulta.getAsLong();
+                    calculadoEn = ahora;
+                    calculado = true;
+                }
+                return valor;
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+    }
+}
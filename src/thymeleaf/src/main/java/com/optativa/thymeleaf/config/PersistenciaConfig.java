@@ -0,0 +1,58 @@
+package com.optativa.thymeleaf.config;
+
+import com.optativa.thymeleaf.datos.InstantaneaBaseDatos;
+import com.optativa.thymeleaf.datos.PropiedadesPersistencia;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Configuración del perfil "persistente": base de datos H2 en fichero.
+ *
+ * - La URL y los ajustes de MVStore están en application-persistente.properties
+ * - Antes de abrir el pool se restaura la instantánea si la base de datos no existe
+ * - Tras el primer arranque se guarda una instantánea del dataset generado
+ *
+ * Arranque típico:
+ *   --spring.profiles.active=persistente          (datos de IniciarDatos)
+ *   --spring.profiles.active=carga,persistente    (dataset masivo, se genera una sola vez)
+ */
+@Configuration
+@Profile("persistente")
+@EnableConfigurationProperties(PropiedadesPersistencia.class)
+public class PersistenciaConfig {
+
+    /**
+     * Restaura la instantánea justo cuando se crea el DataSource (el pool de Hikari
+     * aún no ha abierto conexiones, así que H2 no ha creado una base de datos vacía).
+     *
+     * Es static → se registra antes que el resto de beans, como exige un BeanPostProcessor.
+     */
+    @Bean
+    public static BeanPostProcessor restaurarInstantanea(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource) {
+                    PropiedadesPersistencia propiedades = Binder.get(environment)
+                            .bindOrCreate("biblioteca.persistencia", PropiedadesPersistencia.class);
+                    InstantaneaBaseDatos.restaurarSiHaceFalta(propiedades);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public InstantaneaBaseDatos instantaneaBaseDatos(JdbcTemplate jdbcTemplate, PropiedadesPersistencia propiedades) {
+        return new InstantaneaBaseDatos(jdbcTemplate, propiedades);
+    }
+}
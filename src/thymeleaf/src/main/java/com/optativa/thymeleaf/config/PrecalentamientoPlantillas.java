@@ -0,0 +1,134 @@
+package com.optativa.thymeleaf.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.cache.ICache;
+import org.thymeleaf.cache.TemplateCacheKey;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.EngineContext;
+import org.thymeleaf.engine.TemplateData;
+import org.thymeleaf.engine.TemplateManager;
+import org.thymeleaf.engine.TemplateModel;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deja todas las plantillas analizadas en la caché de Thymeleaf antes de que el
+ * servidor acepte peticiones (perfil "prod", biblioteca.plantillas.precalentar=true).
+ *
+ * Thymeleaf guarda en caché cada plantilla y, por separado, cada fragmento según la
+ * plantilla que lo incluye:
+ *   (null,                libros/lista-libros, -)          → la página
+ *   (libros/lista-libros, layout/main,         [layout])    → ~{layout/main :: layout(...)}
+ *   (libros/lista-libros, libros/lista-libros, [section])   → ~{::section}
+ *   (layout/main,         fragments/navbar,    [navbar])    → ~{fragments/navbar :: navbar}
+ *
+ * Por eso se recorren los ficheros de plantillas y, en cada uno, sus expresiones de
+ * fragmento ~{plantilla :: selector}. Solo se analiza, no se procesa: no hace falta
+ * modelo, petición ni usuario.
+ *
+ * Se ejecuta al terminar de crear los singletons, antes de arrancar el servidor web.
+ * Necesita spring.thymeleaf.cache=true (sin caché no hay nada que calentar).
+ */
+@Component
+@ConditionalOnProperty(name = "biblioteca.plantillas.precalentar", havingValue = "true")
+public class PrecalentamientoPlantillas implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(PrecalentamientoPlantillas.class);
+
+    /**
+     * ~{layout/main :: layout(...)} → (layout/main, layout); ~{::section} → ("", section)
+     */
+    private static final Pattern FRAGMENTO = Pattern.compile("~\\{\\s*([\\w/.-]*)\\s*::\\s*([\\w-]+)");
+
+    private final SpringTemplateEngine motor;
+    private final String prefijo;
+    private final String sufijo;
+
+    public PrecalentamientoPlantillas(
+            SpringTemplateEngine motor,
+            @Value("${spring.thymeleaf.prefix:classpath:/templates/}") String prefijo,
+            @Value("${spring.thymeleaf.suffix:.html}") String sufijo) {
+        this.motor = motor;
+        this.prefijo = prefijo;
+        this.sufijo = sufijo;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long inicio = System.nanoTime();
+        IEngineConfiguration configuracion = motor.getConfiguration();
+        ICache<TemplateCacheKey, TemplateModel> cache = configuracion.getCacheManager() != null
+                ? configuracion.getCacheManager().getTemplateCache() : null;
+        if (cache == null) {
+            log.warn("Caché de plantillas desactivada: no se precalienta nada");
+            return;
+        }
+
+        Map<String, String> fuentes = leerPlantillas();
+
+        // 1. Cada plantilla completa. processThrottled analiza y guarda en caché,
+        //    pero no procesa nada hasta que se le pide salida
+        Map<String, TemplateData> datos = new LinkedHashMap<>();
+        for (String plantilla : fuentes.keySet()) {
+            motor.processThrottled(plantilla, new Context());
+            TemplateModel modelo = cache.get(new TemplateCacheKey(null, plantilla, null, 0, 0, null, null));
+            if (modelo == null) {
+                log.warn("La plantilla {} no se guarda en caché (¿spring.thymeleaf.cache=false?)", plantilla);
+                return;
+            }
+            datos.put(plantilla, modelo.getTemplateData());
+        }
+
+        // 2. Cada fragmento, con la plantilla que lo incluye como propietaria (parte de la clave)
+        TemplateManager plantillas = configuracion.getTemplateManager();
+        int fragmentos = 0;
+        for (Map.Entry<String, String> fuente : fuentes.entrySet()) {
+            EngineContext propietaria =
+                    new EngineContext(configuracion, datos.get(fuente.getKey()), null, Locale.ROOT, Map.of());
+            Matcher m = FRAGMENTO.matcher(fuente.getValue());
+            while (m.find()) {
+                String plantilla = m.group(1).isEmpty() ? fuente.getKey() : m.group(1);
+                plantillas.parseStandalone(propietaria, plantilla, Set.of(m.group(2)), null, true, false);
+                fragmentos++;
+            }
+        }
+
+        log.info("Plantillas precalentadas: {} plantillas y {} fragmentos en {} ms",
+                datos.size(), fragmentos, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Nombre lógico (libros/lista-libros) → contenido, de todos los ficheros bajo el prefijo
+     */
+    private Map<String, String> leerPlantillas() {
+        String carpeta = prefijo.substring(prefijo.indexOf(':') + 1);
+        Map<String, String> fuentes = new LinkedHashMap<>();
+        try {
+            for (Resource recurso : new PathMatchingResourcePatternResolver().getResources(prefijo + "**/*" + sufijo)) {
+                String url = recurso.getURL().toString();
+                String nombre = url.substring(url.lastIndexOf(carpeta) + carpeta.length(), url.length() - sufijo.length());
+                fuentes.put(nombre, recurso.getContentAsString(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pueden leer las plantillas de " + prefijo, e);
+        }
+        return fuentes;
+    }
+}
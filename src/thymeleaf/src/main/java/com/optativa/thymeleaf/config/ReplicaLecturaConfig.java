@@ -0,0 +1,70 @@
+package com.optativa.thymeleaf.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Separación lectura/escritura de la base de datos (opcional).
+ *
+ * Se activa con biblioteca.replica.habilitada=true (perfil "replica"). Entonces:
+ *  - "dataSourcePrincipal" → spring.datasource.*             (escrituras)
+ *  - "dataSourceLectura"   → biblioteca.replica.datasource.*  (métodos @Transactional(readOnly = true))
+ *  - "dataSource"          → enrutador entre ambos, es el que usan JPA, Flyway, etc.
+ *
+ * Así la navegación del catálogo usa su propio pool (o una réplica) y no
+ * compite por conexiones con los préstamos y devoluciones.
+ *
+ * Sin la propiedad, Spring Boot crea el DataSource único de siempre.
+ */
+@Configuration
+@ConditionalOnProperty(name = "biblioteca.replica.habilitada", havingValue = "true")
+public class ReplicaLecturaConfig {
+
+    /**
+     * Pool principal: mismas propiedades que el DataSource por defecto (spring.datasource.*)
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrincipal(DataSourceProperties propiedades) {
+        return propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Pool de lectura (réplica o un segundo pool contra la misma BD).
+     * Las propiedades se aplican directamente a Hikari: jdbc-url, username, maximum-pool-size...
+     */
+    @Bean
+    @ConfigurationProperties("biblioteca.replica.datasource")
+    public HikariDataSource dataSourceLectura() {
+        return DataSourceBuilder.create().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * DataSource que ve el resto de la aplicación.
+     *
+     * LazyConnectionDataSourceProxy retrasa la petición de la conexión real hasta
+     * la primera sentencia → para entonces Spring ya ha marcado la transacción
+     * como readOnly y el enrutador puede decidir el destino.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("dataSourcePrincipal") DataSource principal,
+            @Qualifier("dataSourceLectura") DataSource lectura,
+            @Value("${biblioteca.replica.reintento:30s}") Duration reintento) {
+        return new LazyConnectionDataSourceProxy(new EnrutadorDataSource(principal, lectura, reintento));
+    }
+}
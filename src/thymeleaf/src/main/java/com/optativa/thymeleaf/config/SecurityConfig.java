@@ -1,17 +1,51 @@
 package com.optativa.thymeleaf.config;
 
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.security.autoconfigure.actuate.web.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.http.HttpMethod;
+import org.springframework.util.ClassUtils;
 
 import com.optativa.thymeleaf.entidad.enumerado.Rol;
+import com.optativa.thymeleaf.servicio.seguridad.EmisorTokens;
+import com.optativa.thymeleaf.servicio.seguridad.PropiedadesTokens;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Configuración central de Spring Security
@@ -20,21 +54,164 @@ import com.optativa.thymeleaf.entidad.enumerado.Rol;
  *  - Cómo se encriptan las contraseñas
  *  - Qué rutas son públicas, privadas, de solo lectura, solo admin, etc.
  *  - Cómo funciona el login, logout y manejo de errores de autorización
+ *
+ * Tres cadenas de filtros, la primera que encaja con la ruta gana:
+ *  1. /api/token  → HTTP Basic (email y contraseña) para pedir un token
+ *  2. /api/**     → solo "Authorization: Bearer <token>", sin sesión ni CSRF
+ *  3. el resto    → páginas: formulario de login, sesión y CSRF
  */
 @Configuration
 @EnableWebSecurity                          // Activa la configuración de seguridad web
 @EnableMethodSecurity                       // Permite usar anotaciones @PreAuthorize, @Secured, @RolesAllowed en métodos
+@EnableConfigurationProperties(PropiedadesTokens.class)
 public class SecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
     /**
      * Bean que define el algoritmo de encriptación de contraseñas
-     * BCrypt es el más recomendado hoy en día para contraseñas de usuarios
+     *
+     * DelegatingPasswordEncoder: cada hash guarda delante su algoritmo ("{bcrypt}$2a$10$...")
+     * → se pueden cambiar algoritmo y coste (biblioteca.contrasenas.*) sin invalidar las
+     * contraseñas que ya hay en la BD. Los hashes antiguos sin prefijo se leen como BCrypt.
+     *
+     * Al iniciar sesión, si el hash guardado no usa el algoritmo y el coste configurados,
+     * Spring Security lo vuelve a calcular con la contraseña recién comprobada y lo guarda
+     * (UserDetailsServiceImpl.updatePassword). Medición: ContrasenasBenchmark (logins/s por núcleo).
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(
+            @Value("${biblioteca.contrasenas.algoritmo:bcrypt}") String algoritmo,
+            @Value("${biblioteca.contrasenas.coste-bcrypt:10}") int costeBcrypt) {
+        Map<String, PasswordEncoder> codificadores = new HashMap<>();
+        // Coste 10 ≈ 12 logins/s por núcleo; cada +1 duplica el tiempo de cada login
+        codificadores.put("bcrypt", new BCryptConCoste(costeBcrypt));
+        codificadores.put("pbkdf2@SpringSecurity_v5_8", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        // Argon2 necesita BouncyCastle (org.bouncycastle:bcprov-jdk18on) en el classpath
+        if (ClassUtils.isPresent("org.bouncycastle.crypto.generators.Argon2BytesGenerator", null)) {
+            codificadores.put("argon2@SpringSecurity_v5_8", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        }
+
+        String id = codificadores.keySet().stream()
+                .filter(clave -> clave.equals(algoritmo) || clave.startsWith(algoritmo + "@"))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("biblioteca.contrasenas.algoritmo=" + algoritmo
+                        + " no disponible (" + codificadores.keySet() + ")"));
+
+        DelegatingPasswordEncoder codificador = new DelegatingPasswordEncoder(id, codificadores);
+        codificador.setDefaultPasswordEncoderForMatches(codificadores.get("bcrypt"));   // hashes sin {prefijo}
+        return codificador;
+    }
+
+    /**
+     * BCrypt que pide recalcular cualquier hash con un coste distinto del configurado
+     * (BCryptPasswordEncoder solo lo hace si es menor): bajar el coste para aguantar más
+     * logins por segundo también se aplica a las contraseñas que ya existen.
+     */
+    static class BCryptConCoste extends BCryptPasswordEncoder {
+
+        private static final Pattern COSTE = Pattern.compile("\\A\\$2[ayb]?\\$(\\d\\d)\\$");
+
+        private final int coste;
+
+        BCryptConCoste(int coste) {
+            super(coste);
+            this.coste = coste;
+        }
+
+        @Override
+        protected boolean upgradeEncodingNonNull(String hash) {
+            Matcher matcher = COSTE.matcher(hash);
+            return matcher.find() && Integer.parseInt(matcher.group(1)) != coste;
+        }
+    }
+
+    // ────────────────────────────────────────────────────────────────
+    // API JSON: tokens firmados en lugar de sesión
+    // ────────────────────────────────────────────────────────────────
+
+    /**
+     * Clave HMAC de los tokens (biblioteca.api.tokens.secreto). Sin configurar se genera
+     * una al arrancar: vale para desarrollo, no con varias instancias ni tras un reinicio.
+     * Con biblioteca.api.tokens.secreto-obligatorio=true (prod, sesiones-jdbc) no arranca.
+     */
+    @Bean
+    public SecretKey claveTokens(PropiedadesTokens propiedades) {
+        byte[] clave;
+        if (propiedades.getSecreto().isBlank()) {
+            if (propiedades.isSecretoObligatorio()) {
+                throw new IllegalStateException("biblioteca.api.tokens.secreto vacío: es obligatorio en este perfil "
+                        + "(Base64 de 32 bytes o más, p. ej. openssl rand -base64 32)");
+            }
+            log.warn("biblioteca.api.tokens.secreto vacío: clave aleatoria, los tokens de la API "
+                    + "no valdrán tras un reinicio ni en otras instancias");
+            clave = new byte[32];
+            new SecureRandom().nextBytes(clave);
+        } else {
+            clave = Base64.getDecoder().decode(propiedades.getSecreto());
+            if (clave.length < 32) {
+                throw new IllegalStateException("biblioteca.api.tokens.secreto: HS256 necesita al menos 32 bytes");
+            }
+        }
+        return new SecretKeySpec(clave, "HmacSHA256");
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder(SecretKey claveTokens) {
+        return new NimbusJwtEncoder(new ImmutableSecret<>(claveTokens));
+    }
+
+    /**
+     * Validar un token = comprobar la firma HMAC, el emisor y la caducidad: microsegundos,
+     * sin BD ni sesión
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(SecretKey claveTokens, PropiedadesTokens propiedades) {
+        NimbusJwtDecoder decodificador = NimbusJwtDecoder.withSecretKey(claveTokens)
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+        decodificador.setJwtValidator(JwtValidators.createDefaultWithIssuer(propiedades.getEmisor()));
+        return decodificador;
+    }
+
+    /**
+     * POST /api/token: email y contraseña por HTTP Basic (mismo UserDetailsService y
+     * PasswordEncoder que el formulario, rehash incluido) → TokenApiController emite el token
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        // fuerza por defecto = 10 → buen balance entre seguridad y rendimiento
-        return new BCryptPasswordEncoder();
-        // Alternativas (no recomendadas para nuevos proyectos): NoOpPasswordEncoder, Pbkdf2, Argon2
+    @Order(1)
+    public SecurityFilterChain tokenFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher("/api/token")
+            .authorizeHttpRequests(auth -> auth.anyRequest().authenticated())
+            .httpBasic(Customizer.withDefaults())
+            .sessionManagement(sesion -> sesion.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            // Sin cookies de por medio no hay nada que falsificar entre sitios
+            .csrf(csrf -> csrf.disable());
+        return http.build();
+    }
+
+    /**
+     * /api/**: cada petición trae su token (Authorization: Bearer). Id del usuario en "sub"
+     * y rol en "rol" → ROLE_LECTOR / ROLE_ADMIN, como con el formulario. Sin token o con
+     * uno inválido o caducado → 401 (nunca la redirección a /login de las páginas).
+     */
+    @Bean
+    @Order(2)
+    public SecurityFilterChain apiFilterChain(HttpSecurity http) throws Exception {
+        JwtGrantedAuthoritiesConverter roles = new JwtGrantedAuthoritiesConverter();
+        roles.setAuthoritiesClaimName(EmisorTokens.CLAIM_ROL);
+        roles.setAuthorityPrefix("ROLE_");
+        JwtAuthenticationConverter conversor = new JwtAuthenticationConverter();
+        conversor.setJwtGrantedAuthoritiesConverter(roles);
+
+        http
+            .securityMatcher("/api/**")
+            .authorizeHttpRequests(auth -> auth.anyRequest().authenticated())
+            .oauth2ResourceServer(recurso -> recurso.jwt(jwt -> jwt.jwtAuthenticationConverter(conversor)))
+            .sessionManagement(sesion -> sesion.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .csrf(csrf -> csrf.disable());
+        return http.build();
     }
 
     /**
@@ -76,11 +253,17 @@ public class SecurityConfig {
 
                     // 2. RUTAS DE ERROR Y ACCESO
                     .requestMatchers("/login", "/error").permitAll()
+
+                    // 2b. ACTUATOR (puerto de gestión, solo 127.0.0.1): health y scrape sin login; el resto
+                    //     (rendimiento: SQL de las consultas lentas, pools, reinicio de contadores) solo admin
+                    .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
+                    .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole(Rol.ADMIN.name())
                     
                     // 3. REGLAS DE ADMIN (Específicas primero)
                     .requestMatchers("/h2/**").hasRole(Rol.ADMIN.name())
+                    .requestMatchers("/admin/**").hasRole(Rol.ADMIN.name())
                     .requestMatchers("/libros/nuevo", "/libros/*/editar", "/libros/*/eliminar", "/libros/guardar").hasRole(Rol.ADMIN.name())
-                    .requestMatchers("/prestamos", "/prestamos/nuevo", "/prestamos/{id}/editar").hasRole(Rol.ADMIN.name())
+                    .requestMatchers("/prestamos", "/prestamos/nuevo", "/prestamos/crear", "/prestamos/editar", "/prestamos/{id}/editar").hasRole(Rol.ADMIN.name())
 
                     // 4. RUTAS PÚBLICAS (Sin login)
                     // Nota: He separado /libros para que solo el GET sea público
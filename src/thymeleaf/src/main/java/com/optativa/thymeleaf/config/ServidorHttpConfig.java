@@ -0,0 +1,40 @@
+package com.optativa.thymeleaf.config;
+
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Ajustes de HTTP/2 en Tomcat que no tienen propiedad server.* propia
+ * (perfil "http2", ver application-http2.properties).
+ *
+ * Spring Boot añade el protocolo HTTP/2 al conector (server.http2.enabled=true)
+ * antes de aplicar los TomcatConnectorCustomizer → aquí ya está y se puede ajustar.
+ * La compresión (server.compression.*) la hereda de la configuración HTTP/1.1 del conector.
+ */
+@Configuration
+@ConditionalOnProperty(name = "server.http2.enabled", havingValue = "true")
+public class ServidorHttpConfig {
+
+    @Bean
+    public TomcatConnectorCustomizer ajustesHttp2(
+            @Value("${biblioteca.http2.keep-alive:30s}") Duration keepAlive,
+            @Value("${biblioteca.http2.max-streams:100}") long maxStreams) {
+        return conector -> {
+            for (UpgradeProtocol protocolo : conector.findUpgradeProtocols()) {
+                if (protocolo instanceof Http2Protocol http2) {
+                    // Conexión sin streams activos: se cierra tras este tiempo (por defecto 20 s)
+                    http2.setKeepAliveTimeout(keepAlive.toMillis());
+                    // Peticiones simultáneas por conexión (por defecto 100)
+                    http2.setMaxConcurrentStreams(maxStreams);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.optativa.thymeleaf.controlador;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Errores de la API JSON como application/problem+json (RFC 9457) en lugar de la
+ * página de error o los mensajes flash de las vistas:
+ *
+ *   IllegalArgumentException  → 400 (fields desconocido, cursor no válido, sin libroId)
+ *   IllegalStateException     → 409 (libro no disponible, préstamo ya devuelto...)
+ *   ResponseStatusException   → su estado (404, 403)
+ *
+ * Solo para los controladores de /api: las vistas siguen con su propio manejo.
+ */
+@RestControllerAdvice(assignableTypes = {LibroApiController.class, PrestamoApiController.class})
+public class ErroresApi {
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ProblemDetail peticionIncorrecta(IllegalArgumentException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ProblemDetail conflicto(IllegalStateException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ProblemDetail estado(ResponseStatusException e) {
+        return ProblemDetail.forStatusAndDetail(e.getStatusCode(), e.getReason());
+    }
+}
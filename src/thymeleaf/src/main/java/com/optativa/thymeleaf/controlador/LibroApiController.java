@@ -0,0 +1,105 @@
+package com.optativa.thymeleaf.controlador;
+
+import com.optativa.thymeleaf.dto.LibroDto;
+import com.optativa.thymeleaf.dto.PaginaDto;
+import com.optativa.thymeleaf.repositorio.proyeccion.LibroResumen;
+import com.optativa.thymeleaf.servicio.LibroServicio;
+import com.optativa.thymeleaf.vista.VersionCatalogo;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Catálogo en JSON para clientes sin navegador (quioscos, apps móviles):
+ *
+ *   GET /api/libros?limite=20&despues=<cursor>&fields=id,titulo
+ *   GET /api/libros/{id}?fields=titulo,sinopsis
+ *
+ * Sale de proyecciones (solo las columnas del DTO, autor en la misma consulta) y
+ * pagina por clave: "siguiente" es el cursor de la página siguiente.
+ * ETag como /libros (VersionCatalogo) → 304 sin tocar la BD.
+ */
+@RestController
+@RequestMapping("/api/libros")
+public class LibroApiController {
+
+    static final int LIMITE_MAXIMO = 100;
+
+    private final LibroServicio libroServicio;
+    private final VersionCatalogo versionCatalogo;
+
+    public LibroApiController(LibroServicio libroServicio, VersionCatalogo versionCatalogo) {
+        this.libroServicio = libroServicio;
+        this.versionCatalogo = versionCatalogo;
+    }
+
+    @GetMapping
+    public PaginaDto<Object> listar(
+            @RequestParam(defaultValue = "20") int limite,
+            @RequestParam(required = false) String despues,
+            @RequestParam(required = false) String fields,
+            ServletWebRequest peticion) {
+
+        // Antes de la BD: fields y cursor mal formados son 400 aunque el catálogo no haya cambiado
+        Set<String> seleccion = LibroDto.CAMPOS_LISTADO.seleccion(fields);
+        String despuesDeTitulo = null;
+        Integer despuesDeId = null;
+        if (despues != null) {
+            String[] claves = PaginaDto.claves(despues, 2);
+            despuesDeId = PaginaDto.id(claves[0]);
+            despuesDeTitulo = claves[1];
+        }
+
+        if (versionCatalogo.catalogoApiNoModificado(peticion)) {
+            return null;
+        }
+
+        int tamano = limite(limite);
+        // Uno de más para saber si hay página siguiente sin un COUNT
+        List<LibroResumen> libros = libroServicio.listarResumenes(despuesDeTitulo, despuesDeId, tamano + 1);
+        String siguiente = null;
+        if (libros.size() > tamano) {
+            libros = libros.subList(0, tamano);
+            LibroResumen ultimo = libros.get(tamano - 1);
+            siguiente = PaginaDto.cursor(ultimo.getId(), ultimo.getTitulo());
+        }
+
+        List<Object> elementos = libros.stream()
+                .map(libro -> LibroDto.CAMPOS_LISTADO.aplicar(LibroDto.de(libro), seleccion))
+                .toList();
+        return new PaginaDto<>(elementos, siguiente);
+    }
+
+    @GetMapping("/{id}")
+    public Object detalle(
+            @PathVariable Integer id,
+            @RequestParam(required = false) String fields,
+            ServletWebRequest peticion) {
+
+        Set<String> seleccion = LibroDto.CAMPOS.seleccion(fields);
+        if (versionCatalogo.libroApiNoModificado(peticion, id)) {
+            return null;
+        }
+
+        LibroDto libro = libroServicio.obtenerDetalle(id)
+                .map(LibroDto::de)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Libro no encontrado"));
+        return LibroDto.CAMPOS.aplicar(libro, seleccion);
+    }
+
+    static int limite(int limite) {
+        if (limite < 1) {
+            throw new IllegalArgumentException("limite debe ser al menos 1");
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+}
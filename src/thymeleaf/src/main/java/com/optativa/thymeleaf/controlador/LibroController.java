@@ -2,6 +2,8 @@ package com.optativa.thymeleaf.controlador;
 
 import com.optativa.thymeleaf.entidad.Libro;
 import com.optativa.thymeleaf.servicio.*;
+import com.optativa.thymeleaf.vista.CacheFragmentos;
+import com.optativa.thymeleaf.vista.VersionCatalogo;
 import jakarta.validation.Valid;
 
 import org.springframework.data.domain.Page;
@@ -12,6 +14,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.Optional;
@@ -35,13 +38,19 @@ public class LibroController {
     private final LibroServicio libroServicio;
     private final AutorServicio autorServicio;
     private final CategoriaServicio categoriaServicio;
+    private final CacheFragmentos cacheFragmentos;
+    private final VersionCatalogo versionCatalogo;
 
     public LibroController(LibroServicio libroServicio, 
                           AutorServicio autorServicio, 
-                          CategoriaServicio categoriaServicio) {
+                          CategoriaServicio categoriaServicio,
+                          CacheFragmentos cacheFragmentos,
+                          VersionCatalogo versionCatalogo) {
         this.libroServicio = libroServicio;
         this.autorServicio = autorServicio;
         this.categoriaServicio = categoriaServicio;
+        this.cacheFragmentos = cacheFragmentos;
+        this.versionCatalogo = versionCatalogo;
     }
 
     /**
@@ -53,7 +62,24 @@ public class LibroController {
     public String listarLibros(
             Model model,
             @PageableDefault(size = 10, sort = "titulo") Pageable pageable,
-            @RequestParam(required = false) String keyword) {
+            @RequestParam(required = false) String keyword,
+            ServletWebRequest peticion) {
+
+        // GET condicional: si el navegador/proxy ya tiene esta versión del catálogo → 304
+        // (null = respuesta ya resuelta, sin consultas ni plantilla)
+        if (versionCatalogo.catalogoNoModificado(peticion)) {
+            return null;
+        }
+
+        // La sección del listado se cachea ya renderizada (bib:cache en la plantilla)
+        // por rol + página + tamaño + orden + búsqueda
+        String claveCatalogo = "catalogo|" + pageable.getPageNumber() + "|" + pageable.getPageSize()
+                + "|" + pageable.getSort() + "|" + keyword;
+        model.addAttribute("claveCatalogo", claveCatalogo);
+        model.addAttribute("titulo", "Catálogo de Libros");
+        if (cacheFragmentos.obtener(claveCatalogo) != null) {
+            return "libros/lista-libros";               // en caché → ninguna consulta
+        }
 
         Page<Libro> page;
         if (keyword != null && !keyword.trim().isEmpty()) {
@@ -65,7 +91,6 @@ public class LibroController {
         model.addAttribute("libros", page.getContent()); // Los libros de la página actual
         model.addAttribute("page", page);               // El objeto Page completo para la vista
         model.addAttribute("keyword", keyword);         // Para mantener el texto en el buscador
-        model.addAttribute("titulo", "Catálogo de Libros");
 
         return "libros/lista-libros";
     }
@@ -75,7 +100,12 @@ public class LibroController {
      * Accesible públicamente (GET /libros/123)
      */
     @GetMapping("/{id}")                 // → /libros/5
-    public String detalleLibro(@PathVariable Integer id, Model model) {
+    public String detalleLibro(@PathVariable Integer id, Model model, ServletWebRequest peticion) {
+        // Mismo mecanismo que el listado, con la versión de este libro
+        if (versionCatalogo.libroNoModificado(peticion, id)) {
+            return null;
+        }
+
         Optional<Libro> libroOpt = libroServicio.obtenerLibroPorId(id);
         
         if (libroOpt.isEmpty()) {
@@ -0,0 +1,112 @@
+package com.optativa.thymeleaf.controlador;
+
+import com.optativa.thymeleaf.dto.PaginaDto;
+import com.optativa.thymeleaf.dto.PrestamoDto;
+import com.optativa.thymeleaf.dto.SolicitudPrestamoDto;
+import com.optativa.thymeleaf.entidad.Prestamo;
+import com.optativa.thymeleaf.entidad.enumerado.Rol;
+import com.optativa.thymeleaf.repositorio.proyeccion.PrestamoResumen;
+import com.optativa.thymeleaf.servicio.PrestamoServicio;
+import com.optativa.thymeleaf.servicio.seguridad.EmisorTokens;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Préstamos en JSON del usuario del token (Authorization: Bearer):
+ *
+ *   GET  /api/prestamos/mios?limite=20&antes=<cursor>&fields=id,estado
+ *   POST /api/prestamos                    {"libroId": 5}  → 201 con el préstamo
+ *   POST /api/prestamos/{id}/devolucion                    → el préstamo devuelto
+ *
+ * El usuario sale del token (sub), sin buscarlo por email. Mismas reglas que
+ * PrestamoController: un lector solo devuelve los suyos y nunca uno vencido.
+ * Errores como problem+json (ErroresApi).
+ */
+@RestController
+@RequestMapping("/api/prestamos")
+public class PrestamoApiController {
+
+    private final PrestamoServicio prestamoServicio;
+
+    public PrestamoApiController(PrestamoServicio prestamoServicio) {
+        this.prestamoServicio = prestamoServicio;
+    }
+
+    @GetMapping("/mios")
+    public PaginaDto<Object> misPrestamos(
+            @AuthenticationPrincipal Jwt token,
+            @RequestParam(defaultValue = "20") int limite,
+            @RequestParam(required = false) String antes,
+            @RequestParam(required = false) String fields,
+            HttpServletResponse response) {
+
+        Set<String> seleccion = PrestamoDto.CAMPOS.seleccion(fields);
+        Integer antesDeId = antes == null ? null : PaginaDto.id(PaginaDto.claves(antes, 1)[0]);
+        int tamano = LibroApiController.limite(limite);
+
+        // Privado y revalidado siempre: el ETag lo pone ApiConfig (MD5 del cuerpo)
+        response.setHeader("Cache-Control", CacheControl.noCache().cachePrivate().getHeaderValue());
+
+        List<PrestamoResumen> prestamos =
+                prestamoServicio.listarResumenesPorUsuario(usuarioId(token), antesDeId, tamano + 1);
+        String siguiente = null;
+        if (prestamos.size() > tamano) {
+            prestamos = prestamos.subList(0, tamano);
+            siguiente = PaginaDto.cursor(prestamos.get(tamano - 1).getId());
+        }
+
+        List<Object> elementos = prestamos.stream()
+                .map(prestamo -> PrestamoDto.CAMPOS.aplicar(PrestamoDto.de(prestamo), seleccion))
+                .toList();
+        return new PaginaDto<>(elementos, siguiente);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public PrestamoDto solicitar(@AuthenticationPrincipal Jwt token, @RequestBody SolicitudPrestamoDto solicitud) {
+        if (solicitud.getLibroId() == null) {
+            throw new IllegalArgumentException("Falta libroId");
+        }
+        // Validaciones de disponibilidad en el servicio → IllegalStateException (409)
+        return PrestamoDto.de(prestamoServicio.solicitarPrestamo(solicitud.getLibroId(), usuarioId(token)));
+    }
+
+    @PostMapping("/{id}/devolucion")
+    public PrestamoDto devolver(@AuthenticationPrincipal Jwt token, @PathVariable Integer id) {
+        boolean esAdmin = Rol.ADMIN.name().equals(token.getClaimAsString(EmisorTokens.CLAIM_ROL));
+
+        // Proyección: propietario y estado sin cargar usuario ni libro
+        PrestamoResumen prestamo = prestamoServicio.obtenerResumenPrestamo(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Préstamo no encontrado"));
+
+        if (!esAdmin && !prestamo.getUsuarioId().equals(usuarioId(token))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "No tienes permiso para devolver este préstamo.");
+        }
+        if (!esAdmin && prestamo.getEstado() == Prestamo.EstadoPrestamo.VENCIDO) {
+            throw new IllegalStateException("Los préstamos vencidos solo pueden ser procesados por un administrador en el mostrador.");
+        }
+
+        return PrestamoDto.de(prestamoServicio.devolverPrestamo(id));
+    }
+
+    private static Integer usuarioId(Jwt token) {
+        return Integer.valueOf(token.getSubject());
+    }
+}
@@ -0,0 +1,60 @@
+package com.optativa.thymeleaf.controlador;
+
+import com.optativa.thymeleaf.monitorizacion.EstadisticasRendimiento;
+
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+/**
+ * Página de administración con el estado de la capa de datos:
+ *   - Estadísticas de Hibernate (consultas, cargas de entidades, flushes, caché de 2º nivel)
+ *   - Pools de conexiones Hikari (activas, en espera, tiempo de adquisición)
+ *   - Últimas consultas lentas con el método del controlador que las lanzó
+ *   - Trazas de peticiones lentas: controlador / servicio / SQL / render
+ *
+ * Solo ADMIN (también protegido en SecurityConfig con /admin/**)
+ */
+@Controller
+@RequestMapping("/admin/rendimiento")
+@PreAuthorize("hasRole('ADMIN')")
+public class RendimientoController {
+
+    private final EstadisticasRendimiento estadisticas;
+
+    public RendimientoController(EstadisticasRendimiento estadisticas) {
+        this.estadisticas = estadisticas;
+    }
+
+    @GetMapping
+    public String verRendimiento(Model model) {
+        model.addAttribute("titulo", "Rendimiento");
+        model.addAttribute("resumen", estadisticas.resumen());
+        return "admin/rendimiento";
+    }
+
+    /**
+     * Últimas peticiones lentas con su desglose de tiempos (mismo dato que la cabecera Server-Timing)
+     */
+    @GetMapping("/trazas")
+    public String verTrazas(Model model) {
+        model.addAttribute("titulo", "Trazas de peticiones lentas");
+        model.addAttribute("resumen", estadisticas.resumen());
+        return "admin/trazas";
+    }
+
+    /**
+     * Pone los contadores a cero (útil antes de reproducir un problema)
+     */
+    @PostMapping("/reiniciar")
+    public String reiniciar(RedirectAttributes flash) {
+        estadisticas.reiniciar();
+        flash.addFlashAttribute("mensaje", "Estadísticas reiniciadas");
+        flash.addFlashAttribute("tipo", "success");
+        return "redirect:/admin/rendimiento";
+    }
+}
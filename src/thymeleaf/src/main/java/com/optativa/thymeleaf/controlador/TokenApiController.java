@@ -0,0 +1,55 @@
+package com.optativa.thymeleaf.controlador;
+
+import com.optativa.thymeleaf.dto.IdentidadDto;
+import com.optativa.thymeleaf.dto.TokenDto;
+import com.optativa.thymeleaf.entidad.Usuario;
+import com.optativa.thymeleaf.servicio.UsuarioServicio;
+import com.optativa.thymeleaf.servicio.seguridad.EmisorTokens;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * Tokens de la API JSON para clientes sin navegador (quioscos, apps móviles):
+ *
+ *   POST /api/token   con email y contraseña en HTTP Basic → token (una vez por hora)
+ *   GET  /api/yo      con "Authorization: Bearer <token>"  → id y rol que lleva el token
+ *
+ * La contraseña solo se comprueba (BCrypt) al pedir el token; después cada petición se
+ * autentica con la firma del token. Ver SecurityConfig (cadenas /api/token y /api/**).
+ */
+@RestController
+@RequestMapping("/api")
+public class TokenApiController {
+
+    private final UsuarioServicio usuarioServicio;
+    private final EmisorTokens emisorTokens;
+
+    public TokenApiController(UsuarioServicio usuarioServicio, EmisorTokens emisorTokens) {
+        this.usuarioServicio = usuarioServicio;
+        this.emisorTokens = emisorTokens;
+    }
+
+    @PostMapping("/token")
+    public TokenDto emitir(Authentication autenticacion) {
+        // El id no está en UserDetails: una consulta por token, no por petición
+        Usuario usuario = usuarioServicio.findByEmail(autenticacion.getName())
+                .orElseThrow(() -> new IllegalStateException("Usuario autenticado sin cuenta: " + autenticacion.getName()));
+        Jwt token = emisorTokens.emitir(usuario.getId(), usuario.getRol());
+        return new TokenDto(token.getTokenValue(),
+                Duration.between(token.getIssuedAt(), token.getExpiresAt()).toSeconds());
+    }
+
+    @GetMapping("/yo")
+    public IdentidadDto yo(@AuthenticationPrincipal Jwt token) {
+        return new IdentidadDto(Integer.valueOf(token.getSubject()),
+                token.getClaimAsString(EmisorTokens.CLAIM_ROL), token.getExpiresAt());
+    }
+}
@@ -0,0 +1,322 @@
+package com.optativa.thymeleaf.datos;
+
+import com.github.javafaker.Faker;
+import com.optativa.thymeleaf.entidad.*;
+import com.optativa.thymeleaf.entidad.enumerado.Rol;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Generador de datos a gran escala para pruebas de carga (perfil "carga").
+ *
+ * A diferencia de IniciarDatos (unas decenas de filas guardadas una a una a
+ * través de los servicios), este generador:
+ *  - Crea millones de libros, cientos de miles de usuarios y decenas de millones de préstamos
+ *  - Reparte el trabajo en bloques que se insertan en paralelo (un hilo = una transacción por bloque)
+ *  - Usa el EntityManager directamente con flush/clear por lotes → inserciones JDBC en batch
+ *  - Sigue distribuciones realistas: pocos libros y lectores concentran la mayoría de préstamos,
+ *    una parte de los préstamos abiertos están vencidos, algunos se cancelan, etc.
+ *
+ * Uso:
+ *   java -jar app.jar --spring.profiles.active=carga --biblioteca.carga.libros=2000000
+ *
+ * Igual que IniciarDatos, no hace nada si la base de datos ya contiene libros.
+ */
+@Component
+@Profile("carga")
+@EnableConfigurationProperties(PropiedadesCarga.class)
+public class GeneradorDatosMasivos {
+
+    /**
+     * Mismas categorías fijas que IniciarDatos (nombres controlados, no aleatorios)
+     */
+    private static final String[] NOMBRES_CATEGORIAS = {
+            "Novela", "Ciencia Ficción", "Fantasía", "Misterio", "Histórica", "Autoayuda"
+    };
+
+    /**
+     * Política de la biblioteca (igual que PrestamoServicioImpl)
+     */
+    private static final int DIAS_PRESTAMO = 14;
+
+    @PersistenceContext
+    private EntityManager em;                   // Proxy compartido → cada hilo usa el EntityManager de SU transacción
+
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final PropiedadesCarga propiedades;
+
+    public GeneradorDatosMasivos(
+            TransactionTemplate transactionTemplate,
+            PasswordEncoder passwordEncoder,
+            PropiedadesCarga propiedades) {
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.propiedades = propiedades;
+    }
+
+    @PostConstruct
+    public void init() {
+        System.out.println("######### Generando datos masivos para pruebas de carga ###########");
+
+        Long libros = transactionTemplate.execute(status ->
+                em.createQuery("select count(l) from Libro l", Long.class).getSingleResult());
+        if (libros != null && libros > 0) {
+            System.out.println("La base de datos ya tiene datos → se omite la generación.");
+            return;
+        }
+
+        long inicio = System.currentTimeMillis();
+        ExecutorService hilos = Executors.newFixedThreadPool(Math.max(1, propiedades.getHilos()));
+        try {
+            List<Integer> categorias = crearCategorias();
+            crearAutores(hilos);
+            int[] autores = obtenerIds("select a.id from Autor a order by a.id");
+            crearLibros(hilos, autores, categorias);
+            crearUsuarios(hilos);
+            crearPrestamos(hilos);
+        } finally {
+            hilos.shutdownNow();
+        }
+        System.out.println("Datos masivos generados en " + (System.currentTimeMillis() - inicio) / 1000 + " s");
+    }
+
+    // ────────────────────────────────────────────────────────────────
+    // Catálogo
+    // ────────────────────────────────────────────────────────────────
+
+    private List<Integer> crearCategorias() {
+        return transactionTemplate.execute(status -> {
+            List<Integer> ids = new ArrayList<>();
+            for (String nombre : NOMBRES_CATEGORIAS) {
+                Categoria cat = new Categoria(nombre);
+                em.persist(cat);
+                ids.add(cat.getId());
+            }
+            return ids;
+        });
+    }
+
+    private void crearAutores(ExecutorService hilos) {
+        ejecutarEnBloques(hilos, "Autores", propiedades.getAutores(), (faker, azar) -> i -> {
+            Autor autor = new Autor();
+            autor.setNombre(faker.name().firstName());
+            autor.setApellido(faker.name().lastName());
+            autor.setNacionalidad(faker.address().country());
+            autor.setFechaNacimiento(LocalDate.now().minusYears(30 + azar.nextInt(70)).minusDays(azar.nextInt(365)));
+            em.persist(autor);
+        });
+    }
+
+    private void crearLibros(ExecutorService hilos, int[] autores, List<Integer> categorias) {
+        if (autores.length == 0) {
+            System.out.println("No hay autores → no se crean libros");
+            return;
+        }
+        ejecutarEnBloques(hilos, "Libros", propiedades.getLibros(), (faker, azar) -> i -> {
+            Libro libro = new Libro();
+            libro.setTitulo(faker.book().title());
+            libro.setIsbn(String.format("978%010d", i));             // único y con 13 dígitos sin consultar la BD
+            libro.setAñoPublicacion(1950 + azar.nextInt(76));
+            libro.setSinopsis(faker.lorem().sentence(20));
+            libro.setDisponible(true);                               // se corrige después según los préstamos abiertos
+
+            // Autores prolíficos: unos pocos autores concentran muchos libros
+            libro.setAutor(em.getReference(Autor.class, autores[indiceSesgado(azar, autores.length)]));
+
+            // 1 a 3 categorías (referencias → no se cargan las categorías)
+            Set<Categoria> cats = new HashSet<>();
+            int numCats = 1 + azar.nextInt(3);
+            for (int j = 0; j < numCats; j++) {
+                cats.add(em.getReference(Categoria.class, categorias.get(azar.nextInt(categorias.size()))));
+            }
+            libro.setCategorias(cats);
+
+            em.persist(libro);
+        });
+    }
+
+    // ────────────────────────────────────────────────────────────────
+    // Usuarios
+    // ────────────────────────────────────────────────────────────────
+
+    private void crearUsuarios(ExecutorService hilos) {
+        // Mismos usuarios fijos que IniciarDatos → se puede entrar con las credenciales de siempre
+        String passwordCodificada = passwordEncoder.encode("1234");
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(nuevoUsuario("admin@biblioteca.com", "Administrador Principal", Rol.ADMIN, passwordCodificada));
+            em.persist(nuevoUsuario("lector@biblioteca.com", "Juan Lector Pérez", Rol.LECTOR, passwordCodificada));
+        });
+
+        // BCrypt es deliberadamente lento → se codifica UNA vez y se reutiliza para todos
+        ejecutarEnBloques(hilos, "Usuarios", propiedades.getUsuarios(), (faker, azar) -> i -> {
+            em.persist(nuevoUsuario("lector" + i + "@carga.biblioteca.com", faker.name().fullName(),
+                    Rol.LECTOR, passwordCodificada));
+        });
+    }
+
+    private Usuario nuevoUsuario(String email, String nombre, Rol rol, String password) {
+        Usuario u = new Usuario();
+        u.setEmail(email);
+        u.setNombreCompleto(nombre);
+        u.setRol(rol);
+        u.setPassword(password);
+        return u;
+    }
+
+    // ────────────────────────────────────────────────────────────────
+    // Préstamos
+    // ────────────────────────────────────────────────────────────────
+
+    private void crearPrestamos(ExecutorService hilos) {
+        int[] libros = obtenerIds("select l.id from Libro l order by l.id");
+        int[] usuarios = obtenerIds("select u.id from Usuario u order by u.id");
+        if (libros.length == 0 || usuarios.length == 0) return;
+
+        // Barajamos una vez: la posición en el array decide la popularidad
+        // (las primeras posiciones son los libros/lectores más solicitados)
+        Random azarGlobal = new Random(propiedades.getSemilla());
+        barajar(libros, azarGlobal);
+        barajar(usuarios, azarGlobal);
+
+        int total = propiedades.getPrestamos();
+        // Un préstamo abierto por libro como máximo → se asignan a los libros más populares
+        int abiertos = (int) Math.min(libros.length, Math.round(total * propiedades.getProporcionAbiertos()));
+        int vencidos = (int) Math.round(abiertos * propiedades.getProporcionVencidos());
+        LocalDate hoy = LocalDate.now();
+
+        ejecutarEnBloques(hilos, "Préstamos", total, (faker, azar) -> i -> {
+            Prestamo p = new Prestamo();
+            p.setUsuario(em.getReference(Usuario.class, usuarios[indiceSesgado(azar, usuarios.length)]));
+
+            if (i < abiertos) {
+                // Préstamo abierto: libro distinto en cada uno (los i primeros del ranking)
+                p.setLibro(em.getReference(Libro.class, libros[i]));
+                LocalDate fecha = i < vencidos
+                        ? hoy.minusDays(DIAS_PRESTAMO + 1 + azar.nextInt(90))   // ya pasó la fecha prevista
+                        : hoy.minusDays(azar.nextInt(DIAS_PRESTAMO));            // dentro de plazo
+                p.setFechaPrestamo(fecha);
+                p.setFechaDevolucionPrevista(fecha.plusDays(DIAS_PRESTAMO));
+                p.setEstado(i < vencidos ? Prestamo.EstadoPrestamo.VENCIDO : Prestamo.EstadoPrestamo.ACTIVO);
+            } else {
+                // Préstamo histórico (cerrado): la popularidad sigue la distribución sesgada
+                p.setLibro(em.getReference(Libro.class, libros[indiceSesgado(azar, libros.length)]));
+                LocalDate fecha = hoy.minusDays(DIAS_PRESTAMO + 30 + azar.nextInt(Math.max(1, propiedades.getDiasHistorico())));
+                p.setFechaPrestamo(fecha);
+                p.setFechaDevolucionPrevista(fecha.plusDays(DIAS_PRESTAMO));
+                if (azar.nextDouble() < propiedades.getProporcionCancelados()) {
+                    p.setEstado(Prestamo.EstadoPrestamo.CANCELADO);
+                } else {
+                    p.setEstado(Prestamo.EstadoPrestamo.DEVUELTO);
+                    // La mayoría devuelve a tiempo; una cola larga devuelve con retraso
+                    p.setFechaDevolucionReal(fecha.plusDays(1 + (int) (Math.pow(azar.nextDouble(), 3) * 30)));
+                }
+            }
+            em.persist(p);
+        });
+
+        // Una única sentencia marca como prestados los libros con préstamo abierto
+        Integer actualizados = transactionTemplate.execute(status -> em.createQuery(
+                        "update Libro l set l.disponible = false where l.id in " +
+                        "(select p.libro.id from Prestamo p where p.estado in :estados)")
+                .setParameter("estados", List.of(Prestamo.EstadoPrestamo.ACTIVO, Prestamo.EstadoPrestamo.VENCIDO))
+                .executeUpdate());
+        System.out.println("→ Libros marcados como prestados: " + actualizados);
+    }
+
+    // ────────────────────────────────────────────────────────────────
+    // Infraestructura: bloques paralelos + inserción por lotes
+    // ────────────────────────────────────────────────────────────────
+
+    /**
+     * Fábrica de la acción que inserta la entidad número i.
+     * Recibe el Faker y el Random propios del bloque (no son seguros entre hilos).
+     */
+    @FunctionalInterface
+    private interface GeneradorBloque {
+        IntConsumer crear(Faker faker, Random azar);
+    }
+
+    /**
+     * Divide [0, total) en bloques y los inserta en paralelo.
+     * Cada bloque va en su propia transacción y hace flush + clear cada "lote"
+     * entidades para mantener acotada la memoria y agrupar los INSERT en batch.
+     */
+    private void ejecutarEnBloques(ExecutorService hilos, String nombre, int total, GeneradorBloque generador) {
+        int bloque = Math.max(1, propiedades.getBloque());
+        int lote = Math.max(1, propiedades.getLote());
+        long inicio = System.currentTimeMillis();
+
+        List<Future<?>> pendientes = new ArrayList<>();
+        for (int desde = 0; desde < total; desde += bloque) {
+            final int ini = desde;
+            final int fin = Math.min(total, desde + bloque);
+            pendientes.add(hilos.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                // Semilla distinta por bloque → resultados reproducibles sea cual sea el hilo
+                Random azar = new Random(propiedades.getSemilla() * 31 + nombre.hashCode() + ini);
+                Faker faker = new Faker(new Locale("es"), azar);
+                IntConsumer crear = generador.crear(faker, azar);
+                for (int i = ini; i < fin; i++) {
+                    crear.accept(i);
+                    if ((i - ini + 1) % lote == 0) {
+                        em.flush();
+                        em.clear();
+                    }
+                }
+            })));
+        }
+
+        for (Future<?> f : pendientes) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Generación interrumpida", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Error generando " + nombre, e.getCause());
+            }
+        }
+        System.out.println("→ " + nombre + " creados: " + total + " (" + (System.currentTimeMillis() - inicio) + " ms)");
+    }
+
+    /**
+     * Carga solo los IDs (no las entidades) en un array primitivo → millones de IDs caben en pocos MB.
+     */
+    private int[] obtenerIds(String jpql) {
+        List<Integer> ids = transactionTemplate.execute(status ->
+                em.createQuery(jpql, Integer.class).getResultList());
+        return ids == null ? new int[0] : ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Índice en [0, n) con distribución de ley de potencias:
+     * con sesgo 3 el 10% inicial concentra ~46% de los valores.
+     */
+    private int indiceSesgado(Random azar, int n) {
+        return Math.min(n - 1, (int) (n * Math.pow(azar.nextDouble(), propiedades.getSesgoPopularidad())));
+    }
+
+    /**
+     * Fisher–Yates sobre un array primitivo
+     */
+    private static void barajar(int[] valores, Random azar) {
+        for (int i = valores.length - 1; i > 0; i--) {
+            int j = azar.nextInt(i + 1);
+            int tmp = valores[i];
+            valores[i] = valores[j];
+            valores[j] = tmp;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.optativa.thymeleaf.entidad.enumerado.Rol;
 import com.optativa.thymeleaf.servicio.*;
 import jakarta.annotation.PostConstruct;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -20,8 +21,11 @@ import java.util.*;
  * (gracias a @PostConstruct) SI la base de datos está vacía de libros.
  * 
  * Utiliza la librería JavaFaker para generar datos realistas en español.
+ * 
+ * Con el perfil "carga" se desactiva y en su lugar se usa GeneradorDatosMasivos.
  */
 @Component                                      // Registrado como bean → Spring lo detecta y ejecuta
+@Profile("!carga")                              // El perfil de carga tiene su propio generador
 public class IniciarDatos {
 
     // Constantes para controlar cuántos registros crear
@@ -71,7 +75,8 @@ public class IniciarDatos {
 
         // Evitamos regenerar datos si ya existen registros
         // (criterio simple: si no hay libros → asumimos BD vacía)
-        if (libroServicio.obtenerTodosLosLibros().isEmpty()) {
+        // Se cuenta en lugar de cargar todos los libros → el arranque no depende del tamaño del catálogo
+        if (libroServicio.contarLibros() == 0) {
             crearCategorias();
             crearAutores();
             crearLibros();
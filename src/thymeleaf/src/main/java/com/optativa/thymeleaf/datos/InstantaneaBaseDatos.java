@@ -0,0 +1,96 @@
+package com.optativa.thymeleaf.datos;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Instantáneas (snapshot/restore) de la base de datos H2 en fichero.
+ *
+ * - Crear: "BACKUP TO 'fichero.zip'" → copia en caliente y consistente del fichero .mv.db
+ * - Restaurar: se descomprime el .mv.db en el directorio de la base de datos ANTES de
+ *   abrir la primera conexión (ver PersistenciaConfig)
+ *
+ * Así un dataset grande se genera una sola vez: los siguientes arranques abren el
+ * fichero existente y, si se borra, se recupera desde la instantánea en segundos.
+ */
+public class InstantaneaBaseDatos {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PropiedadesPersistencia propiedades;
+
+    public InstantaneaBaseDatos(JdbcTemplate jdbcTemplate, PropiedadesPersistencia propiedades) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.propiedades = propiedades;
+    }
+
+    /**
+     * Al terminar el arranque (datos ya generados) se guarda la instantánea si aún no existe
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void crearSiNoExiste() {
+        if (propiedades.isCrearInstantanea() && !Files.exists(propiedades.getInstantanea())) {
+            crear(propiedades.getInstantanea());
+        }
+    }
+
+    /**
+     * Copia la base de datos actual al ZIP indicado.
+     * H2 la hace dentro de la propia BD, sin detener la aplicación.
+     */
+    public void crear(Path destino) {
+        long inicio = System.currentTimeMillis();
+        try {
+            if (destino.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(destino.toAbsolutePath().getParent());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se puede crear la carpeta de la instantánea", e);
+        }
+        String ruta = destino.toAbsolutePath().toString().replace("'", "''");
+        jdbcTemplate.execute("BACKUP TO '" + ruta + "'");
+        System.out.println("→ Instantánea creada en " + destino + " (" + (System.currentTimeMillis() - inicio) + " ms)");
+    }
+
+    /**
+     * Restaura el fichero .mv.db desde la instantánea si la base de datos no existe.
+     * Debe llamarse antes de que el pool abra conexiones (H2 crearía una BD vacía).
+     *
+     * @return true si se ha restaurado
+     */
+    public static boolean restaurarSiHaceFalta(PropiedadesPersistencia propiedades) {
+        Path fichero = propiedades.getFicheroBaseDatos();
+        Path zip = propiedades.getInstantanea();
+        if (Files.exists(fichero) || !Files.exists(zip)) {
+            return false;
+        }
+
+        long inicio = System.currentTimeMillis();
+        String entrada = fichero.getFileName().toString();
+        try (InputStream in = Files.newInputStream(zip);
+             ZipInputStream zin = new ZipInputStream(in)) {
+            Files.createDirectories(propiedades.getDirectorio());
+            for (ZipEntry e = zin.getNextEntry(); e != null; e = zin.getNextEntry()) {
+                // BACKUP guarda el fichero con su nombre original → solo interesa ese
+                if (Path.of(e.getName()).getFileName().toString().equals(entrada)) {
+                    Files.copy(zin, fichero, StandardCopyOption.REPLACE_EXISTING);
+                    System.out.println("→ Base de datos restaurada desde " + zip
+                            + " (" + (System.currentTimeMillis() - inicio) + " ms)");
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo restaurar la instantánea " + zip, e);
+        }
+        throw new IllegalStateException("La instantánea " + zip + " no contiene " + entrada);
+    }
+}
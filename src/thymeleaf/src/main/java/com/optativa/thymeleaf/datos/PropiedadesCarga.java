@@ -0,0 +1,121 @@
+package com.optativa.thymeleaf.datos;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Parámetros del generador masivo de datos (perfil "carga").
+ *
+ * Se leen de las propiedades "biblioteca.carga.*" (ver application-carga.properties)
+ * y se pueden sobrescribir al arrancar, por ejemplo:
+ *   --biblioteca.carga.libros=2000000 --biblioteca.carga.hilos=8
+ *
+ * Los valores por defecto reproducen un volumen similar al de producción.
+ */
+@ConfigurationProperties(prefix = "biblioteca.carga")
+public class PropiedadesCarga {
+
+    // ────────────────────────────────────────────────────────────────
+    // Volumen de datos
+    // ────────────────────────────────────────────────────────────────
+    private int autores = 50_000;
+    private int libros = 1_000_000;
+    private int usuarios = 200_000;
+    private int prestamos = 10_000_000;
+
+    // ────────────────────────────────────────────────────────────────
+    // Distribuciones
+    // ────────────────────────────────────────────────────────────────
+    /**
+     * Fracción de préstamos que siguen abiertos (ACTIVO o VENCIDO).
+     * Cada préstamo abierto ocupa un libro distinto, así que nunca habrá
+     * más préstamos abiertos que libros.
+     */
+    private double proporcionAbiertos = 0.05;
+
+    /**
+     * De los préstamos abiertos, fracción que ya ha superado la fecha prevista (VENCIDO).
+     */
+    private double proporcionVencidos = 0.20;
+
+    /**
+     * De los préstamos cerrados, fracción que se canceló en lugar de devolverse.
+     */
+    private double proporcionCancelados = 0.03;
+
+    /**
+     * Exponente de la distribución de popularidad (libros y lectores).
+     * 1 → uniforme; cuanto mayor, más se concentran los préstamos en pocos libros/usuarios.
+     */
+    private double sesgoPopularidad = 3.0;
+
+    /**
+     * Días hacia atrás en los que se reparten los préstamos históricos (≈ 3 años).
+     */
+    private int diasHistorico = 3 * 365;
+
+    // ────────────────────────────────────────────────────────────────
+    // Ejecución
+    // ────────────────────────────────────────────────────────────────
+    /**
+     * Hilos que generan e insertan datos en paralelo.
+     */
+    private int hilos = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Entidades insertadas por transacción (cada hilo trabaja por bloques).
+     */
+    private int bloque = 10_000;
+
+    /**
+     * Cada cuántas entidades se hace flush + clear del contexto de persistencia.
+     * Debe coincidir con hibernate.jdbc.batch_size para aprovechar el batching.
+     */
+    private int lote = 1_000;
+
+    /**
+     * Semilla base → dos ejecuciones con la misma semilla generan los mismos datos.
+     */
+    private long semilla = 42;
+
+    // ────────────────────────────────────────────────────────────────
+    // Getters y Setters
+    // ────────────────────────────────────────────────────────────────
+    public int getAutores() { return autores; }
+    public void setAutores(int autores) { this.autores = autores; }
+
+    public int getLibros() { return libros; }
+    public void setLibros(int libros) { this.libros = libros; }
+
+    public int getUsuarios() { return usuarios; }
+    public void setUsuarios(int usuarios) { this.usuarios = usuarios; }
+
+    public int getPrestamos() { return prestamos; }
+    public void setPrestamos(int prestamos) { this.prestamos = prestamos; }
+
+    public double getProporcionAbiertos() { return proporcionAbiertos; }
+    public void setProporcionAbiertos(double proporcionAbiertos) { this.proporcionAbiertos = proporcionAbiertos; }
+
+    public double getProporcionVencidos() { return proporcionVencidos; }
+    public void setProporcionVencidos(double proporcionVencidos) { this.proporcionVencidos = proporcionVencidos; }
+
+    public double getProporcionCancelados() { return proporcionCancelados; }
+    public void setProporcionCancelados(double proporcionCancelados) { this.proporcionCancelados = proporcionCancelados; }
+
+    public double getSesgoPopularidad() { return sesgoPopularidad; }
+    public void setSesgoPopularidad(double sesgoPopularidad) { this.sesgoPopularidad = sesgoPopularidad; }
+
+    public int getDiasHistorico() { return diasHistorico; }
+    public void setDiasHistorico(int diasHistorico) { this.diasHistorico = diasHistorico; }
+
+    public int getHilos() { return hilos; }
+    public void setHilos(int hilos) { this.hilos = hilos; }
+
+    public int getBloque() { return bloque; }
+    public void setBloque(int bloque) { this.bloque = bloque; }
+
+    public int getLote() { return lote; }
+    public void setLote(int lote) { this.lote = lote; }
+
+    public long getSemilla() { return semilla; }
+    public void setSemilla(long semilla) { this.semilla = semilla; }
+}
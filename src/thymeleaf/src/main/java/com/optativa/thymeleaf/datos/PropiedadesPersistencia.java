@@ -0,0 +1,59 @@
+package com.optativa.thymeleaf.datos;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * Parámetros de la base de datos en fichero (perfil "persistente").
+ *
+ * Se leen de "biblioteca.persistencia.*" (ver application-persistente.properties).
+ */
+@ConfigurationProperties(prefix = "biblioteca.persistencia")
+public class PropiedadesPersistencia {
+
+    /**
+     * Carpeta donde H2 guarda el fichero de la base de datos (<nombre>.mv.db)
+     */
+    private Path directorio = Path.of("./bd");
+
+    /**
+     * Nombre de la base de datos (sin extensión)
+     */
+    private String nombre = "biblioteca";
+
+    /**
+     * Copia (ZIP generado con BACKUP TO) de una base de datos ya poblada.
+     * Si la base de datos no existe al arrancar, se restaura desde aquí
+     * en lugar de volver a generar los datos.
+     */
+    private Path instantanea = Path.of("./bd/instantanea-biblioteca.zip");
+
+    /**
+     * Si es true y la instantánea aún no existe, se crea al terminar el arranque
+     * (justo después de la primera generación de datos).
+     */
+    private boolean crearInstantanea = true;
+
+    // ────────────────────────────────────────────────────────────────
+    // Getters y Setters
+    // ────────────────────────────────────────────────────────────────
+    public Path getDirectorio() { return directorio; }
+    public void setDirectorio(Path directorio) { this.directorio = directorio; }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public Path getInstantanea() { return instantanea; }
+    public void setInstantanea(Path instantanea) { this.instantanea = instantanea; }
+
+    public boolean isCrearInstantanea() { return crearInstantanea; }
+    public void setCrearInstantanea(boolean crearInstantanea) { this.crearInstantanea = crearInstantanea; }
+
+    /**
+     * Fichero MVStore que H2 crea para esta base de datos
+     */
+    public Path getFicheroBaseDatos() {
+        return directorio.resolve(nombre + ".mv.db");
+    }
+}
@@ -0,0 +1,90 @@
+package com.optativa.thymeleaf.dto;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Campos que se pueden pedir de un DTO de la API (?fields=id,titulo): el cliente
+ * recibe solo esos, en el orden en que están declarados aquí.
+ *
+ *   sin fields          → el DTO completo
+ *   fields=id,titulo    → {"id": ..., "titulo": ...}
+ *   un campo que no hay → IllegalArgumentException (400, ver ErroresApi)
+ *
+ * Inmutable: cada DTO declara los suyos una vez como constante.
+ */
+public final class Campos<T> {
+
+    private final Map<String, Function<T, Object>> extractores;
+
+    private Campos(Map<String, Function<T, Object>> extractores) {
+        this.extractores = Collections.unmodifiableMap(extractores);
+    }
+
+    public static <T> Campos<T> vacios() {
+        return new Campos<>(new LinkedHashMap<>());
+    }
+
+    /**
+     * Copia con un campo más al final
+     */
+    public Campos<T> con(String nombre, Function<T, Object> extractor) {
+        Map<String, Function<T, Object>> copia = new LinkedHashMap<>(extractores);
+        copia.put(nombre, extractor);
+        return new Campos<>(copia);
+    }
+
+    /**
+     * Copia sin un campo (p. ej. el listado no lleva la sinopsis del detalle)
+     */
+    public Campos<T> sin(String nombre) {
+        Map<String, Function<T, Object>> copia = new LinkedHashMap<>(extractores);
+        copia.remove(nombre);
+        return new Campos<>(copia);
+    }
+
+    /**
+     * Interpreta el parámetro fields. Devuelve null si no se pidió selección.
+     */
+    public Set<String> seleccion(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> pedidos = new LinkedHashSet<>();
+        for (String campo : fields.split(",")) {
+            String nombre = campo.trim();
+            if (nombre.isEmpty()) {
+                continue;
+            }
+            if (!extractores.containsKey(nombre)) {
+                throw new IllegalArgumentException("Campo desconocido: " + nombre
+                        + " (disponibles: " + String.join(",", extractores.keySet()) + ")");
+            }
+            pedidos.add(nombre);
+        }
+        if (pedidos.isEmpty()) {
+            return null;
+        }
+        Set<String> seleccion = new LinkedHashSet<>(extractores.keySet());
+        seleccion.retainAll(pedidos);
+        return seleccion;
+    }
+
+    /**
+     * El DTO tal cual (seleccion null) o un mapa solo con los campos seleccionados
+     */
+    public Object aplicar(T dto, Set<String> seleccion) {
+        if (seleccion == null) {
+            return dto;
+        }
+        Map<String, Object> parcial = new LinkedHashMap<>();
+        for (String nombre : seleccion) {
+            parcial.put(nombre, extractores.get(nombre).apply(dto));
+        }
+        return parcial;
+    }
+}
@@ -0,0 +1,25 @@
+package com.optativa.thymeleaf.dto;
+
+import java.time.Instant;
+
+/**
+ * Respuesta de GET /api/yo: lo que dice el token de quien lo manda (sin ir a la BD).
+ */
+public class IdentidadDto {
+
+    private final Integer usuarioId;
+    private final String rol;
+    private final Instant caduca;
+
+    public IdentidadDto(Integer usuarioId, String rol, Instant caduca) {
+        this.usuarioId = usuarioId;
+        this.rol = rol;
+        this.caduca = caduca;
+    }
+
+    public Integer getUsuarioId() { return usuarioId; }
+
+    public String getRol() { return rol; }
+
+    public Instant getCaduca() { return caduca; }
+}
@@ -0,0 +1,82 @@
+package com.optativa.thymeleaf.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.optativa.thymeleaf.repositorio.proyeccion.LibroDetalle;
+import com.optativa.thymeleaf.repositorio.proyeccion.LibroResumen;
+
+/**
+ * Un libro en la API (GET /api/libros y /api/libros/{id}), construido desde las
+ * proyecciones del repositorio. La sinopsis solo viene en el detalle.
+ */
+public class LibroDto {
+
+    /**
+     * Campos que se pueden pedir con ?fields= en el detalle
+     */
+    public static final Campos<LibroDto> CAMPOS = Campos.<LibroDto>vacios()
+            .con("id", LibroDto::getId)
+            .con("isbn", LibroDto::getIsbn)
+            .con("titulo", LibroDto::getTitulo)
+            .con("autor", LibroDto::getAutor)
+            .con("anioPublicacion", LibroDto::getAnioPublicacion)
+            .con("disponible", LibroDto::getDisponible)
+            .con("sinopsis", LibroDto::getSinopsis);
+
+    /**
+     * ... y en el listado (la sinopsis es un LOB: no se lee para cada libro)
+     */
+    public static final Campos<LibroDto> CAMPOS_LISTADO = CAMPOS.sin("sinopsis");
+
+    private final Integer id;
+    private final String isbn;
+    private final String titulo;
+    private final String autor;
+    private final Integer anioPublicacion;
+    private final Boolean disponible;
+    private final String sinopsis;
+
+    public LibroDto(Integer id, String isbn, String titulo, String autor,
+                    Integer anioPublicacion, Boolean disponible, String sinopsis) {
+        this.id = id;
+        this.isbn = isbn;
+        this.titulo = titulo;
+        this.autor = autor;
+        this.anioPublicacion = anioPublicacion;
+        this.disponible = disponible;
+        this.sinopsis = sinopsis;
+    }
+
+    public static LibroDto de(LibroResumen libro) {
+        return new LibroDto(libro.getId(), libro.getIsbn(), libro.getTitulo(), autor(libro),
+                libro.getAnioPublicacion(), libro.getDisponible(), null);
+    }
+
+    public static LibroDto de(LibroDetalle libro) {
+        return new LibroDto(libro.getId(), libro.getIsbn(), libro.getTitulo(), autor(libro),
+                libro.getAnioPublicacion(), libro.getDisponible(), libro.getSinopsis());
+    }
+
+    private static String autor(LibroResumen libro) {
+        if (libro.getAutorNombre() == null) {
+            return null;
+        }
+        return libro.getAutorApellido() == null
+                ? libro.getAutorNombre()
+                : libro.getAutorNombre() + " " + libro.getAutorApellido();
+    }
+
+    public Integer getId() { return id; }
+
+    public String getIsbn() { return isbn; }
+
+    public String getTitulo() { return titulo; }
+
+    public String getAutor() { return autor; }
+
+    public Integer getAnioPublicacion() { return anioPublicacion; }
+
+    public Boolean getDisponible() { return disponible; }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getSinopsis() { return sinopsis; }
+}
@@ -0,0 +1,74 @@
+package com.optativa.thymeleaf.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Una página de un listado de la API con paginación por clave (keyset):
+ *
+ *   elementos  → como mucho "limite"
+ *   siguiente  → cursor para pedir la página siguiente (?despues=...), null si era la última
+ *
+ * El cursor es opaco para el cliente: las claves de ordenación del último elemento
+ * (p. ej. título e id) en Base64 URL. La siguiente consulta sigue desde ahí por el
+ * índice, sin OFFSET, y no repite ni salta filas aunque se inserten libros entre medias.
+ */
+public class PaginaDto<T> {
+
+    private final List<T> elementos;
+    private final String siguiente;
+
+    public PaginaDto(List<T> elementos, String siguiente) {
+        this.elementos = elementos;
+        this.siguiente = siguiente;
+    }
+
+    public List<T> getElementos() { return elementos; }
+
+    public String getSiguiente() { return siguiente; }
+
+    // ────────────────────────────────────────────────
+    // Cursores
+    // ────────────────────────────────────────────────
+
+    /**
+     * Claves separadas por saltos de línea; la última puede contener cualquier cosa
+     * (un título), las anteriores no (ids).
+     */
+    public static String cursor(Object... claves) {
+        StringBuilder texto = new StringBuilder();
+        for (int i = 0; i < claves.length; i++) {
+            if (i > 0) {
+                texto.append('\n');
+            }
+            texto.append(claves[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(texto.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Claves de un cursor; IllegalArgumentException (400) si no es uno nuestro
+     */
+    public static String[] claves(String cursor, int numero) {
+        String[] claves;
+        try {
+            claves = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", numero);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor no válido");
+        }
+        if (claves.length != numero) {
+            throw new IllegalArgumentException("Cursor no válido");
+        }
+        return claves;
+    }
+
+    public static Integer id(String clave) {
+        try {
+            return Integer.valueOf(clave);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor no válido");
+        }
+    }
+}
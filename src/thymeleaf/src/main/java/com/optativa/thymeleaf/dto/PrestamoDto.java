@@ -0,0 +1,74 @@
+package com.optativa.thymeleaf.dto;
+
+import com.optativa.thymeleaf.entidad.Prestamo;
+import com.optativa.thymeleaf.repositorio.proyeccion.PrestamoResumen;
+
+import java.time.LocalDate;
+
+/**
+ * Un préstamo en la API (GET /api/prestamos/mios, préstamo y devolución).
+ */
+public class PrestamoDto {
+
+    /**
+     * Campos que se pueden pedir con ?fields=
+     */
+    public static final Campos<PrestamoDto> CAMPOS = Campos.<PrestamoDto>vacios()
+            .con("id", PrestamoDto::getId)
+            .con("libroId", PrestamoDto::getLibroId)
+            .con("libroTitulo", PrestamoDto::getLibroTitulo)
+            .con("fechaPrestamo", PrestamoDto::getFechaPrestamo)
+            .con("fechaDevolucionPrevista", PrestamoDto::getFechaDevolucionPrevista)
+            .con("fechaDevolucionReal", PrestamoDto::getFechaDevolucionReal)
+            .con("estado", PrestamoDto::getEstado);
+
+    private final Integer id;
+    private final Integer libroId;
+    private final String libroTitulo;
+    private final LocalDate fechaPrestamo;
+    private final LocalDate fechaDevolucionPrevista;
+    private final LocalDate fechaDevolucionReal;
+    private final Prestamo.EstadoPrestamo estado;
+
+    public PrestamoDto(Integer id, Integer libroId, String libroTitulo, LocalDate fechaPrestamo,
+                       LocalDate fechaDevolucionPrevista, LocalDate fechaDevolucionReal,
+                       Prestamo.EstadoPrestamo estado) {
+        this.id = id;
+        this.libroId = libroId;
+        this.libroTitulo = libroTitulo;
+        this.fechaPrestamo = fechaPrestamo;
+        this.fechaDevolucionPrevista = fechaDevolucionPrevista;
+        this.fechaDevolucionReal = fechaDevolucionReal;
+        this.estado = estado;
+    }
+
+    public static PrestamoDto de(PrestamoResumen prestamo) {
+        return new PrestamoDto(prestamo.getId(), prestamo.getLibroId(), prestamo.getLibroTitulo(),
+                prestamo.getFechaPrestamo(), prestamo.getFechaDevolucionPrevista(),
+                prestamo.getFechaDevolucionReal(), prestamo.getEstado());
+    }
+
+    /**
+     * Desde el préstamo que devuelve el servicio al prestar o devolver
+     * (el libro ya viene cargado: el servicio acaba de cambiar su disponibilidad)
+     */
+    public static PrestamoDto de(Prestamo prestamo) {
+        return new PrestamoDto(prestamo.getId(), prestamo.getLibro().getId(), prestamo.getLibro().getTitulo(),
+                prestamo.getFechaPrestamo(), prestamo.getFechaDevolucionPrevista(),
+                prestamo.getFechaDevolucionReal(), prestamo.getEstado());
+    }
+
+    public Integer getId() { return id; }
+
+    public Integer getLibroId() { return libroId; }
+
+    public String getLibroTitulo() { return libroTitulo; }
+
+    public LocalDate getFechaPrestamo() { return fechaPrestamo; }
+
+    public LocalDate getFechaDevolucionPrevista() { return fechaDevolucionPrevista; }
+
+    public LocalDate getFechaDevolucionReal() { return fechaDevolucionReal; }
+
+    public Prestamo.EstadoPrestamo getEstado() { return estado; }
+}
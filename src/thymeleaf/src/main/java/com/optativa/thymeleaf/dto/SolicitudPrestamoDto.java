@@ -0,0 +1,13 @@
+package com.optativa.thymeleaf.dto;
+
+/**
+ * Cuerpo de POST /api/prestamos: {"libroId": 5}
+ */
+public class SolicitudPrestamoDto {
+
+    private Integer libroId;
+
+    public Integer getLibroId() { return libroId; }
+
+    public void setLibroId(Integer libroId) { this.libroId = libroId; }
+}
@@ -0,0 +1,22 @@
+package com.optativa.thymeleaf.dto;
+
+/**
+ * Respuesta de POST /api/token: el token y cuánto dura.
+ * Se manda en cada petición a la API como "Authorization: Bearer <token>".
+ */
+public class TokenDto {
+
+    private final String token;
+    private final long caducaEnSegundos;
+
+    public TokenDto(String token, long caducaEnSegundos) {
+        this.token = token;
+        this.caducaEnSegundos = caducaEnSegundos;
+    }
+
+    public String getToken() { return token; }
+
+    public String getTipo() { return "Bearer"; }
+
+    public long getCaducaEnSegundos() { return caducaEnSegundos; }
+}
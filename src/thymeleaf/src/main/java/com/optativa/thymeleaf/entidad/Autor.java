@@ -18,10 +18,11 @@ import java.util.List;
 public class Autor {
 
     /**
-     * Clave primaria auto-incremental
+     * Clave primaria con secuencia propia (reserva IDs de 50 en 50, igual que Libro)
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)   // AUTO → elige la mejor estrategia según la BD (IDENTITY en MySQL/PostgreSQL)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "autor_seq")
+    @SequenceGenerator(name = "autor_seq", sequenceName = "autor_seq", allocationSize = 50)
     private Integer id;
 
     /**
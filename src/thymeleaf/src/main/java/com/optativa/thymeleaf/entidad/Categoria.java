@@ -22,10 +22,11 @@ import java.util.Set;
 public class Categoria {
 
     /**
-     * Clave primaria auto-generada
+     * Clave primaria con secuencia propia (bloques de 50 IDs, ver Libro)
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)   // AUTO → elige IDENTITY o SEQUENCE según la BD
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categoria_seq")
+    @SequenceGenerator(name = "categoria_seq", sequenceName = "categoria_seq", allocationSize = 50)
     private Integer id;
 
     /**
@@ -20,10 +20,13 @@ import java.time.LocalDate;
 public class Prestamo {
 
     /**
-     * Clave primaria auto-generada
+     * Clave primaria con secuencia propia
+     * - Es la tabla que más crece → reservar IDs en bloques evita una consulta
+     *   a la secuencia por cada préstamo y permite insertar en batch
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prestamo_seq")
+    @SequenceGenerator(name = "prestamo_seq", sequenceName = "prestamo_seq", allocationSize = 50)
     private Integer id;
 
     /**
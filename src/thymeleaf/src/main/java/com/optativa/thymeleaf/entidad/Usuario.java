@@ -22,10 +22,11 @@ import jakarta.validation.constraints.*;
 public class Usuario {
 
     /**
-     * Clave primaria auto-generada
+     * Clave primaria con secuencia propia (bloques de 50 IDs, ver Libro)
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuario_seq")
+    @SequenceGenerator(name = "usuario_seq", sequenceName = "usuario_seq", allocationSize = 50)
     private Integer id;
 
     /**
@@ -0,0 +1,140 @@
+package com.optativa.thymeleaf.monitorizacion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Registro de consultas lentas: toda sentencia que supera el umbral
+ * (biblioteca.monitorizacion.consulta-lenta) se escribe en el log y se guarda
+ * junto con el método del controlador que la originó.
+ *
+ * Solo se conservan las últimas N (biblioteca.monitorizacion.consultas-lentas-guardadas):
+ * la memoria no crece aunque la base de datos vaya mal durante horas.
+ */
+@Component
+public class ConsultasLentas implements DataSourceMedido.OyenteSql {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsultasLentas.class);
+
+    private final long umbralNanos;
+    private final int capacidad;
+    private final Deque<ConsultaLenta> ultimas = new ArrayDeque<>();
+    private final Counter contador;
+
+    public ConsultasLentas(
+            @Value("${biblioteca.monitorizacion.consulta-lenta:200ms}") Duration umbral,
+            @Value("${biblioteca.monitorizacion.consultas-lentas-guardadas:100}") int capacidad,
+            MeterRegistry registro) {
+        this.umbralNanos = umbral.toNanos();
+        this.capacidad = capacidad;
+        this.contador = Counter.builder("biblioteca.sql.lentas")
+                .description("Sentencias SQL por encima del umbral de consulta lenta")
+                .register(registro);
+    }
+
+    @Override
+    public void sentenciaEjecutada(String sql, long nanos) {
+        if (nanos < umbralNanos) {
+            return;                                      // camino normal: una comparación y nada más
+        }
+        ConsultaLenta consulta = new ConsultaLenta(LocalDateTime.now(), sql, nanos / 1_000_000, origenActual());
+        contador.increment();
+        log.warn("Consulta lenta ({} ms) desde {}: {}", consulta.getMilisegundos(), consulta.getOrigen(), sql);
+        synchronized (ultimas) {
+            if (ultimas.size() == capacidad) {
+                ultimas.removeLast();
+            }
+            ultimas.addFirst(consulta);
+        }
+    }
+
+    /**
+     * Las más recientes primero
+     */
+    public List<ConsultaLenta> ultimas() {
+        synchronized (ultimas) {
+            return new ArrayList<>(ultimas);
+        }
+    }
+
+    public void limpiar() {
+        synchronized (ultimas) {
+            ultimas.clear();
+        }
+    }
+
+    public Duration getUmbral() {
+        return Duration.ofNanos(umbralNanos);
+    }
+
+    /**
+     * Método del controlador que atiende la petición en curso ("PrestamoController.listarTodos").
+     * Antes de llegar al controlador (filtros de seguridad, login) → "POST /login".
+     * Fuera de una petición (arranque, tareas) → nombre del hilo.
+     */
+    static String origenActual() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos == null) {
+            return "hilo " + Thread.currentThread().getName();
+        }
+        Object handler = atributos.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (handler instanceof HandlerMethod metodo) {
+            return metodo.getBeanType().getSimpleName() + "." + metodo.getMethod().getName();
+        }
+        if (atributos instanceof ServletRequestAttributes servlet) {
+            return servlet.getRequest().getMethod() + " " + servlet.getRequest().getRequestURI();
+        }
+        return "hilo " + Thread.currentThread().getName();
+    }
+
+    /**
+     * Una sentencia lenta (getters para la vista de administración y el endpoint de actuator)
+     */
+    public static class ConsultaLenta {
+
+        private final LocalDateTime instante;
+        private final String sql;
+        private final long milisegundos;
+        private final String origen;
+
+        ConsultaLenta(LocalDateTime instante, String sql, long milisegundos, String origen) {
+            this.instante = instante;
+            this.sql = sql;
+            this.milisegundos = milisegundos;
+            this.origen = origen;
+        }
+
+        public LocalDateTime getInstante() {
+            return instante;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getMilisegundos() {
+            return milisegundos;
+        }
+
+        public String getOrigen() {
+            return origen;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.optativa.thymeleaf.monitorizacion;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * DataSource que mide cada sentencia SQL que ejecuta la aplicación (JPA, Flyway, JdbcTemplate...).
+ *
+ * Las conexiones y sentencias se envuelven en proxies que cronometran los execute*()
+ * y avisan a los oyentes con el SQL y la duración. El resto de llamadas pasa tal cual.
+ *
+ * Al ser un DelegatingDataSource, unwrap() sigue llegando al pool real (métricas de Hikari).
+ */
+public class DataSourceMedido extends DelegatingDataSource {
+
+    /**
+     * Recibe cada sentencia ejecutada. Se llama en el hilo de la petición: debe ser barato.
+     */
+    @FunctionalInterface
+    public interface OyenteSql {
+        void sentenciaEjecutada(String sql, long nanos);
+    }
+
+    private final Supplier<List<OyenteSql>> proveedorOyentes;
+    private volatile List<OyenteSql> oyentes;
+
+    /**
+     * @param proveedorOyentes se resuelve en la primera sentencia (los oyentes pueden
+     *                         depender de beans que a su vez necesitan el DataSource)
+     */
+    public DataSourceMedido(DataSource destino, Supplier<List<OyenteSql>> proveedorOyentes) {
+        super(destino);
+        this.proveedorOyentes = proveedorOyentes;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conexion(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return conexion(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection conexion(Connection real) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, metodo, args) -> {
+                    Object resultado = invocar(real, metodo, args);
+                    if (resultado instanceof Statement sentencia) {
+                        // prepareStatement(sql...) / prepareCall(sql...) → el SQL llega aquí; createStatement() → en execute(sql)
+                        String sql = args != null && args.length > 0 && args[0] instanceof String texto ? texto : null;
+                        return sentencia(sentencia, sql);
+                    }
+                    return resultado;
+                });
+    }
+
+    private Statement sentencia(Statement real, String sqlPreparado) {
+        Class<?> tipo = real instanceof CallableStatement ? CallableStatement.class
+                : real instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {tipo},
+                (proxy, metodo, args) -> {
+                    if (!metodo.getName().startsWith("execute")) {
+                        return invocar(real, metodo, args);
+                    }
+                    long inicio = System.nanoTime();
+                    try {
+                        return invocar(real, metodo, args);
+                    } finally {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String texto ? texto : sqlPreparado;
+                        notificar(sql, System.nanoTime() - inicio);
+                    }
+                });
+    }
+
+    private void notificar(String sql, long nanos) {
+        List<OyenteSql> actuales = oyentes;
+        if (actuales == null) {
+            actuales = oyentes = List.copyOf(proveedorOyentes.get());
+        }
+        for (OyenteSql oyente : actuales) {
+            oyente.sentenciaEjecutada(sql, nanos);
+        }
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.optativa.thymeleaf.monitorizacion;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Foto del estado de la capa de datos: estadísticas de Hibernate, pools de Hikari,
+ * consultas lentas y trazas de peticiones lentas. La usan el endpoint de actuator
+ * (/actuator/rendimiento) y la página de administración (/admin/rendimiento).
+ *
+ * Las estadísticas de Hibernate necesitan hibernate.generate_statistics=true
+ * (application.properties); los contadores son acumulados desde el arranque o
+ * desde el último reinicio.
+ */
+@Component
+public class EstadisticasRendimiento {
+
+    private final Statistics estadisticas;
+    private final List<DataSource> dataSources;
+    private final MeterRegistry registro;
+    private final ConsultasLentas consultasLentas;
+    private final TrazasLentas trazasLentas;
+
+    public EstadisticasRendimiento(EntityManagerFactory entityManagerFactory,
+                                   List<DataSource> dataSources,
+                                   MeterRegistry registro,
+                                   ConsultasLentas consultasLentas,
+                                   TrazasLentas trazasLentas) {
+        this.estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.dataSources = dataSources;
+        this.registro = registro;
+        this.consultasLentas = consultasLentas;
+        this.trazasLentas = trazasLentas;
+    }
+
+    public Map<String, Object> resumen() {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("hibernate", hibernate());
+        resumen.put("pools", pools());
+        resumen.put("umbralConsultaLentaMs", consultasLentas.getUmbral().toMillis());
+        resumen.put("consultasLentas", consultasLentas.ultimas());
+        resumen.put("umbralTrazaLentaMs", trazasLentas.getUmbral().toMillis());
+        resumen.put("trazasLentas", trazasLentas.ultimas());
+        return resumen;
+    }
+
+    /**
+     * Pone a cero los contadores de Hibernate y vacía consultas y trazas lentas
+     */
+    public void reiniciar() {
+        estadisticas.clear();
+        consultasLentas.limpiar();
+        trazasLentas.limpiar();
+    }
+
+    // ────────────────────────────────────────────────
+    // Hibernate
+    // ────────────────────────────────────────────────
+
+    public Map<String, Object> hibernate() {
+        Map<String, Object> h = new LinkedHashMap<>();
+        h.put("activas", estadisticas.isStatisticsEnabled());
+        h.put("sentenciasPreparadas", estadisticas.getPrepareStatementCount());
+        h.put("consultas", estadisticas.getQueryExecutionCount());
+        h.put("consultaMasLentaMs", estadisticas.getQueryExecutionMaxTime());
+        h.put("consultaMasLenta", estadisticas.getQueryExecutionMaxTimeQueryString());
+        h.put("entidadesCargadas", estadisticas.getEntityLoadCount());
+        h.put("entidadesObtenidas", estadisticas.getEntityFetchCount());
+        h.put("coleccionesCargadas", estadisticas.getCollectionLoadCount());
+        h.put("coleccionesObtenidas", estadisticas.getCollectionFetchCount());
+        h.put("entidadesInsertadas", estadisticas.getEntityInsertCount());
+        h.put("entidadesActualizadas", estadisticas.getEntityUpdateCount());
+        h.put("entidadesBorradas", estadisticas.getEntityDeleteCount());
+        h.put("flushes", estadisticas.getFlushCount());
+        h.put("transacciones", estadisticas.getTransactionCount());
+        h.put("sesionesAbiertas", estadisticas.getSessionOpenCount());
+        h.put("cacheL2Aciertos", estadisticas.getSecondLevelCacheHitCount());
+        h.put("cacheL2Fallos", estadisticas.getSecondLevelCacheMissCount());
+        h.put("cacheL2Escrituras", estadisticas.getSecondLevelCachePutCount());
+        h.put("cacheConsultasAciertos", estadisticas.getQueryCacheHitCount());
+        h.put("cacheConsultasFallos", estadisticas.getQueryCacheMissCount());
+        h.put("fallosOptimistas", estadisticas.getOptimisticFailureCount());
+        return h;
+    }
+
+    // ────────────────────────────────────────────────
+    // Pools de conexiones (uno, o principal + lectura con el perfil "replica")
+    // ────────────────────────────────────────────────
+
+    public Map<String, Map<String, Object>> pools() {
+        Map<String, Map<String, Object>> pools = new LinkedHashMap<>();
+        for (DataSource dataSource : dataSources) {
+            HikariDataSource hikari = hikari(dataSource);
+            if (hikari == null || pools.containsKey(hikari.getPoolName())) {
+                continue;
+            }
+            Map<String, Object> p = new LinkedHashMap<>();
+            p.put("maximo", hikari.getMaximumPoolSize());
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();    // null hasta la primera conexión
+            p.put("activas", pool != null ? pool.getActiveConnections() : 0);
+            p.put("libres", pool != null ? pool.getIdleConnections() : 0);
+            p.put("esperando", pool != null ? pool.getThreadsAwaitingConnection() : 0);
+
+            Timer adquisicion = registro.find("hikaricp.connections.acquire").tag("pool", hikari.getPoolName()).timer();
+            p.put("adquisiciones", adquisicion != null ? adquisicion.count() : 0);
+            p.put("adquisicionMediaMs", adquisicion != null ? adquisicion.mean(TimeUnit.MILLISECONDS) : 0);
+            p.put("adquisicionMaximaMs", adquisicion != null ? adquisicion.max(TimeUnit.MILLISECONDS) : 0);
+            pools.put(hikari.getPoolName(), p);
+        }
+        return pools;
+    }
+
+    private static HikariDataSource hikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.optativa.thymeleaf.monitorizacion;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * Primer filtro de la cadena: abre la TrazaPeticion, añade la cabecera Server-Timing
+ * y al terminar entrega la traza a TrazasLentas.
+ *
+ * La cabecera lleva nombres de controladores y número/tiempo de consultas SQL, y el
+ * filtro va antes de Spring Security (no sabe quién pide): solo se envía con
+ * biblioteca.monitorizacion.trazas.server-timing=true (desarrollo, pruebas de carga).
+ * Sin ella las trazas se siguen midiendo y guardando para /admin/rendimiento/trazas.
+ *
+ * La cabecera tiene que salir antes que el cuerpo, así que la respuesta se envuelve y
+ * la cabecera se escribe en el primer byte (o en el redirect/error). Como Thymeleaf
+ * genera la página completa antes de escribirla (produce-partial-output-while-processing=false),
+ * en ese momento el render ya ha terminado y su tiempo es exacto.
+ */
+public class FiltroTrazas extends OncePerRequestFilter {
+
+    static final String CABECERA = "Server-Timing";
+
+    private final TrazasLentas trazasLentas;
+    private final boolean serverTiming;
+
+    public FiltroTrazas(TrazasLentas trazasLentas, boolean serverTiming) {
+        this.trazasLentas = trazasLentas;
+        this.serverTiming = serverTiming;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        TrazaPeticion traza = TrazaPeticion.iniciar(request.getMethod(), request.getRequestURI());
+        RespuestaConTiempos respuesta = serverTiming ? new RespuestaConTiempos(response, traza) : null;
+        try {
+            chain.doFilter(request, respuesta != null ? respuesta : response);
+        } finally {
+            if (respuesta != null) {
+                respuesta.escribirCabecera();             // respuestas sin cuerpo (304, 204...)
+            } else {
+                traza.terminarRender();
+            }
+            traza.terminar(response.getStatus());
+            TrazaPeticion.quitar();
+            trazasLentas.registrar(traza);
+        }
+    }
+
+    /**
+     * Respuesta que añade Server-Timing justo antes de que se envíe nada al cliente
+     */
+    static class RespuestaConTiempos extends HttpServletResponseWrapper {
+
+        private final TrazaPeticion traza;
+        private boolean cabeceraEscrita;
+        private PrintWriter writer;
+        private ServletOutputStream salida;
+
+        RespuestaConTiempos(HttpServletResponse response, TrazaPeticion traza) {
+            super(response);
+            this.traza = traza;
+        }
+
+        void escribirCabecera() {
+            if (!cabeceraEscrita) {
+                cabeceraEscrita = true;
+                traza.terminarRender();
+                if (!isCommitted()) {
+                    setHeader(CABECERA, traza.serverTiming());
+                }
+            }
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            escribirCabecera();
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            escribirCabecera();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            escribirCabecera();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            escribirCabecera();
+            super.flushBuffer();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                Writer real = super.getWriter();
+                writer = new PrintWriter(new Writer() {
+                    @Override
+                    public void write(char[] cbuf, int off, int len) throws IOException {
+                        escribirCabecera();
+                        real.write(cbuf, off, len);
+                    }
+
+                    @Override
+                    public void write(String str, int off, int len) throws IOException {
+                        escribirCabecera();
+                        real.write(str, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        escribirCabecera();
+                        real.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        escribirCabecera();
+                        real.close();
+                    }
+                });
+            }
+            return writer;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (salida == null) {
+                ServletOutputStream real = super.getOutputStream();
+                salida = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        escribirCabecera();
+                        real.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        escribirCabecera();
+                        real.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        escribirCabecera();
+                        real.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        escribirCabecera();
+                        real.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return real.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        real.setWriteListener(listener);
+                    }
+                };
+            }
+            return salida;
+        }
+    }
+}
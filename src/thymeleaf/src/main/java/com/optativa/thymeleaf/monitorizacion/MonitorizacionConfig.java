@@ -0,0 +1,33 @@
+package com.optativa.thymeleaf.monitorizacion;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Envuelve el DataSource de la aplicación (bean "dataSource") en un DataSourceMedido
+ * para que cada sentencia SQL pase por los oyentes (consultas lentas, etc.).
+ *
+ * Con el perfil "replica" el bean "dataSource" es el enrutador → se miden las
+ * sentencias de los dos pools sin tocarlos.
+ */
+@Configuration
+public class MonitorizacionConfig {
+
+    @Bean
+    public static BeanPostProcessor medirDataSource(ObjectProvider<DataSourceMedido.OyenteSql> oyentes) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String nombre) {
+                if ("dataSource".equals(nombre) && bean instanceof DataSource dataSource
+                        && !(bean instanceof DataSourceMedido)) {
+                    return new DataSourceMedido(dataSource, () -> oyentes.orderedStream().toList());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.optativa.thymeleaf.monitorizacion;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/rendimiento → estadísticas de Hibernate, pools y consultas lentas en JSON
+ * (lo mismo que muestra /admin/rendimiento).
+ *
+ * DELETE /actuator/rendimiento → reinicia los contadores (p. ej. antes de una prueba de carga).
+ *
+ * Solo ADMIN (SecurityConfig), aunque el puerto de gestión escuche solo en 127.0.0.1.
+ */
+@Component
+@Endpoint(id = "rendimiento")
+public class RendimientoEndpoint {
+
+    private final EstadisticasRendimiento estadisticas;
+
+    public RendimientoEndpoint(EstadisticasRendimiento estadisticas) {
+        this.estadisticas = estadisticas;
+    }
+
+    @ReadOperation
+    public Map<String, Object> rendimiento() {
+        return estadisticas.resumen();
+    }
+
+    @DeleteOperation
+    public void reiniciar() {
+        estadisticas.reiniciar();
+    }
+}
@@ -0,0 +1,209 @@
+package com.optativa.thymeleaf.monitorizacion;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Desglose de tiempos de una petición HTTP:
+ *
+ *   total       → desde que entra en FiltroTrazas hasta que termina (incluye seguridad)
+ *   controlador → método del controlador (incluye servicios y SQL)
+ *   servicio    → llamadas a la capa de servicio (solo la más externa si se anidan)
+ *   sql         → número de sentencias y tiempo de JDBC
+ *   render      → plantilla Thymeleaf (desde que vuelve el controlador hasta el final)
+ *
+ * Vive en un ThreadLocal mientras dura la petición: cada pieza suma su parte sin
+ * sincronización (una petición = un hilo). Cuando termina queda congelada y, si fue
+ * lenta, se guarda en TrazasLentas.
+ */
+public class TrazaPeticion {
+
+    private static final ThreadLocal<TrazaPeticion> ACTUAL = new ThreadLocal<>();
+
+    private final LocalDateTime fecha = LocalDateTime.now();
+    private final long inicio = System.nanoTime();
+    private final String metodoHttp;
+    private final String uri;
+
+    private String controlador;
+    private long inicioControlador;
+    private long finControlador;
+    private long finRender;
+    private long fin;
+    private int estado;
+
+    private int profundidadServicio;
+    private long inicioServicio;
+    private long servicioNanos;
+    private int llamadasServicio;
+
+    private int consultasSql;
+    private long sqlNanos;
+
+    TrazaPeticion(String metodoHttp, String uri) {
+        this.metodoHttp = metodoHttp;
+        this.uri = uri;
+    }
+
+    // ────────────────────────────────────────────────
+    // Ciclo de vida (FiltroTrazas)
+    // ────────────────────────────────────────────────
+
+    static TrazaPeticion iniciar(String metodoHttp, String uri) {
+        TrazaPeticion traza = new TrazaPeticion(metodoHttp, uri);
+        ACTUAL.set(traza);
+        return traza;
+    }
+
+    static void quitar() {
+        ACTUAL.remove();
+    }
+
+    /**
+     * Traza de la petición en curso en este hilo, o null (arranque, tareas, trazas desactivadas)
+     */
+    public static TrazaPeticion actual() {
+        return ACTUAL.get();
+    }
+
+    void terminar(int estado) {
+        this.estado = estado;
+        this.fin = System.nanoTime();
+        if (finControlador != 0 && finRender == 0) {
+            finRender = fin;
+        }
+    }
+
+    // ────────────────────────────────────────────────
+    // Mediciones (interceptor, aspecto de servicios, DataSourceMedido)
+    // ────────────────────────────────────────────────
+
+    void entrarControlador(String controlador) {
+        this.controlador = controlador;
+        this.inicioControlador = System.nanoTime();
+    }
+
+    void salirControlador() {
+        this.finControlador = System.nanoTime();
+    }
+
+    void terminarRender() {
+        if (finControlador != 0 && finRender == 0) {
+            finRender = System.nanoTime();
+        }
+    }
+
+    void entrarServicio() {
+        if (profundidadServicio++ == 0) {
+            inicioServicio = System.nanoTime();
+            llamadasServicio++;
+        }
+    }
+
+    void salirServicio() {
+        if (--profundidadServicio == 0) {
+            servicioNanos += System.nanoTime() - inicioServicio;
+        }
+    }
+
+    void sumarSql(long nanos) {
+        consultasSql++;
+        sqlNanos += nanos;
+    }
+
+    // ────────────────────────────────────────────────
+    // Cabecera Server-Timing (se ve en las DevTools del navegador, pestaña "Timing")
+    // ────────────────────────────────────────────────
+
+    /**
+     * Con lo medido hasta ahora: se escribe justo antes del primer byte de la respuesta
+     */
+    String serverTiming() {
+        long ahora = System.nanoTime();
+        StringBuilder cabecera = new StringBuilder(160);
+        metrica(cabecera, "total", ahora - inicio, null);
+        if (inicioControlador != 0) {
+            metrica(cabecera, "ctrl", (finControlador != 0 ? finControlador : ahora) - inicioControlador, controlador);
+        }
+        if (llamadasServicio > 0) {
+            metrica(cabecera, "svc", servicioNanos, llamadasServicio + " llamadas");
+        }
+        if (consultasSql > 0) {
+            metrica(cabecera, "sql", sqlNanos, consultasSql + " sentencias");
+        }
+        if (finControlador != 0) {
+            metrica(cabecera, "render", (finRender != 0 ? finRender : ahora) - finControlador, null);
+        }
+        return cabecera.toString();
+    }
+
+    private static void metrica(StringBuilder cabecera, String nombre, long nanos, String descripcion) {
+        if (cabecera.length() > 0) {
+            cabecera.append(", ");
+        }
+        cabecera.append(nombre).append(";dur=").append(String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0));
+        if (descripcion != null) {
+            cabecera.append(";desc=\"").append(descripcion).append('"');
+        }
+    }
+
+    // ────────────────────────────────────────────────
+    // Getters (vista de administración y actuator), en milisegundos
+    // ────────────────────────────────────────────────
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    public String getMetodoHttp() {
+        return metodoHttp;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public String getControlador() {
+        return controlador;
+    }
+
+    public int getEstado() {
+        return estado;
+    }
+
+    long totalNanos() {
+        return (fin != 0 ? fin : System.nanoTime()) - inicio;
+    }
+
+    public double getTotalMs() {
+        return ms(totalNanos());
+    }
+
+    public double getControladorMs() {
+        return inicioControlador != 0 && finControlador != 0 ? ms(finControlador - inicioControlador) : 0;
+    }
+
+    public double getServicioMs() {
+        return ms(servicioNanos);
+    }
+
+    public int getLlamadasServicio() {
+        return llamadasServicio;
+    }
+
+    public double getSqlMs() {
+        return ms(sqlNanos);
+    }
+
+    public int getConsultasSql() {
+        return consultasSql;
+    }
+
+    public double getRenderMs() {
+        return finControlador != 0 && finRender != 0 ? ms(finRender - finControlador) : 0;
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,107 @@
+package com.optativa.thymeleaf.monitorizacion;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Trazas por petición (TrazasLentas + cabecera Server-Timing opcional). Activas por
+ * defecto; se apagan con biblioteca.monitorizacion.trazas.habilitadas=false.
+ * La cabecera solo sale con biblioteca.monitorizacion.trazas.server-timing=true.
+ *
+ * Piezas:
+ *  - FiltroTrazas             → abre/cierra la traza (antes que Spring Security)
+ *  - interceptor MVC          → tiempo del controlador y comienzo del render
+ *  - aspecto de servicios     → tiempo en la capa de servicio
+ *  - oyente de DataSourceMedido → número y tiempo de sentencias SQL
+ *
+ * Coste por petición: un objeto, un ThreadLocal y un par de System.nanoTime() por
+ * cada pieza medida.
+ */
+@Configuration
+@ConditionalOnProperty(name = "biblioteca.monitorizacion.trazas.habilitadas", havingValue = "true", matchIfMissing = true)
+public class TrazasConfig implements WebMvcConfigurer {
+
+    @Bean
+    public FilterRegistrationBean<FiltroTrazas> filtroTrazas(
+            TrazasLentas trazasLentas,
+            @Value("${biblioteca.monitorizacion.trazas.server-timing:false}") boolean serverTiming) {
+        FilterRegistrationBean<FiltroTrazas> registro =
+                new FilterRegistrationBean<>(new FiltroTrazas(trazasLentas, serverTiming));
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+
+    @Bean
+    public DataSourceMedido.OyenteSql sqlEnTraza() {
+        return (sql, nanos) -> {
+            TrazaPeticion traza = TrazaPeticion.actual();
+            if (traza != null) {
+                traza.sumarSql(nanos);
+            }
+        };
+    }
+
+    @Bean
+    public ServiciosEnTraza serviciosEnTraza() {
+        return new ServiciosEnTraza();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                TrazaPeticion traza = TrazaPeticion.actual();
+                if (traza != null && handler instanceof HandlerMethod metodo) {
+                    traza.entrarControlador(metodo.getBeanType().getSimpleName() + "." + metodo.getMethod().getName());
+                }
+                return true;
+            }
+
+            @Override
+            public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                   ModelAndView modelAndView) {
+                TrazaPeticion traza = TrazaPeticion.actual();
+                if (traza != null) {
+                    traza.salirControlador();
+                }
+            }
+        });
+    }
+
+    /**
+     * Suma el tiempo de las llamadas a la capa de servicio (la más externa, si se anidan)
+     */
+    @Aspect
+    static class ServiciosEnTraza {
+
+        @Around("execution(public * com.optativa.thymeleaf.servicio..*(..))")
+        public Object medir(ProceedingJoinPoint llamada) throws Throwable {
+            TrazaPeticion traza = TrazaPeticion.actual();
+            if (traza == null) {
+                return llamada.proceed();
+            }
+            traza.entrarServicio();
+            try {
+                return llamada.proceed();
+            } finally {
+                traza.salirServicio();
+            }
+        }
+    }
+}
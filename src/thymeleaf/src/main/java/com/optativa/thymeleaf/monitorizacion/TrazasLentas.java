@@ -0,0 +1,66 @@
+package com.optativa.thymeleaf.monitorizacion;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Últimas N trazas de peticiones lentas (por encima de biblioteca.monitorizacion.traza-lenta).
+ *
+ * Buffer circular de tamaño fijo (biblioteca.monitorizacion.trazas-guardadas): cada traza
+ * nueva pisa la más antigua. Registrar es un incremento atómico y una escritura, sin
+ * bloqueos → se puede dejar activo en producción con cualquier número de hilos.
+ */
+@Component
+public class TrazasLentas {
+
+    private final long umbralNanos;
+    private final AtomicReferenceArray<TrazaPeticion> buffer;
+    private final AtomicLong siguiente = new AtomicLong();
+
+    public TrazasLentas(
+            @Value("${biblioteca.monitorizacion.traza-lenta:500ms}") Duration umbral,
+            @Value("${biblioteca.monitorizacion.trazas-guardadas:50}") int capacidad) {
+        this.umbralNanos = umbral.toNanos();
+        this.buffer = new AtomicReferenceArray<>(capacidad);
+    }
+
+    void registrar(TrazaPeticion traza) {
+        if (traza.totalNanos() < umbralNanos) {
+            return;
+        }
+        int posicion = (int) (siguiente.getAndIncrement() % buffer.length());
+        buffer.set(posicion, traza);
+    }
+
+    /**
+     * Las más recientes primero
+     */
+    public List<TrazaPeticion> ultimas() {
+        List<TrazaPeticion> trazas = new ArrayList<>(buffer.length());
+        for (int i = 0; i < buffer.length(); i++) {
+            TrazaPeticion traza = buffer.get(i);
+            if (traza != null) {
+                trazas.add(traza);
+            }
+        }
+        trazas.sort(Comparator.comparing(TrazaPeticion::getFecha).reversed());
+        return trazas;
+    }
+
+    public void limpiar() {
+        for (int i = 0; i < buffer.length(); i++) {
+            buffer.set(i, null);
+        }
+    }
+
+    public Duration getUmbral() {
+        return Duration.ofNanos(umbralNanos);
+    }
+}
@@ -0,0 +1,95 @@
+package com.optativa.thymeleaf.proteccion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de peticiones simultáneas de un grupo de endpoints, con cola acotada:
+ *
+ *   hueco libre          → entra
+ *   sin hueco, cola < N  → espera hasta "espera" a que salga otra
+ *   cola llena / timeout → rechazada (el filtro contesta 503)
+ *
+ * Así las páginas caras de un grupo (informes de admin) no ocupan todos los hilos
+ * de Tomcat ni todas las conexiones del pool mientras el catálogo sigue atendiendo.
+ */
+class Compartimento {
+
+    private final String nombre;
+    private final int concurrencia;
+    private final int cola;
+    private final long esperaNanos;
+    private final Semaphore huecos;
+    private final AtomicInteger enCola = new AtomicInteger();
+    private final Counter rechazadas;
+
+    Compartimento(String nombre, int concurrencia, int cola, Duration espera, MeterRegistry registro) {
+        this.nombre = nombre;
+        this.concurrencia = concurrencia;
+        this.cola = cola;
+        this.esperaNanos = espera.toNanos();
+        this.huecos = new Semaphore(concurrencia, true);          // justo: por orden de llegada
+
+        Gauge.builder("biblioteca.compartimento.activas", huecos, h -> concurrencia - h.availablePermits())
+                .description("Peticiones del grupo en ejecución")
+                .tag("grupo", nombre)
+                .register(registro);
+        Gauge.builder("biblioteca.compartimento.cola", enCola, AtomicInteger::get)
+                .description("Peticiones del grupo esperando un hueco")
+                .tag("grupo", nombre)
+                .register(registro);
+        this.rechazadas = Counter.builder("biblioteca.compartimento.rechazadas")
+                .description("Peticiones rechazadas (503) por compartimento lleno")
+                .tag("grupo", nombre)
+                .register(registro);
+    }
+
+    /**
+     * true → hay que llamar a salir() al terminar; false → rechazada
+     */
+    boolean entrar() throws InterruptedException {
+        if (huecos.tryAcquire()) {
+            return true;                                           // camino normal: sin esperas
+        }
+        if (enCola.incrementAndGet() > cola) {
+            enCola.decrementAndGet();
+            rechazadas.increment();
+            return false;
+        }
+        try {
+            if (huecos.tryAcquire(esperaNanos, TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+            rechazadas.increment();
+            return false;
+        } finally {
+            enCola.decrementAndGet();
+        }
+    }
+
+    void salir() {
+        huecos.release();
+    }
+
+    String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Segundos (redondeando hacia arriba) para la cabecera Retry-After
+     */
+    long reintentarEnSegundos() {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + 999_999_999));
+    }
+
+    @Override
+    public String toString() {
+        return nombre + " (concurrencia " + concurrencia + ", cola " + cola + ")";
+    }
+}
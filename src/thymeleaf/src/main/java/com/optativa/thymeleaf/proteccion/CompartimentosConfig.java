@@ -0,0 +1,60 @@
+package com.optativa.thymeleaf.proteccion;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compartimentos (bulkheads) por grupo de endpoints: catálogo público, préstamos del
+ * usuario y administración tienen cada uno su límite de concurrencia y su cola.
+ * Activos por defecto; se apagan con biblioteca.compartimentos.habilitados=false.
+ *
+ * Los hilos de Tomcat y el pool de conexiones son comunes: sin esto, unos cuantos
+ * listados de admin (todos los préstamos, todos los usuarios y libros) bastan para
+ * que /libros espere conexión. Con el grupo admin limitado a pocas peticiones, el
+ * resto del pool queda para el catálogo.
+ *
+ * El filtro va justo detrás de Spring Security: una petición sin sesión o sin el rol
+ * necesario se contesta (login, 401, 403) antes de llegar aquí, así que un aluvión
+ * anónimo contra /admin/** no ocupa los pocos huecos del grupo admin.
+ */
+@Configuration
+@ConditionalOnProperty(name = "biblioteca.compartimentos.habilitados", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(PropiedadesCompartimentos.class)
+public class CompartimentosConfig {
+
+    @Bean
+    public FilterRegistrationBean<FiltroCompartimentos> filtroCompartimentos(
+            PropiedadesCompartimentos propiedades,
+            MeterRegistry registro,
+            @Value("${spring.security.filter.order:-100}") int ordenSeguridad) {
+        List<Map.Entry<PathPattern, Compartimento>> rutas = new ArrayList<>();
+        propiedades.getGrupos().forEach((nombre, grupo) -> {
+            Compartimento compartimento = new Compartimento(nombre, grupo.getConcurrencia(), grupo.getCola(),
+                    grupo.getEspera(), registro);
+            for (String ruta : grupo.getRutas()) {
+                rutas.add(new AbstractMap.SimpleImmutableEntry<>(PathPatternParser.defaultInstance.parse(ruta),
+                        compartimento));
+            }
+        });
+        // Mismo criterio que Spring MVC: /libros/nuevo (admin) antes que /libros/* (catálogo)
+        rutas.sort(Map.Entry.comparingByKey(PathPattern.SPECIFICITY_COMPARATOR));
+
+        FilterRegistrationBean<FiltroCompartimentos> registroFiltro =
+                new FilterRegistrationBean<>(new FiltroCompartimentos(rutas));
+        registroFiltro.setOrder(ordenSeguridad + 1);        // después de la cadena de Spring Security
+        return registroFiltro;
+    }
+}
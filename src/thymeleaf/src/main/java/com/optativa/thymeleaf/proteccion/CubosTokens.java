@@ -0,0 +1,97 @@
+package com.optativa.thymeleaf.proteccion;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Un cubo de tokens por clave (IP o usuario): cada petición gasta un token y se reponen
+ * a ritmo constante hasta la capacidad (ráfaga).
+ *
+ * Las claves se reparten en FRANJAS mapas independientes, cada uno con su cerrojo →
+ * dos peticiones solo compiten si caen en la misma franja. Cada franja es una LRU
+ * acotada: con más de maxClaves claves se olvida la que lleva más tiempo sin pedir
+ * (su cubo estaría lleno de todos modos) → memoria acotada aunque lleguen IPs nuevas
+ * sin parar.
+ *
+ * Coste por petición: un hash, un get en un LinkedHashMap y unas cuantas operaciones
+ * en coma flotante con el cerrojo de la franja (sin esperas ni E/S dentro).
+ */
+class CubosTokens {
+
+    private static final int FRANJAS = 64;
+
+    private final double capacidad;
+    private final double tokensPorNano;
+    private final Franja[] franjas = new Franja[FRANJAS];
+
+    CubosTokens(int rafaga, int porMinuto, int maxClaves) {
+        this.capacidad = rafaga;
+        this.tokensPorNano = porMinuto / 60e9;
+        int porFranja = Math.max(1, maxClaves / FRANJAS);
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new Franja(porFranja);
+        }
+    }
+
+    /**
+     * Gasta un token de la clave: 0 si lo había, si no los nanosegundos que faltan
+     * para el siguiente (la petición se rechaza y no gasta nada)
+     */
+    long consumir(String clave, long ahora) {
+        int hash = clave.hashCode();
+        Franja franja = franjas[(hash ^ (hash >>> 16)) & (FRANJAS - 1)];
+        synchronized (franja) {
+            Cubo cubo = franja.get(clave);
+            if (cubo == null) {
+                cubo = new Cubo(capacidad, ahora);
+                franja.put(clave, cubo);
+            } else {
+                cubo.tokens = Math.min(capacidad, cubo.tokens + (ahora - cubo.instante) * tokensPorNano);
+                cubo.instante = ahora;
+            }
+            if (cubo.tokens >= 1) {
+                cubo.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - cubo.tokens) / tokensPorNano);
+        }
+    }
+
+    /**
+     * Claves recordadas ahora mismo (para la métrica de memoria)
+     */
+    int tamano() {
+        int total = 0;
+        for (Franja franja : franjas) {
+            synchronized (franja) {
+                total += franja.size();
+            }
+        }
+        return total;
+    }
+
+    private static final class Cubo {
+        double tokens;
+        long instante;
+
+        Cubo(double tokens, long instante) {
+            this.tokens = tokens;
+            this.instante = instante;
+        }
+    }
+
+    private static final class Franja extends LinkedHashMap<String, Cubo> {
+
+        private final int maximo;
+
+        Franja(int maximo) {
+            super(16, 0.75f, true);                    // orden de acceso → LRU
+            this.maximo = maximo;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cubo> mayor) {
+            return size() > maximo;
+        }
+    }
+}
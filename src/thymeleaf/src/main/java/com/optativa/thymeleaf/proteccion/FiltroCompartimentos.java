@@ -0,0 +1,89 @@
+package com.optativa.thymeleaf.proteccion;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pasa cada petición por el compartimento de su grupo (ver CompartimentosConfig).
+ *
+ * Va después de Spring Security: solo ocupan hueco las peticiones ya autenticadas y
+ * autorizadas para la ruta (las demás no deben quitárselo a quien sí puede entrar).
+ * Se contesta aquí mismo (sin sendError → sin página de error de Thymeleaf):
+ * rechazar tiene que ser barato.
+ */
+public class FiltroCompartimentos extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(FiltroCompartimentos.class);
+
+    /**
+     * Patrón → compartimento, de más a menos específico (el primero que encaja gana)
+     */
+    private final List<Map.Entry<PathPattern, Compartimento>> rutas;
+
+    FiltroCompartimentos(List<Map.Entry<PathPattern, Compartimento>> rutas) {
+        this.rutas = rutas;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Compartimento compartimento = compartimento(request);
+        if (compartimento == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        boolean dentro;
+        try {
+            dentro = compartimento.entrar();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dentro = false;
+        }
+        if (!dentro) {
+            rechazar(response, compartimento);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            compartimento.salir();
+        }
+    }
+
+    Compartimento compartimento(HttpServletRequest request) {
+        PathContainer ruta = PathContainer.parsePath(
+                request.getRequestURI().substring(request.getContextPath().length()));
+        for (Map.Entry<PathPattern, Compartimento> entrada : rutas) {
+            if (entrada.getKey().matches(ruta)) {
+                return entrada.getValue();
+            }
+        }
+        return null;
+    }
+
+    private void rechazar(HttpServletResponse response, Compartimento compartimento) throws IOException {
+        log.debug("Petición rechazada: compartimento {} lleno", compartimento);
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(compartimento.reintentarEnSegundos()));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("Servicio ocupado, inténtalo de nuevo en unos segundos.");
+    }
+}
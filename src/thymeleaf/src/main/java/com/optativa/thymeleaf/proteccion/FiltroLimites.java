@@ -0,0 +1,186 @@
+package com.optativa.thymeleaf.proteccion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Control de admisión de los endpoints calientes (ver LimitesConfig). Por cada regla:
+ *
+ *   1. cubo de tokens de la IP o del usuario → ráfagas de un mismo cliente
+ *   2. límite de concurrencia adaptativo     → picos de todos los clientes a la vez
+ *
+ * Cualquiera de los dos llenos → 429 con Retry-After, contestado aquí mismo.
+ *
+ * Va antes de Spring Security (el login lo procesa un filtro de seguridad y nunca
+ * llegaría a un filtro posterior), así que el usuario se lee directamente del
+ * SecurityContext guardado en la sesión, sin cargar nada más.
+ *
+ * La IP es getRemoteAddr(): detrás de un proxy, Tomcat ya la ha sustituido por la de
+ * X-Forwarded-For (server.forward-headers-strategy=native, solo desde proxies de confianza).
+ */
+public class FiltroLimites extends OncePerRequestFilter {
+
+    private static final String MENSAJE = "Demasiadas peticiones, inténtalo de nuevo en unos segundos.";
+
+    private final List<Regla> reglas = new ArrayList<>();
+
+    public FiltroLimites(PropiedadesLimites propiedades, MeterRegistry registro) {
+        propiedades.getReglas().forEach((nombre, regla) ->
+                reglas.add(new Regla(nombre, regla, propiedades.getClaves(), registro)));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Regla regla = regla(request);
+        if (regla == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long espera = regla.cubos.consumir(regla.clave(request), System.nanoTime());
+        if (espera > 0) {
+            regla.porRafaga.increment();
+            rechazar(response, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + 999_999_999)));
+            return;
+        }
+        if (!regla.concurrencia.entrar()) {
+            regla.porConcurrencia.increment();
+            rechazar(response, 1);
+            return;
+        }
+        long inicio = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            regla.concurrencia.salir(System.nanoTime() - inicio);
+        }
+    }
+
+    Regla regla(HttpServletRequest request) {
+        PathContainer ruta = null;
+        for (Regla regla : reglas) {
+            if (!regla.metodo.equals(request.getMethod())) {
+                continue;
+            }
+            if (regla.parametro != null && !StringUtils.hasText(request.getParameter(regla.parametro))) {
+                continue;
+            }
+            if (ruta == null) {
+                ruta = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+            }
+            if (regla.ruta.matches(ruta)) {
+                return regla;
+            }
+        }
+        return null;
+    }
+
+    Regla regla(String nombre) {
+        return reglas.stream().filter(r -> r.nombre.equals(nombre)).findFirst().orElseThrow();
+    }
+
+    private static void rechazar(HttpServletResponse response, long segundos) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(segundos));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(MENSAJE);
+    }
+
+    /**
+     * Una regla ya preparada: qué peticiones, sus cubos y su límite de concurrencia
+     */
+    static final class Regla {
+
+        final String nombre;
+        final String metodo;
+        final PathPattern ruta;
+        final String parametro;
+        final PropiedadesLimites.TipoClave tipoClave;
+        final CubosTokens cubos;
+        final LimiteAdaptativo concurrencia;
+        final Counter porRafaga;
+        final Counter porConcurrencia;
+
+        Regla(String nombre, PropiedadesLimites.Regla propiedades, int claves, MeterRegistry registro) {
+            this.nombre = nombre;
+            this.metodo = propiedades.getMetodo().toUpperCase();
+            this.ruta = PathPatternParser.defaultInstance.parse(propiedades.getRuta());
+            this.parametro = StringUtils.hasText(propiedades.getParametro()) ? propiedades.getParametro() : null;
+            this.tipoClave = propiedades.getClave();
+            this.cubos = new CubosTokens(propiedades.getRafaga(), propiedades.getPorMinuto(), claves);
+            this.concurrencia = new LimiteAdaptativo(propiedades.getConcurrenciaInicial(),
+                    propiedades.getConcurrenciaMinima(), propiedades.getConcurrenciaMaxima());
+
+            Gauge.builder("biblioteca.limite.concurrencia", concurrencia, LimiteAdaptativo::getLimite)
+                    .description("Límite de concurrencia adaptativo actual")
+                    .tag("regla", nombre)
+                    .register(registro);
+            Gauge.builder("biblioteca.limite.claves", cubos, CubosTokens::tamano)
+                    .description("IPs o usuarios con cubo de tokens en memoria")
+                    .tag("regla", nombre)
+                    .register(registro);
+            this.porRafaga = rechazadas(registro, nombre, "rafaga");
+            this.porConcurrencia = rechazadas(registro, nombre, "concurrencia");
+        }
+
+        String clave(HttpServletRequest request) {
+            if (tipoClave == PropiedadesLimites.TipoClave.USUARIO) {
+                String usuario = usuarioEnSesion(request);
+                if (usuario != null) {
+                    return "u:" + usuario;
+                }
+            }
+            return "ip:" + request.getRemoteAddr();
+        }
+
+        private static String usuarioEnSesion(HttpServletRequest request) {
+            HttpSession sesion = request.getSession(false);
+            if (sesion == null) {
+                return null;
+            }
+            Object contexto = sesion.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+            if (contexto instanceof SecurityContext seguridad) {
+                Authentication autenticacion = seguridad.getAuthentication();
+                if (autenticacion != null && autenticacion.isAuthenticated()) {
+                    return autenticacion.getName();
+                }
+            }
+            return null;
+        }
+
+        private static Counter rechazadas(MeterRegistry registro, String regla, String motivo) {
+            return Counter.builder("biblioteca.limite.rechazadas")
+                    .description("Peticiones rechazadas con 429")
+                    .tag("regla", regla)
+                    .tag("motivo", motivo)
+                    .register(registro);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.optativa.thymeleaf.proteccion;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de peticiones simultáneas que se ajusta solo según la latencia observada
+ * (algoritmo de gradiente, como TCP Vegas):
+ *
+ *   latencia ≈ mínima          → el servidor va holgado: el límite sube (+√límite)
+ *   latencia > 2 × mínima      → se está formando cola: el límite baja en proporción
+ *
+ * La latencia mínima es la línea base del endpoint sin cola (login con BCrypt ≈ 100 ms,
+ * una búsqueda unos pocos ms). Cada VENTANA muestras puede subir, despacio, si la ventana
+ * no tenía cola (mínimo < 2 × base) o si el límite ya estaba en el mínimo toda la ventana
+ * (con tan pocas peticiones la latencia es la del endpoint: se ha vuelto más lento de
+ * verdad). Así sigue a cambios reales (más datos, otra máquina) sin que una sobrecarga
+ * larga se convierta en la nueva normalidad.
+ *
+ * Entrar y salir es un CAS; el recálculo, unas operaciones con el cerrojo del objeto.
+ */
+class LimiteAdaptativo {
+
+    private static final int VENTANA = 250;
+    private static final double TOLERANCIA = 2.0;
+    private static final double SUAVIZADO = 0.2;
+
+    private final int minimo;
+    private final int maximo;
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private volatile int limite;
+
+    // Estado del recálculo (con el cerrojo)
+    private double limiteExacto;
+    private long latenciaMinima = Long.MAX_VALUE;
+    private long minimoVentana = Long.MAX_VALUE;
+    private boolean ventanaEnMinimo = true;
+    private int muestras;
+    private long sumaLote;
+    private int muestrasLote;
+    private int maximoLote;
+
+    LimiteAdaptativo(int inicial, int minimo, int maximo) {
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.limiteExacto = Math.max(minimo, Math.min(maximo, inicial));
+        this.limite = (int) limiteExacto;
+    }
+
+    /**
+     * true → hay que llamar a salir() al terminar; false → límite alcanzado
+     */
+    boolean entrar() {
+        while (true) {
+            int actuales = enCurso.get();
+            if (actuales >= limite) {
+                return false;
+            }
+            if (enCurso.compareAndSet(actuales, actuales + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void salir(long latenciaNanos) {
+        int actuales = enCurso.getAndDecrement();
+        muestra(latenciaNanos, actuales);
+    }
+
+    private synchronized void muestra(long latencia, int actuales) {
+        minimoVentana = Math.min(minimoVentana, latencia);
+        ventanaEnMinimo &= limiteExacto <= minimo;
+        latenciaMinima = Math.min(latenciaMinima, latencia);
+        if (++muestras >= VENTANA) {
+            if (minimoVentana < TOLERANCIA * latenciaMinima || ventanaEnMinimo) {
+                latenciaMinima += (long) ((minimoVentana - latenciaMinima) * SUAVIZADO);
+            }
+            minimoVentana = Long.MAX_VALUE;
+            ventanaEnMinimo = true;
+            muestras = 0;
+        }
+
+        // Un ajuste por lote de ~límite muestras (una "vuelta" de todas las peticiones en
+        // curso) con su latencia media: ajustar en cada muestra reaccionaría muchas veces
+        // a la misma cola
+        sumaLote += latencia;
+        maximoLote = Math.max(maximoLote, actuales);
+        if (++muestrasLote < limiteExacto) {
+            return;
+        }
+        long media = sumaLote / muestrasLote;
+        boolean conCarga = maximoLote >= limiteExacto / 2;
+        sumaLote = 0;
+        muestrasLote = 0;
+        maximoLote = 0;
+
+        // Con poca carga la latencia no dice nada sobre el límite: se deja como está
+        if (!conCarga) {
+            return;
+        }
+        double gradiente = Math.max(0.5, Math.min(1.0, TOLERANCIA * latenciaMinima / (double) media));
+        double objetivo = limiteExacto * gradiente + Math.sqrt(limiteExacto);
+        limiteExacto = Math.max(minimo, Math.min(maximo,
+                limiteExacto * (1 - SUAVIZADO) + objetivo * SUAVIZADO));
+        limite = (int) limiteExacto;
+    }
+
+    int getLimite() {
+        return limite;
+    }
+
+    int getEnCurso() {
+        return enCurso.get();
+    }
+}
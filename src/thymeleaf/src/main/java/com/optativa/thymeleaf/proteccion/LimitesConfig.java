@@ -0,0 +1,33 @@
+package com.optativa.thymeleaf.proteccion;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Límites por cliente y concurrencia adaptativa en los endpoints que antes se
+ * saturan: POST /login (BCrypt), POST /prestamos/solicitar y GET /libros?keyword=.
+ * Activos por defecto; se apagan con biblioteca.limites.habilitados=false.
+ *
+ * Orden de los filtros propios:
+ *   FiltroTrazas → FiltroLimites → Spring Security → FiltroCompartimentos
+ * Una petición que ya no va a pasar no ocupa hueco en ningún compartimento.
+ */
+@Configuration
+@ConditionalOnProperty(name = "biblioteca.limites.habilitados", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(PropiedadesLimites.class)
+public class LimitesConfig {
+
+    @Bean
+    public FilterRegistrationBean<FiltroLimites> filtroLimites(PropiedadesLimites propiedades, MeterRegistry registro) {
+        FilterRegistrationBean<FiltroLimites> registroFiltro =
+                new FilterRegistrationBean<>(new FiltroLimites(propiedades, registro));
+        registroFiltro.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registroFiltro;
+    }
+}
@@ -0,0 +1,68 @@
+package com.optativa.thymeleaf.proteccion;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compartimentos (bulkheads) por grupo de endpoints.
+ *
+ * Se leen de "biblioteca.compartimentos.*" (ver application.properties):
+ *   biblioteca.compartimentos.grupos.admin.rutas=/prestamos,/admin/**
+ *   biblioteca.compartimentos.grupos.admin.concurrencia=2
+ */
+@ConfigurationProperties(prefix = "biblioteca.compartimentos")
+public class PropiedadesCompartimentos {
+
+    /**
+     * Grupos por nombre (catalogo, prestamos, admin...). Una petición que no encaja
+     * en ninguna ruta no pasa por ningún compartimento.
+     */
+    private Map<String, Grupo> grupos = new LinkedHashMap<>();
+
+    public Map<String, Grupo> getGrupos() { return grupos; }
+    public void setGrupos(Map<String, Grupo> grupos) { this.grupos = grupos; }
+
+    public static class Grupo {
+
+        /**
+         * Patrones de ruta (PathPattern: /libros/*, /admin/**). Si una ruta encaja en
+         * patrones de varios grupos, gana el más específico (/libros/nuevo antes que /libros/*)
+         */
+        private List<String> rutas = new ArrayList<>();
+
+        /**
+         * Peticiones del grupo ejecutándose a la vez
+         */
+        private int concurrencia = 10;
+
+        /**
+         * Peticiones que pueden esperar un hueco; con la cola llena se rechaza al momento
+         */
+        private int cola = 20;
+
+        /**
+         * Tiempo máximo en la cola antes de rechazar la petición
+         */
+        private Duration espera = Duration.ofSeconds(1);
+
+        // ────────────────────────────────────────────────────────────────
+        // Getters y Setters
+        // ────────────────────────────────────────────────────────────────
+        public List<String> getRutas() { return rutas; }
+        public void setRutas(List<String> rutas) { this.rutas = rutas; }
+
+        public int getConcurrencia() { return concurrencia; }
+        public void setConcurrencia(int concurrencia) { this.concurrencia = concurrencia; }
+
+        public int getCola() { return cola; }
+        public void setCola(int cola) { this.cola = cola; }
+
+        public Duration getEspera() { return espera; }
+        public void setEspera(Duration espera) { this.espera = espera; }
+    }
+}
@@ -0,0 +1,114 @@
+package com.optativa.thymeleaf.proteccion;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Límites de peticiones de los endpoints calientes (login, solicitar préstamo, búsqueda).
+ *
+ * Se leen de "biblioteca.limites.*" (ver application.properties):
+ *   biblioteca.limites.reglas.login.metodo=POST
+ *   biblioteca.limites.reglas.login.ruta=/login
+ *   biblioteca.limites.reglas.login.por-minuto=30
+ */
+@ConfigurationProperties(prefix = "biblioteca.limites")
+public class PropiedadesLimites {
+
+    /**
+     * Claves (IP o usuario) recordadas por regla; al llenarse se olvida la usada hace más
+     * tiempo. Acota la memoria: unos 150 bytes por clave.
+     */
+    private int claves = 10_000;
+
+    /**
+     * Reglas por nombre; se aplica la primera que encaja
+     */
+    private Map<String, Regla> reglas = new LinkedHashMap<>();
+
+    public int getClaves() { return claves; }
+    public void setClaves(int claves) { this.claves = claves; }
+
+    public Map<String, Regla> getReglas() { return reglas; }
+    public void setReglas(Map<String, Regla> reglas) { this.reglas = reglas; }
+
+    /**
+     * De quién es cada cubo de tokens
+     */
+    public enum TipoClave {
+        /**
+         * Dirección del cliente (login: aún no hay usuario). Detrás de un proxy es la
+         * de X-Forwarded-For gracias a server.forward-headers-strategy=native
+         */
+        IP,
+        /** Usuario con sesión iniciada; sin sesión, su IP */
+        USUARIO
+    }
+
+    public static class Regla {
+
+        private String metodo = "GET";
+
+        /**
+         * Patrón de ruta (PathPattern)
+         */
+        private String ruta;
+
+        /**
+         * Si se indica, la regla solo se aplica cuando la petición lleva este parámetro
+         * con valor (GET /libros?keyword=... sí, GET /libros no)
+         */
+        private String parametro;
+
+        private TipoClave clave = TipoClave.USUARIO;
+
+        /**
+         * Peticiones seguidas que se admiten de golpe (tamaño del cubo)
+         */
+        private int rafaga = 10;
+
+        /**
+         * Ritmo sostenido: tokens que se reponen por minuto
+         */
+        private int porMinuto = 60;
+
+        /**
+         * Límite de concurrencia adaptativo (para todos los usuarios a la vez):
+         * valor de partida y márgenes entre los que se mueve
+         */
+        private int concurrenciaInicial = 20;
+        private int concurrenciaMinima = 2;
+        private int concurrenciaMaxima = 200;
+
+        // ────────────────────────────────────────────────────────────────
+        // Getters y Setters
+        // ────────────────────────────────────────────────────────────────
+        public String getMetodo() { return metodo; }
+        public void setMetodo(String metodo) { this.metodo = metodo; }
+
+        public String getRuta() { return ruta; }
+        public void setRuta(String ruta) { this.ruta = ruta; }
+
+        public String getParametro() { return parametro; }
+        public void setParametro(String parametro) { this.parametro = parametro; }
+
+        public TipoClave getClave() { return clave; }
+        public void setClave(TipoClave clave) { this.clave = clave; }
+
+        public int getRafaga() { return rafaga; }
+        public void setRafaga(int rafaga) { this.rafaga = rafaga; }
+
+        public int getPorMinuto() { return porMinuto; }
+        public void setPorMinuto(int porMinuto) { this.porMinuto = porMinuto; }
+
+        public int getConcurrenciaInicial() { return concurrenciaInicial; }
+        public void setConcurrenciaInicial(int concurrenciaInicial) { this.concurrenciaInicial = concurrenciaInicial; }
+
+        public int getConcurrenciaMinima() { return concurrenciaMinima; }
+        public void setConcurrenciaMinima(int concurrenciaMinima) { this.concurrenciaMinima = concurrenciaMinima; }
+
+        public int getConcurrenciaMaxima() { return concurrenciaMaxima; }
+        public void setConcurrenciaMaxima(int concurrenciaMaxima) { this.concurrenciaMaxima = concurrenciaMaxima; }
+    }
+}
@@ -1,12 +1,18 @@
 package com.optativa.thymeleaf.repositorio;
 
 import com.optativa.thymeleaf.entidad.Libro;
+import com.optativa.thymeleaf.repositorio.proyeccion.LibroDetalle;
+import com.optativa.thymeleaf.repositorio.proyeccion.LibroResumen;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -21,7 +27,9 @@ public interface LibroRepositorio extends JpaRepository<Libro, Integer> {
      * Consulta derivada (Query Method) para filtrar el catálogo.
      * * @return Una lista de libros cuyo campo 'disponible' sea true.
      * Útil para mostrar solo ejemplares que pueden ser prestados en la vista pública.
+     * Incluye el autor (el formulario de préstamo manual lo muestra junto al título).
      */
+    @EntityGraph(attributePaths = "autor")
     List<Libro> findByDisponibleTrue();
     
     /*
@@ -32,8 +40,26 @@ public interface LibroRepositorio extends JpaRepository<Libro, Integer> {
     // Para listar solo disponibles con paginación
     Page<Libro> findByDisponibleTrue(Pageable pageable);
 
-    // Si quieres buscar por título con paginación
+    // Libros disponibles (métricas)
+    long countByDisponibleTrue();
+
+    // Si quieres buscar por título con paginación (con el autor, como el listado)
+    @EntityGraph(attributePaths = "autor")
     Page<Libro> findByTituloContainingIgnoreCase(String titulo, Pageable pageable);
+
+    /**
+     * Página del catálogo con el autor de cada libro en la misma consulta.
+     * (open-in-view está desactivado: la plantilla no puede cargarlo después)
+     */
+    @Override
+    @EntityGraph(attributePaths = "autor")
+    Page<Libro> findAll(Pageable pageable);
+
+    /**
+     * Un libro con su autor → detalle, edición y formulario de préstamo.
+     */
+    @EntityGraph(attributePaths = "autor")
+    Optional<Libro> findConAutorById(Integer id);
     
     /**
      * Comprueba si existe algún libro registrado con el ISBN proporcionado.
@@ -48,4 +74,37 @@ public interface LibroRepositorio extends JpaRepository<Libro, Integer> {
      * @return Optional con el libro encontrado.
      */
     Optional<Libro> findByIsbn(String isbn);
-}
\ No newline at end of file
+
+    // ────────────────────────────────────────────────────────────────
+    // API JSON: proyecciones y paginación por clave (keyset)
+    // Orden (titulo, id): el índice idx_libro_titulo lleva la clave primaria
+    // detrás del título → cada página es un recorrido del índice desde el
+    // último libro devuelto, tan barato en la página 1000 como en la primera
+    // (con OFFSET habría que saltarse todas las filas anteriores).
+    // ────────────────────────────────────────────────────────────────
+
+    String SELECT_RESUMEN = "select l.id as id, l.isbn as isbn, l.titulo as titulo,"
+            + " l.añoPublicacion as anioPublicacion, l.disponible as disponible,"
+            + " a.nombre as autorNombre, a.apellido as autorApellido";
+
+    /**
+     * Primera página del catálogo por título.
+     */
+    @Query(SELECT_RESUMEN + " from Libro l left join l.autor a order by l.titulo, l.id")
+    List<LibroResumen> findResumenes(Limit limite);
+
+    /**
+     * Página siguiente al libro (titulo, id). El "titulo >= :titulo" redundante es el
+     * rango que usa el índice; el OR solo descarta los del mismo título ya devueltos.
+     */
+    @Query(SELECT_RESUMEN + " from Libro l left join l.autor a"
+            + " where l.titulo >= :titulo and (l.titulo > :titulo or l.id > :id)"
+            + " order by l.titulo, l.id")
+    List<LibroResumen> findResumenesDespuesDe(@Param("titulo") String titulo, @Param("id") Integer id, Limit limite);
+
+    /**
+     * Detalle de un libro con sinopsis y autor en una sola consulta.
+     */
+    @Query(SELECT_RESUMEN + ", l.sinopsis as sinopsis from Libro l left join l.autor a where l.id = :id")
+    Optional<LibroDetalle> findDetalleById(@Param("id") Integer id);
+}
@@ -2,11 +2,17 @@ package com.optativa.thymeleaf.repositorio;
 
 import com.optativa.thymeleaf.entidad.Prestamo;
 import com.optativa.thymeleaf.entidad.Usuario;
+import com.optativa.thymeleaf.repositorio.proyeccion.PrestamoResumen;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio para la gestión de **Préstamos**.
@@ -39,10 +45,67 @@ public interface PrestamoRepositorio extends JpaRepository<Prestamo, Integer> {
      */
     List<Prestamo> findByFechaDevolucionPrevistaBeforeAndEstado(LocalDate fecha, Prestamo.EstadoPrestamo estado);
 
+    /**
+     * Conteos para las métricas (préstamos activos y vencidos).
+     * Se resuelven sobre el índice (estado, fecha_devolucion_prevista) sin leer las filas.
+     */
+    long countByEstado(Prestamo.EstadoPrestamo estado);
+
+    long countByFechaDevolucionPrevistaBeforeAndEstado(LocalDate fecha, Prestamo.EstadoPrestamo estado);
+
     /**
      * Busca todos los préstamos vinculados a un objeto Usuario completo.
      * Útil cuando ya se tiene la entidad Usuario cargada en la sesión o contexto.
+     *
+     * Trae el libro en la misma consulta (vista "Mis préstamos").
      */
+    @EntityGraph(attributePaths = "libro")
     List<Prestamo> findByUsuario(Usuario usuario);
 
-}
\ No newline at end of file
+    // ────────────────────────────────────────────────────────────────
+    // Planes de carga para las vistas (open-in-view desactivado)
+    // Las plantillas se renderizan fuera de la transacción → todo lo que
+    // navegan tiene que venir ya cargado desde aquí.
+    // ────────────────────────────────────────────────────────────────
+
+    /**
+     * Listado de administración: libro y usuario de cada préstamo con un único JOIN.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"libro", "usuario"})
+    List<Prestamo> findAll();
+
+    /**
+     * Detalle, edición y devolución: libro (con su autor) y usuario.
+     */
+    @EntityGraph(attributePaths = {"libro.autor", "usuario"})
+    Optional<Prestamo> findConDetalleById(Integer id);
+
+    // ────────────────────────────────────────────────────────────────
+    // API JSON: proyecciones y paginación por clave (keyset)
+    // Préstamos de un usuario del más reciente al más antiguo (id descendente),
+    // por el índice de la FK usuario_id → sin OFFSET ni entidades.
+    // ────────────────────────────────────────────────────────────────
+
+    String SELECT_RESUMEN = "select p.id as id, p.usuario.id as usuarioId, l.id as libroId,"
+            + " l.titulo as libroTitulo, p.fechaPrestamo as fechaPrestamo,"
+            + " p.fechaDevolucionPrevista as fechaDevolucionPrevista,"
+            + " p.fechaDevolucionReal as fechaDevolucionReal, p.estado as estado"
+            + " from Prestamo p join p.libro l";
+
+    @Query(SELECT_RESUMEN + " where p.usuario.id = :usuarioId order by p.id desc")
+    List<PrestamoResumen> findResumenesByUsuarioId(@Param("usuarioId") Integer usuarioId, Limit limite);
+
+    /**
+     * Página siguiente al préstamo "id" (los anteriores a él)
+     */
+    @Query(SELECT_RESUMEN + " where p.usuario.id = :usuarioId and p.id < :id order by p.id desc")
+    List<PrestamoResumen> findResumenesByUsuarioIdAntesDe(@Param("usuarioId") Integer usuarioId,
+                                                          @Param("id") Integer id, Limit limite);
+
+    /**
+     * Un préstamo con el título del libro y el id del usuario (devolución por la API)
+     */
+    @Query(SELECT_RESUMEN + " where p.id = :id")
+    Optional<PrestamoResumen> findResumenById(@Param("id") Integer id);
+}
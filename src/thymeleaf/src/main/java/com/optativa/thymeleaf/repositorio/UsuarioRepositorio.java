@@ -2,6 +2,9 @@ package com.optativa.thymeleaf.repositorio;
 
 import com.optativa.thymeleaf.entidad.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -23,4 +26,13 @@ public interface UsuarioRepositorio extends JpaRepository<Usuario, Integer> {
      */
     Optional<Usuario> findByEmail(String email);
 
+    /**
+     * Sustituye el hash de la contraseña (rehash al iniciar sesión) con un único UPDATE,
+     * sin cargar el usuario.
+     * @return Filas modificadas (0 si el email no existe).
+     */
+    @Modifying
+    @Query("update Usuario u set u.password = :password where u.email = :email")
+    int actualizarPassword(@Param("email") String email, @Param("password") String password);
+
 }
\ No newline at end of file
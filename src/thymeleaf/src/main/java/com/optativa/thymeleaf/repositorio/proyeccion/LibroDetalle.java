@@ -0,0 +1,9 @@
+package com.optativa.thymeleaf.repositorio.proyeccion;
+
+/**
+ * Proyección de un libro para el detalle de la API: el resumen más la sinopsis.
+ */
+public interface LibroDetalle extends LibroResumen {
+
+    String getSinopsis();
+}
@@ -0,0 +1,24 @@
+package com.optativa.thymeleaf.repositorio.proyeccion;
+
+/**
+ * Proyección de un libro para el listado de la API: solo las columnas que se devuelven
+ * (sin la sinopsis, que es un LOB) y el nombre del autor en la misma consulta.
+ * Spring Data la rellena por alias ("... as titulo" → getTitulo()), sin crear entidades
+ * ni meterlas en el contexto de persistencia.
+ */
+public interface LibroResumen {
+
+    Integer getId();
+
+    String getIsbn();
+
+    String getTitulo();
+
+    Integer getAnioPublicacion();
+
+    Boolean getDisponible();
+
+    String getAutorNombre();
+
+    String getAutorApellido();
+}
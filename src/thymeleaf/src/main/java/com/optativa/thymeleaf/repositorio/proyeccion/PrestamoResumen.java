@@ -0,0 +1,28 @@
+package com.optativa.thymeleaf.repositorio.proyeccion;
+
+import com.optativa.thymeleaf.entidad.Prestamo;
+
+import java.time.LocalDate;
+
+/**
+ * Proyección de un préstamo para la API: columnas del préstamo, id y título del libro
+ * y el id del usuario (para comprobar a quién pertenece sin cargarlo).
+ */
+public interface PrestamoResumen {
+
+    Integer getId();
+
+    Integer getUsuarioId();
+
+    Integer getLibroId();
+
+    String getLibroTitulo();
+
+    LocalDate getFechaPrestamo();
+
+    LocalDate getFechaDevolucionPrevista();
+
+    LocalDate getFechaDevolucionReal();
+
+    Prestamo.EstadoPrestamo getEstado();
+}
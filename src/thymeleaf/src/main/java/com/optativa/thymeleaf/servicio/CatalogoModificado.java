@@ -0,0 +1,38 @@
+package com.optativa.thymeleaf.servicio;
+
+/**
+ * Evento de aplicación: algo de lo que se muestra en el catálogo ha cambiado
+ * (alta, edición o baja de un libro, cambio de disponibilidad por un préstamo,
+ * datos de un autor).
+ *
+ * Lo publican los servicios; lo escuchan las cachés de la capa web para dejar de
+ * servir contenido antiguo. Si la operación es transaccional, los oyentes
+ * (@TransactionalEventListener) lo reciben después del commit.
+ */
+public class CatalogoModificado {
+
+    private final Integer libroId;
+
+    /**
+     * @param libroId libro afectado, o null si pueden ser varios (p. ej. un autor)
+     */
+    public CatalogoModificado(Integer libroId) {
+        this.libroId = libroId;
+    }
+
+    /**
+     * Cambio que puede afectar a cualquier libro del catálogo
+     */
+    public static CatalogoModificado general() {
+        return new CatalogoModificado(null);
+    }
+
+    public Integer getLibroId() {
+        return libroId;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogoModificado[libroId=" + libroId + "]";
+    }
+}
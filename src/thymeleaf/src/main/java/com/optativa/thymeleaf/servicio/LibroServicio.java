@@ -1,6 +1,8 @@
 package com.optativa.thymeleaf.servicio;
 
 import com.optativa.thymeleaf.entidad.Libro;
+import com.optativa.thymeleaf.repositorio.proyeccion.LibroDetalle;
+import com.optativa.thymeleaf.repositorio.proyeccion.LibroResumen;
 import java.util.List;
 import java.util.Optional;
 
@@ -49,6 +51,12 @@ public interface LibroServicio {
      */
     boolean existeLibroPorId(Integer id);
 
+    /**
+     * Cuenta los libros del catálogo sin cargarlos en memoria.
+     * @return Número total de libros registrados.
+     */
+    long contarLibros();
+
     /**
      * Recupera únicamente los libros que están marcados como disponibles.
      * * Es fundamental para la vista del usuario final (lector), 
@@ -78,4 +86,21 @@ public interface LibroServicio {
      * @return El libro encontrado encapsulado en un Optional.
      */
     Optional<Libro> obtenerLibroPorIsbn(String isbn);
+
+    // ────────────────────────────────────────────────────────────────
+    // API JSON (proyecciones, sin entidades)
+    // ────────────────────────────────────────────────────────────────
+
+    /**
+     * Página del catálogo por título (paginación por clave).
+     * @param despuesDeTitulo Título del último libro de la página anterior (null → primera página).
+     * @param despuesDeId Id de ese mismo libro (desempata títulos repetidos).
+     * @param limite Número máximo de libros.
+     */
+    List<LibroResumen> listarResumenes(String despuesDeTitulo, Integer despuesDeId, int limite);
+
+    /**
+     * Un libro con su sinopsis y el nombre del autor.
+     */
+    Optional<LibroDetalle> obtenerDetalle(Integer id);
 }
\ No newline at end of file
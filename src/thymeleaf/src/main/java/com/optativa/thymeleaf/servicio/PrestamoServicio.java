@@ -2,6 +2,7 @@ package com.optativa.thymeleaf.servicio;
 
 import com.optativa.thymeleaf.entidad.Prestamo;
 import com.optativa.thymeleaf.entidad.Usuario;
+import com.optativa.thymeleaf.repositorio.proyeccion.PrestamoResumen;
 
 import java.util.List;
 import java.util.Optional;
@@ -81,4 +82,19 @@ public interface PrestamoServicio {
     // ────────────────────────────────────────────────────────────────
     
     Prestamo guardarPrestamo(Prestamo prestamo);
+
+    // ────────────────────────────────────────────────────────────────
+    // API JSON (proyecciones, sin entidades)
+    // ────────────────────────────────────────────────────────────────
+
+    /**
+     * Préstamos de un usuario, del más reciente al más antiguo (paginación por clave).
+     * @param antesDeId Id del último préstamo de la página anterior (null → primera página).
+     */
+    List<PrestamoResumen> listarResumenesPorUsuario(Integer usuarioId, Integer antesDeId, int limite);
+
+    /**
+     * Un préstamo con el título del libro y el id de su usuario.
+     */
+    Optional<PrestamoResumen> obtenerResumenPrestamo(Integer id);
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.optativa.thymeleaf.servicio;
+
+/**
+ * Evento de aplicación: los datos de una cuenta (email, contraseña o rol) han cambiado.
+ *
+ * Lo publican UsuarioServicio.guardarUsuario y el rehash de contraseñas al iniciar sesión;
+ * lo escucha CacheUsuarios para no autenticar con datos antiguos. Si la operación es
+ * transaccional, los oyentes (@TransactionalEventListener) lo reciben después del commit.
+ */
+public class UsuarioModificado {
+
+    private final String email;
+
+    /**
+     * @param email email de la cuenta, o null si puede ser cualquiera (p. ej. si ha cambiado el email)
+     */
+    public UsuarioModificado(String email) {
+        this.email = email;
+    }
+
+    /**
+     * Cambio que puede afectar a cualquier cuenta
+     */
+    public static UsuarioModificado general() {
+        return new UsuarioModificado(null);
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return "UsuarioModificado[email=" + email + "]";
+    }
+}
@@ -3,9 +3,12 @@ package com.optativa.thymeleaf.servicio.impl;
 import com.optativa.thymeleaf.entidad.Autor;
 import com.optativa.thymeleaf.repositorio.AutorRepositorio;
 import com.optativa.thymeleaf.servicio.AutorServicio;
+import com.optativa.thymeleaf.servicio.CatalogoModificado;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -28,19 +31,26 @@ public class AutorServicioImpl implements AutorServicio {
      */
     private final AutorRepositorio autorRepositorio;
 
+    /**
+     * El nombre del autor sale en el catálogo: sus cambios se anuncian (CatalogoModificado)
+     */
+    private final ApplicationEventPublisher eventos;
+
     /**
      * Inyección de dependencias por constructor.
      * Es la forma recomendada por Spring, ya que facilita las pruebas unitarias
      * y asegura que el servicio no se cree sin sus dependencias.
      */
-    public AutorServicioImpl(AutorRepositorio autorRepositorio) {
+    public AutorServicioImpl(AutorRepositorio autorRepositorio, ApplicationEventPublisher eventos) {
         this.autorRepositorio = autorRepositorio;
+        this.eventos = eventos;
     }
 
     /**
      * Recupera todos los autores delegando la tarea al repositorio.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Autor> obtenerTodosLosAutores() {
         return autorRepositorio.findAll();
     }
@@ -50,6 +60,7 @@ public class AutorServicioImpl implements AutorServicio {
      * Retorna un Optional que el controlador deberá gestionar (ifPresent o orElse).
      */
     @Override
+    @Transactional(readOnly = true)
     public Optional<Autor> obtenerAutorPorId(Integer id) {
         return autorRepositorio.findById(id);
     }
@@ -61,7 +72,9 @@ public class AutorServicioImpl implements AutorServicio {
      */
     @Override
     public Autor guardarAutor(Autor autor) {
-        return autorRepositorio.save(autor);
+        Autor guardado = autorRepositorio.save(autor);
+        eventos.publishEvent(CatalogoModificado.general());
+        return guardado;
     }
 
     /**
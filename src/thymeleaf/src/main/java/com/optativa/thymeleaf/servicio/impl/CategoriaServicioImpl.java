@@ -6,6 +6,7 @@ import com.optativa.thymeleaf.servicio.CategoriaServicio;
 
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -32,6 +33,7 @@ public class CategoriaServicioImpl implements CategoriaServicio {
      * Recupera el listado completo de categorías de la base de datos.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Categoria> obtenerTodasLasCategorias() {
         return categoriaRepositorio.findAll();
     }
@@ -41,6 +43,7 @@ public class CategoriaServicioImpl implements CategoriaServicio {
      * la ausencia de datos de forma limpia en el controlador.
      */
     @Override
+    @Transactional(readOnly = true)
     public Optional<Categoria> obtenerCategoriaPorId(Integer id) {
         return categoriaRepositorio.findById(id);
     }
@@ -73,6 +76,7 @@ public class CategoriaServicioImpl implements CategoriaServicio {
      * se recomienda sustituir por un método findByNombreIgnoreCase en el Repositorio.
      */
     @Override
+    @Transactional(readOnly = true)
     public Optional<Categoria> obtenerPorNombre(String nombre) {
         return categoriaRepositorio.findAll().stream()
                 .filter(c -> c.getNombre().equalsIgnoreCase(nombre))
@@ -2,12 +2,20 @@ package com.optativa.thymeleaf.servicio.impl;
 
 import com.optativa.thymeleaf.entidad.Libro;
 import com.optativa.thymeleaf.repositorio.LibroRepositorio;
+import com.optativa.thymeleaf.repositorio.proyeccion.LibroDetalle;
+import com.optativa.thymeleaf.repositorio.proyeccion.LibroResumen;
+import com.optativa.thymeleaf.servicio.CatalogoModificado;
 import com.optativa.thymeleaf.servicio.LibroServicio;
 
+import io.micrometer.core.annotation.Timed;
+
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,6 +25,7 @@ import java.util.Optional;
  * * Esta clase actúa como el motor principal del catálogo, coordinando 
  * el almacenamiento, la disponibilidad y la validación de los ejemplares.
  */
+@Timed("biblioteca.servicio")                // Un timer por método (etiquetas class/method/exception)
 @Primary
 @Service
 public class LibroServicioImpl implements LibroServicio {
@@ -27,14 +36,21 @@ public class LibroServicioImpl implements LibroServicio {
      */
     private final LibroRepositorio libroRepositorio;
 
-    public LibroServicioImpl(LibroRepositorio libroRepositorio) {
+    /**
+     * Avisa de cada escritura (CatalogoModificado) a las cachés de la capa web
+     */
+    private final ApplicationEventPublisher eventos;
+
+    public LibroServicioImpl(LibroRepositorio libroRepositorio, ApplicationEventPublisher eventos) {
         this.libroRepositorio = libroRepositorio;
+        this.eventos = eventos;
     }
 
     /**
      * Recupera el catálogo completo de libros.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Libro> obtenerTodosLosLibros() {
         return libroRepositorio.findAll();
     }
@@ -44,8 +60,9 @@ public class LibroServicioImpl implements LibroServicio {
      * @return Un Optional que evita errores si el ID no existe en la BD.
      */
     @Override
+    @Transactional(readOnly = true)
     public Optional<Libro> obtenerLibroPorId(Integer id) {
-        return libroRepositorio.findById(id);
+        return libroRepositorio.findConAutorById(id);
     }
 
     /**
@@ -56,7 +73,9 @@ public class LibroServicioImpl implements LibroServicio {
      */
     @Override
     public Libro guardarLibro(Libro libro) {
-        return libroRepositorio.save(libro);
+        Libro guardado = libroRepositorio.save(libro);
+        eventos.publishEvent(new CatalogoModificado(guardado.getId()));
+        return guardado;
     }
 
     /**
@@ -69,22 +88,34 @@ public class LibroServicioImpl implements LibroServicio {
             throw new IllegalArgumentException("El libro con ID " + id + " no existe");
         }
         libroRepositorio.deleteById(id);
+        eventos.publishEvent(new CatalogoModificado(id));
     }
 
     /**
      * Método de utilidad para comprobaciones rápidas de existencia.
      */
     @Override
+    @Transactional(readOnly = true)
     public boolean existeLibroPorId(Integer id) {
         return libroRepositorio.existsById(id);
     }
     
+    /**
+     * Delega en count() → un único SELECT COUNT(*), sin cargar entidades.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long contarLibros() {
+        return libroRepositorio.count();
+    }
+
     /**
      * Filtra el catálogo para devolver solo libros listos para préstamo.
      * * @return Lista de libros donde disponible = true.
      * Delega la consulta al método personalizado definido en el repositorio.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Libro> obtenerLibrosDisponibles() {
         return libroRepositorio.findByDisponibleTrue();
     }
@@ -95,6 +126,8 @@ public class LibroServicioImpl implements LibroServicio {
      * @return Un objeto Page con los libros correspondientes a la solicitud.
      */
     @Override
+    @Transactional(readOnly = true)
+    @Timed(value = "biblioteca.libros.listar", histogram = true)
     public Page<Libro> obtenerTodosLosLibros(Pageable pageable) {
         return libroRepositorio.findAll(pageable);
     }
@@ -107,6 +140,8 @@ public class LibroServicioImpl implements LibroServicio {
      * @return Una página de libros que coinciden con el criterio de búsqueda.
      */
     @Override
+    @Transactional(readOnly = true)
+    @Timed(value = "biblioteca.libros.listar", histogram = true)
     public Page<Libro> buscarPorTitulo(String titulo, Pageable pageable) {
         return libroRepositorio.findByTituloContainingIgnoreCase(titulo, pageable);
     }
@@ -117,7 +152,24 @@ public class LibroServicioImpl implements LibroServicio {
      * @return Un Optional que contiene el libro si se encuentra, o vacío si no existe.
      */
     @Override
+    @Transactional(readOnly = true)
     public Optional<Libro> obtenerLibroPorIsbn(String isbn) {
         return libroRepositorio.findByIsbn(isbn); 
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = "biblioteca.libros.listar", histogram = true)
+    public List<LibroResumen> listarResumenes(String despuesDeTitulo, Integer despuesDeId, int limite) {
+        if (despuesDeTitulo == null) {
+            return libroRepositorio.findResumenes(Limit.of(limite));
+        }
+        return libroRepositorio.findResumenesDespuesDe(despuesDeTitulo, despuesDeId, Limit.of(limite));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<LibroDetalle> obtenerDetalle(Integer id) {
+        return libroRepositorio.findDetalleById(id);
+    }
 }
\ No newline at end of file
@@ -6,9 +6,15 @@ import com.optativa.thymeleaf.entidad.Usuario;
 import com.optativa.thymeleaf.repositorio.LibroRepositorio;
 import com.optativa.thymeleaf.repositorio.PrestamoRepositorio;
 import com.optativa.thymeleaf.repositorio.UsuarioRepositorio;
+import com.optativa.thymeleaf.repositorio.proyeccion.PrestamoResumen;
+import com.optativa.thymeleaf.servicio.CatalogoModificado;
 import com.optativa.thymeleaf.servicio.PrestamoServicio;
 
+import io.micrometer.core.annotation.Timed;
+
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +27,7 @@ import java.util.Optional;
  * * Esta clase coordina tres repositorios diferentes para asegurar que el flujo
  * de préstamo y devolución sea consistente y seguro.
  */
+@Timed("biblioteca.servicio")                // Un timer por método (etiquetas class/method/exception)
 @Primary
 @Service
 public class PrestamoServicioImpl implements PrestamoServicio {
@@ -29,6 +36,12 @@ public class PrestamoServicioImpl implements PrestamoServicio {
     private final LibroRepositorio libroRepositorio;
     private final UsuarioRepositorio usuarioRepositorio;
 
+    /**
+     * Cada cambio de disponibilidad de un libro se anuncia (CatalogoModificado):
+     * las cachés del catálogo lo reciben tras el commit
+     */
+    private final ApplicationEventPublisher eventos;
+
     /**
      * Política de la biblioteca: Los libros se prestan por un máximo de 14 días.
      */
@@ -37,10 +50,12 @@ public class PrestamoServicioImpl implements PrestamoServicio {
     public PrestamoServicioImpl(
             PrestamoRepositorio prestamoRepositorio,
             LibroRepositorio libroRepositorio,
-            UsuarioRepositorio usuarioRepositorio) {
+            UsuarioRepositorio usuarioRepositorio,
+            ApplicationEventPublisher eventos) {
         this.prestamoRepositorio = prestamoRepositorio;
         this.libroRepositorio = libroRepositorio;
         this.usuarioRepositorio = usuarioRepositorio;
+        this.eventos = eventos;
     }
 
     /**
@@ -50,6 +65,7 @@ public class PrestamoServicioImpl implements PrestamoServicio {
      */
     @Override
     @Transactional
+    @Timed(value = "biblioteca.prestamos.solicitar", histogram = true)
     public Prestamo solicitarPrestamo(Integer libroId, Integer usuarioId) {
         // 1. Validar existencia del libro
         Libro libro = libroRepositorio.findById(libroId)
@@ -75,6 +91,7 @@ public class PrestamoServicioImpl implements PrestamoServicio {
         // 5. Actualizar estado del libro (Efecto colateral necesario)
         libro.setDisponible(false);
         libroRepositorio.save(libro);
+        eventos.publishEvent(new CatalogoModificado(libro.getId()));
 
         return prestamoRepositorio.save(prestamo);
     }
@@ -101,21 +118,25 @@ public class PrestamoServicioImpl implements PrestamoServicio {
         Libro libro = prestamo.getLibro();
         libro.setDisponible(true);
         libroRepositorio.save(libro);
+        eventos.publishEvent(new CatalogoModificado(libro.getId()));
 
         return prestamoRepositorio.save(prestamo);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Prestamo> obtenerTodosLosPrestamos() {
         return prestamoRepositorio.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Prestamo> obtenerPrestamoPorId(Integer id) {
-        return prestamoRepositorio.findById(id);
+        return prestamoRepositorio.findConDetalleById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Prestamo> obtenerPrestamosPorUsuario(Usuario usuario) {
         return prestamoRepositorio.findByUsuario(usuario);
     }
@@ -146,6 +167,7 @@ public class PrestamoServicioImpl implements PrestamoServicio {
 
         libro.setDisponible(false);
         libroRepositorio.save(libro);
+        eventos.publishEvent(new CatalogoModificado(libro.getId()));
 
         return prestamoRepositorio.save(prestamo);
     }
@@ -182,6 +204,7 @@ public class PrestamoServicioImpl implements PrestamoServicio {
         Libro libro = prestamo.getLibro();
         libro.setDisponible(true);
         libroRepositorio.save(libro);
+        eventos.publishEvent(new CatalogoModificado(libro.getId()));
 
         prestamo.setEstado(Prestamo.EstadoPrestamo.CANCELADO);
         prestamoRepositorio.save(prestamo);
@@ -200,4 +223,23 @@ public class PrestamoServicioImpl implements PrestamoServicio {
     public Prestamo guardarPrestamo(Prestamo prestamo) {
         return prestamoRepositorio.save(prestamo);
     }
+
+    // ────────────────────────────────────────────────────────────────
+    // API JSON
+    // ────────────────────────────────────────────────────────────────
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PrestamoResumen> listarResumenesPorUsuario(Integer usuarioId, Integer antesDeId, int limite) {
+        if (antesDeId == null) {
+            return prestamoRepositorio.findResumenesByUsuarioId(usuarioId, Limit.of(limite));
+        }
+        return prestamoRepositorio.findResumenesByUsuarioIdAntesDe(usuarioId, antesDeId, Limit.of(limite));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<PrestamoResumen> obtenerResumenPrestamo(Integer id) {
+        return prestamoRepositorio.findResumenById(id);
+    }
 }
\ No newline at end of file
@@ -2,10 +2,15 @@ package com.optativa.thymeleaf.servicio.impl;
 
 import com.optativa.thymeleaf.entidad.Usuario;
 import com.optativa.thymeleaf.repositorio.UsuarioRepositorio;
+import com.optativa.thymeleaf.servicio.UsuarioModificado;
 import com.optativa.thymeleaf.servicio.UsuarioServicio;
 
+import io.micrometer.core.annotation.Timed;
+
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,6 +21,7 @@ import java.util.Optional;
  * - Manejar el registro y la consulta de perfiles de usuario.
  * - Servir de base para la lógica de autenticación del sistema.
  */
+@Timed("biblioteca.servicio")                // Un timer por método (etiquetas class/method/exception)
 @Primary
 @Service
 public class UsuarioServicioImpl implements UsuarioServicio {
@@ -26,8 +32,14 @@ public class UsuarioServicioImpl implements UsuarioServicio {
      */
     private final UsuarioRepositorio usuarioRepositorio;
 
-    public UsuarioServicioImpl(UsuarioRepositorio usuarioRepositorio) {
+    /**
+     * Las cuentas se cachean para el login (CacheUsuarios): sus cambios se anuncian (UsuarioModificado)
+     */
+    private final ApplicationEventPublisher eventos;
+
+    public UsuarioServicioImpl(UsuarioRepositorio usuarioRepositorio, ApplicationEventPublisher eventos) {
         this.usuarioRepositorio = usuarioRepositorio;
+        this.eventos = eventos;
     }
 
     /**
@@ -35,6 +47,7 @@ public class UsuarioServicioImpl implements UsuarioServicio {
      * Esencial para verificar credenciales durante el login.
      */
     @Override
+    @Transactional(readOnly = true)
     public Optional<Usuario> findByEmail(String email) {
         return usuarioRepositorio.findByEmail(email);
     }
@@ -47,13 +60,20 @@ public class UsuarioServicioImpl implements UsuarioServicio {
      */
     @Override
     public Usuario guardarUsuario(Usuario usuario) {
-        return usuarioRepositorio.save(usuario);
+        // Una cuenta existente puede haber cambiado de email: se invalidan todas
+        UsuarioModificado evento = usuario.getId() == null
+                ? new UsuarioModificado(usuario.getEmail())
+                : UsuarioModificado.general();
+        Usuario guardado = usuarioRepositorio.save(usuario);
+        eventos.publishEvent(evento);
+        return guardado;
     }
 
     /**
      * Recupera el listado global de usuarios registrados.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Usuario> obtenerTodosLosUsuarios() {
         return usuarioRepositorio.findAll();
     }
@@ -62,6 +82,7 @@ public class UsuarioServicioImpl implements UsuarioServicio {
      * Busca un usuario específico por su identificador primario.
      */
     @Override
+    @Transactional(readOnly = true)
     public Optional<Usuario> obtenerPorId(Integer id) {
         return usuarioRepositorio.findById(id);
     }
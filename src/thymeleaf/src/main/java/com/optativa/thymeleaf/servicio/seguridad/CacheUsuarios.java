@@ -0,0 +1,144 @@
+package com.optativa.thymeleaf.servicio.seguridad;
+
+import com.optativa.thymeleaf.servicio.UsuarioModificado;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché de los UserDetails que construye UserDetailsServiceImpl, por email: un login
+ * (o cualquier autenticación que vuelva a cargar al usuario) no consulta la BD si la
+ * cuenta ya está en caché.
+ *
+ * Se guarda y se entrega siempre una copia: Spring Security borra la contraseña del
+ * UserDetails autenticado (eraseCredentials) y no debe borrarla de la caché.
+ *
+ * Invalidación: UsuarioModificado (guardarUsuario, rehash de contraseña) tras el commit.
+ * Como en CacheFragmentos, un contador de generación evita guardar una cuenta leída
+ * antes del cambio. Los "no existe" no se cachean.
+ *
+ * Acotada a biblioteca.cache-usuarios.maximo entradas (LRU). Métricas:
+ * biblioteca.cache.usuarios{resultado=acierto|fallo}, .entradas y .tasa-aciertos.
+ */
+@Component
+public class CacheUsuarios {
+
+    private final boolean habilitada;
+    private final Map<String, UserDetails> entradas;
+    private long generacion;
+    private final Counter aciertos;
+    private final Counter fallos;
+
+    public CacheUsuarios(
+            @Value("${biblioteca.cache-usuarios.habilitada:true}") boolean habilitada,
+            @Value("${biblioteca.cache-usuarios.maximo:10000}") int maximo,
+            MeterRegistry registro) {
+        this.habilitada = habilitada;
+        // LinkedHashMap en orden de acceso → la cuenta menos usada sale primero
+        this.entradas = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UserDetails> mayor) {
+                return size() > maximo;
+            }
+        };
+        this.aciertos = Counter.builder("biblioteca.cache.usuarios")
+                .description("Búsquedas en la caché de cuentas para la autenticación")
+                .tag("resultado", "acierto")
+                .register(registro);
+        this.fallos = Counter.builder("biblioteca.cache.usuarios")
+                .description("Búsquedas en la caché de cuentas para la autenticación")
+                .tag("resultado", "fallo")
+                .register(registro);
+        Gauge.builder("biblioteca.cache.usuarios.entradas", this, CacheUsuarios::tamano)
+                .description("Cuentas guardadas en caché")
+                .register(registro);
+        Gauge.builder("biblioteca.cache.usuarios.tasa-aciertos", this, CacheUsuarios::tasaAciertos)
+                .description("Aciertos / búsquedas desde el arranque")
+                .register(registro);
+    }
+
+    /**
+     * Copia de la cuenta guardada para este email, o null si hay que leerla de la BD
+     * (con la caché desactivada, siempre null)
+     */
+    public UserDetails obtener(String email) {
+        if (!habilitada) {
+            return null;
+        }
+        UserDetails detalles;
+        synchronized (entradas) {
+            detalles = entradas.get(email);
+        }
+        if (detalles == null) {
+            fallos.increment();
+            return null;
+        }
+        aciertos.increment();
+        return copia(detalles);
+    }
+
+    /**
+     * Generación actual: hay que pedirla ANTES de leer la cuenta de la BD y pasarla a guardar()
+     */
+    public long generacion() {
+        synchronized (entradas) {
+            return generacion;
+        }
+    }
+
+    /**
+     * Guarda una copia de la cuenta recién leída, salvo que alguna cuenta haya cambiado
+     * desde que se pidió la generación (se habría leído un dato antiguo)
+     */
+    public void guardar(String email, UserDetails detalles, long generacionLectura) {
+        if (!habilitada) {
+            return;
+        }
+        UserDetails copia = copia(detalles);
+        synchronized (entradas) {
+            if (generacionLectura == generacion) {
+                entradas.put(email, copia);
+            }
+        }
+    }
+
+    /**
+     * Tras el commit de la operación que publicó el evento (o en el acto si no había transacción)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void usuarioModificado(UsuarioModificado evento) {
+        synchronized (entradas) {
+            generacion++;
+            if (evento.getEmail() == null) {
+                entradas.clear();
+            } else {
+                entradas.remove(evento.getEmail());
+            }
+        }
+    }
+
+    public int tamano() {
+        synchronized (entradas) {
+            return entradas.size();
+        }
+    }
+
+    public double tasaAciertos() {
+        double total = aciertos.count() + fallos.count();
+        return total == 0 ? 0 : aciertos.count() / total;
+    }
+
+    private static UserDetails copia(UserDetails detalles) {
+        return User.withUserDetails(detalles).build();
+    }
+}
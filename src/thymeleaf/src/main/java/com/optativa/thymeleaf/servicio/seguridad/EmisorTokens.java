@@ -0,0 +1,53 @@
+package com.optativa.thymeleaf.servicio.seguridad;
+
+import com.optativa.thymeleaf.entidad.enumerado.Rol;
+
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Emite los tokens de la API JSON: JWT firmado con HMAC-SHA256 (clave en
+ * biblioteca.api.tokens.secreto) que lleva todo lo que necesita una petición:
+ *
+ *   sub → id del usuario       rol → LECTOR / ADMIN       iss, iat, exp
+ *
+ * Con eso SecurityConfig (cadena /api/**) autentica cada petición comprobando firma y
+ * caducidad: sin sesión, sin cookie y sin consultar la BD. La contrapartida es que un
+ * token no se puede revocar: un cambio de rol se nota cuando caduca (duracion).
+ */
+@Service
+public class EmisorTokens {
+
+    /**
+     * Claim con el rol (SecurityConfig lo convierte en ROLE_<rol>)
+     */
+    public static final String CLAIM_ROL = "rol";
+
+    private final JwtEncoder jwtEncoder;
+    private final PropiedadesTokens propiedades;
+
+    public EmisorTokens(JwtEncoder jwtEncoder, PropiedadesTokens propiedades) {
+        this.jwtEncoder = jwtEncoder;
+        this.propiedades = propiedades;
+    }
+
+    public Jwt emitir(Integer usuarioId, Rol rol) {
+        Instant ahora = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(propiedades.getEmisor())
+                .subject(usuarioId.toString())
+                .claim(CLAIM_ROL, rol.name())
+                .issuedAt(ahora)
+                .expiresAt(ahora.plus(propiedades.getDuracion()))
+                .build();
+        JwsHeader cabecera = JwsHeader.with(MacAlgorithm.HS256).build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(cabecera, claims));
+    }
+}
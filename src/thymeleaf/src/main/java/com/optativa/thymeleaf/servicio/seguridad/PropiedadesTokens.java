@@ -0,0 +1,55 @@
+package com.optativa.thymeleaf.servicio.seguridad;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Tokens firmados de la API JSON (/api/**, ver SecurityConfig y EmisorTokens).
+ *
+ * Se leen de "biblioteca.api.tokens.*" (ver application.properties):
+ *   biblioteca.api.tokens.secreto=<Base64 de 32 bytes o más>
+ *   biblioteca.api.tokens.duracion=1h
+ *   biblioteca.api.tokens.secreto-obligatorio=true   (perfiles prod y sesiones-jdbc)
+ */
+@ConfigurationProperties(prefix = "biblioteca.api.tokens")
+public class PropiedadesTokens {
+
+    /**
+     * Clave HMAC-SHA256 en Base64 (mínimo 32 bytes). Todas las instancias deben tener la
+     * misma. Vacía → una aleatoria en cada arranque: los tokens no sobreviven a un reinicio
+     * ni valen en otra instancia (solo para desarrollo)
+     */
+    private String secreto = "";
+
+    /**
+     * true → sin secreto la aplicación no arranca, en lugar de usar una clave aleatoria
+     */
+    private boolean secretoObligatorio = false;
+
+    /**
+     * Validez de un token desde que se emite; no hay revocación, así que cuanto más corta
+     * menos dura un token robado o el rol de un usuario que ha cambiado
+     */
+    private Duration duracion = Duration.ofHours(1);
+
+    /**
+     * Claim "iss" de los tokens emitidos; solo se aceptan tokens con este emisor
+     */
+    private String emisor = "biblioteca";
+
+    // ────────────────────────────────────────────────────────────────
+    // Getters y Setters
+    // ────────────────────────────────────────────────────────────────
+    public String getSecreto() { return secreto; }
+    public void setSecreto(String secreto) { this.secreto = secreto; }
+
+    public boolean isSecretoObligatorio() { return secretoObligatorio; }
+    public void setSecretoObligatorio(boolean secretoObligatorio) { this.secretoObligatorio = secretoObligatorio; }
+
+    public Duration getDuracion() { return duracion; }
+    public void setDuracion(Duration duracion) { this.duracion = duracion; }
+
+    public String getEmisor() { return emisor; }
+    public void setEmisor(String emisor) { this.emisor = emisor; }
+}
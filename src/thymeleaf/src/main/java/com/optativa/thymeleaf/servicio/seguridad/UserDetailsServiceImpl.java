@@ -1,29 +1,46 @@
 package com.optativa.thymeleaf.servicio.seguridad;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.optativa.thymeleaf.entidad.Usuario;
 import com.optativa.thymeleaf.repositorio.UsuarioRepositorio;
+import com.optativa.thymeleaf.servicio.UsuarioModificado;
 
 /**
  * Servicio encargado de la autenticación de usuarios en Spring Security.
  * * Al implementar **UserDetailsService**, le decimos a Spring cómo debe 
  * buscar a los usuarios cuando intentan hacer login en la aplicación.
+ * * Al implementar también **UserDetailsPasswordService**, Spring Security puede
+ * guardar un hash nuevo cuando el almacenado usa un algoritmo o coste antiguo.
+ * * Las cuentas ya leídas se sirven desde **CacheUsuarios** (sin consultar la BD).
  */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UsuarioRepositorio usuarioRepositorio;
 
+    private final CacheUsuarios cacheUsuarios;
+
+    /**
+     * El rehash cambia la cuenta: se anuncia (UsuarioModificado) para invalidar la caché
+     */
+    private final ApplicationEventPublisher eventos;
+
     /**
      * Inyectamos el repositorio para consultar los datos reales de la BD.
      */
-    public UserDetailsServiceImpl(UsuarioRepositorio usuarioRepositorio) {
+    public UserDetailsServiceImpl(UsuarioRepositorio usuarioRepositorio, CacheUsuarios cacheUsuarios,
+                                  ApplicationEventPublisher eventos) {
         this.usuarioRepositorio = usuarioRepositorio;
+        this.cacheUsuarios = cacheUsuarios;
+        this.eventos = eventos;
     }
 
     /**
@@ -36,13 +53,20 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
+        // 0. Si ya está en caché no se toca la BD (sin transacción: ni conexión del pool)
+        UserDetails enCache = cacheUsuarios.obtener(username);
+        if (enCache != null) {
+            return enCache;
+        }
+        long generacion = cacheUsuarios.generacion();
+
         // 1. Buscamos el usuario en nuestra base de datos
         Usuario usuario = usuarioRepositorio.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + username));
 
         // 2. Construimos y retornamos el objeto User (de Spring Security)
         // Este objeto contiene la información necesaria para las comprobaciones posteriores
-        return User.withUsername(usuario.getEmail())
+        UserDetails detalles = User.withUsername(usuario.getEmail())
                 // La contraseña aquí ya debe estar encriptada (ej: BCrypt) en la BD
                 .password(usuario.getPassword()) 
                 
@@ -53,5 +77,25 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                  */
                 .roles(usuario.getRol().name()) 
                 .build();
+
+        // 3. Se guarda una copia: Spring Security borrará la contraseña de la que devolvemos
+        cacheUsuarios.guardar(username, detalles, generacion);
+        return detalles;
+    }
+
+    /**
+     * Rehash al iniciar sesión: Spring Security llama aquí tras comprobar la contraseña
+     * cuando el PasswordEncoder indica que el hash guardado está desactualizado
+     * (ver SecurityConfig.passwordEncoder). Actualiza **Usuario.password** en la BD.
+     * * @param user        El usuario recién autenticado.
+     * @param newPassword El nuevo hash (ya codificado, con su {prefijo}).
+     * @return El mismo usuario con el hash nuevo.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        usuarioRepositorio.actualizarPassword(user.getUsername(), newPassword);
+        eventos.publishEvent(new UsuarioModificado(user.getUsername()));
+        return User.withUserDetails(user).password(newPassword).build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+package com.optativa.thymeleaf.sesiones;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Borra las sesiones caducadas de lote en lote.
+ *
+ * La limpieza de Spring Session es un único DELETE de todas las caducadas: tras un pico
+ * (p. ej. una prueba de carga, miles de sesiones que caducan a la vez) es una transacción
+ * larga que bloquea la tabla mientras las demás instancias leen y guardan sesiones en
+ * cada petición. Aquí cada lote es una sentencia corta con su propio commit
+ * (sin transacción alrededor), recorriendo el índice de expiry_time.
+ *
+ * El borrado de los atributos va en cascada (FK de V3__sesiones.sql).
+ */
+class LimpiezaSesiones {
+
+    private static final Logger log = LoggerFactory.getLogger(LimpiezaSesiones.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String borrarLote;
+    private final int lote;
+    private final Counter borradas;
+
+    LimpiezaSesiones(JdbcTemplate jdbcTemplate, String tabla, int lote, MeterRegistry registro) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lote = lote;
+        // Subconsulta con FETCH FIRST: vale en H2, PostgreSQL y Oracle (no en MySQL)
+        this.borrarLote = "delete from " + tabla + " where primary_id in ("
+                + "select primary_id from " + tabla + " where expiry_time < ? "
+                + "order by expiry_time fetch first ? rows only)";
+        this.borradas = Counter.builder("biblioteca.sesiones.caducadas")
+                .description("Sesiones caducadas borradas de la base de datos")
+                .register(registro);
+    }
+
+    /**
+     * @return sesiones borradas
+     */
+    @Scheduled(cron = "${biblioteca.sesiones.limpieza.cron:0 * * * * *}")
+    public int limpiar() {
+        long ahora = System.currentTimeMillis();
+        int total = 0;
+        int borradasLote;
+        do {
+            borradasLote = jdbcTemplate.update(borrarLote, ahora, lote);
+            total += borradasLote;
+        } while (borradasLote == lote);
+
+        if (total > 0) {
+            borradas.increment(total);
+            log.debug("Borradas {} sesiones caducadas (lotes de {})", total, lote);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,146 @@
+package com.optativa.thymeleaf.sesiones;
+
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.FactorGrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Atributos de sesión ↔ bytes para la tabla SPRING_SESSION_ATTRIBUTES.
+ *
+ * El contexto de seguridad (SPRING_SECURITY_CONTEXT, se lee en cada petición autenticada)
+ * se guarda en un formato propio con lo único que usa la aplicación: email, roles y
+ * factores de autenticación (≈ 80 bytes frente a ≈ 1,4 KB con serialización Java, que
+ * repite nombres de clase y campos). Los detalles de la autenticación (IP y sesión del
+ * login, WebAuthenticationDetails) no se guardan: nadie los lee después del login.
+ *
+ * Todo lo demás (atributos flash de RedirectAttributes, petición guardada antes del
+ * login, error del último login…) sigue con serialización Java. El primer byte dice el formato.
+ */
+class SerializadorSesion {
+
+    private static final byte JAVA = 0;
+    private static final byte CONTEXTO = 1;
+
+    private static final byte AUTORIDAD = 0;
+    private static final byte FACTOR = 1;
+
+    private final SerializingConverter java = new SerializingConverter();
+    private final DeserializingConverter desdeJava;
+
+    SerializadorSesion(ClassLoader classLoader) {
+        this.desdeJava = new DeserializingConverter(classLoader);
+    }
+
+    byte[] serializar(Object valor) {
+        if (valor instanceof SecurityContext contexto && compacto(contexto.getAuthentication())) {
+            return contexto((UsernamePasswordAuthenticationToken) contexto.getAuthentication());
+        }
+        byte[] bytes = java.convert(valor);
+        byte[] conMarca = new byte[bytes.length + 1];
+        conMarca[0] = JAVA;
+        System.arraycopy(bytes, 0, conMarca, 1, bytes.length);
+        return conMarca;
+    }
+
+    Object deserializar(byte[] bytes) {
+        if (bytes[0] == CONTEXTO) {
+            return contexto(bytes);
+        }
+        return desdeJava.convert(Arrays.copyOfRange(bytes, 1, bytes.length));
+    }
+
+    // ────────────────────────────────────────────────
+    // Formato compacto del contexto de seguridad
+    // ────────────────────────────────────────────────
+
+    /**
+     * Solo lo que deja el login con formulario (UserDetailsServiceImpl → User): cualquier
+     * otra autenticación se guarda entera, con serialización Java
+     */
+    private static boolean compacto(Authentication autenticacion) {
+        if (autenticacion == null || autenticacion.getClass() != UsernamePasswordAuthenticationToken.class
+                || !autenticacion.isAuthenticated() || autenticacion.getCredentials() != null
+                || !(autenticacion.getPrincipal() instanceof User usuario) || usuario.getClass() != User.class
+                || usuario.getPassword() != null || !usuario.isEnabled() || !usuario.isAccountNonExpired()
+                || !usuario.isAccountNonLocked() || !usuario.isCredentialsNonExpired()) {
+            return false;
+        }
+        return usuario.getAuthorities().stream().allMatch(a -> a.getClass() == SimpleGrantedAuthority.class)
+                && autenticacion.getAuthorities().stream().allMatch(a ->
+                        a.getClass() == SimpleGrantedAuthority.class || a.getClass() == FactorGrantedAuthority.class);
+    }
+
+    private static byte[] contexto(UsernamePasswordAuthenticationToken autenticacion) {
+        User usuario = (User) autenticacion.getPrincipal();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream salida = new DataOutputStream(bytes)) {
+            salida.writeByte(CONTEXTO);
+            salida.writeUTF(usuario.getUsername());
+            salida.writeShort(usuario.getAuthorities().size());
+            for (GrantedAuthority autoridad : usuario.getAuthorities()) {
+                salida.writeUTF(autoridad.getAuthority());
+            }
+            salida.writeShort(autenticacion.getAuthorities().size());
+            for (GrantedAuthority autoridad : autenticacion.getAuthorities()) {
+                if (autoridad instanceof FactorGrantedAuthority factor) {
+                    salida.writeByte(FACTOR);
+                    salida.writeUTF(factor.getAuthority());
+                    salida.writeLong(factor.getIssuedAt().getEpochSecond());
+                    salida.writeInt(factor.getIssuedAt().getNano());
+                } else {
+                    salida.writeByte(AUTORIDAD);
+                    salida.writeUTF(autoridad.getAuthority());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static SecurityContext contexto(byte[] bytes) {
+        try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+            String email = entrada.readUTF();
+            List<GrantedAuthority> roles = new ArrayList<>();
+            for (int i = entrada.readShort(); i > 0; i--) {
+                roles.add(new SimpleGrantedAuthority(entrada.readUTF()));
+            }
+            Collection<GrantedAuthority> autoridades = new ArrayList<>();
+            for (int i = entrada.readShort(); i > 0; i--) {
+                if (entrada.readByte() == FACTOR) {
+                    String autoridad = entrada.readUTF();
+                    Instant emitida = Instant.ofEpochSecond(entrada.readLong(), entrada.readInt());
+                    autoridades.add(FactorGrantedAuthority.withAuthority(autoridad).issuedAt(emitida).build());
+                } else {
+                    autoridades.add(new SimpleGrantedAuthority(entrada.readUTF()));
+                }
+            }
+
+            // Como quedó tras el login: contraseña borrada (eraseCredentials)
+            User usuario = new User(email, "", roles);
+            usuario.eraseCredentials();
+            return new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(usuario, null, autoridades));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.optativa.thymeleaf.sesiones;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Perfil "sesiones-jdbc": las sesiones HTTP (contexto de seguridad, atributos flash,
+ * petición guardada antes del login) se guardan en la base de datos con Spring Session en
+ * lugar de en la memoria de Tomcat → varias instancias detrás de un balanceador sin
+ * sesiones pegajosas. El token CSRF ya iba en una cookie (CookieCsrfTokenRepository).
+ *
+ * - Tablas: V3__sesiones.sql (Flyway); ajustes en application-sesiones-jdbc.properties
+ * - Atributos → bytes con SerializadorSesion (contexto de seguridad compacto)
+ * - Caducadas: LimpiezaSesiones, por lotes, en lugar de la limpieza de Spring Session
+ * - Sin cachés en memoria (CacheFragmentos, CacheUsuarios, VersionCatalogo): solo
+ *   se enteran de los cambios de su instancia
+ *
+ * Arranque típico: dos instancias contra la misma base de datos. Un fichero H2 solo lo
+ * abre un proceso: con AUTO_SERVER=TRUE el primero hace de servidor para el segundo.
+ * Las dos con la misma BIBLIOTECA_API_TOKENS_SECRETO en el entorno (sin ella no arrancan).
+ *   --spring.profiles.active=sesiones-jdbc --server.port=9000
+ *     --spring.datasource.url=jdbc:h2:file:./bd/sesiones;AUTO_SERVER=TRUE
+ *   --spring.profiles.active=sesiones-jdbc --server.port=9002 --management.server.port=9003
+ *     --spring.datasource.url=jdbc:h2:file:./bd/sesiones;AUTO_SERVER=TRUE
+ */
+@Configuration
+@Profile("sesiones-jdbc")
+@EnableScheduling
+public class SesionesJdbcConfig {
+
+    /**
+     * Spring Session lo busca por este nombre para convertir los atributos
+     */
+    @Bean
+    public ConversionService springSessionConversionService() {
+        SerializadorSesion serializador = new SerializadorSesion(getClass().getClassLoader());
+        GenericConversionService conversiones = new GenericConversionService();
+        conversiones.addConverter(Object.class, byte[].class, serializador::serializar);
+        conversiones.addConverter(byte[].class, Object.class, serializador::deserializar);
+        return conversiones;
+    }
+
+    @Bean
+    LimpiezaSesiones limpiezaSesiones(
+            JdbcTemplate jdbcTemplate,
+            @Value("${spring.session.jdbc.table-name:SPRING_SESSION}") String tabla,
+            @Value("${biblioteca.sesiones.limpieza.lote:500}") int lote,
+            MeterRegistry registro) {
+        return new LimpiezaSesiones(jdbcTemplate, tabla, lote, registro);
+    }
+}
@@ -0,0 +1,191 @@
+package com.optativa.thymeleaf.vista;
+
+import com.optativa.thymeleaf.entidad.enumerado.Rol;
+import com.optativa.thymeleaf.servicio.CatalogoModificado;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché del HTML ya renderizado de trozos de página que salen iguales para todos
+ * los usuarios de un mismo rol: la barra de navegación y el catálogo (/libros) por
+ * página, tamaño, orden y búsqueda. La usan las plantillas con bib:cache
+ * (CacheFragmentosDialecto) y LibroController, que se ahorra las consultas si
+ * la sección ya está en caché.
+ *
+ * Clave = rol (ANONIMO / LECTOR / ADMIN) + clave del trozo. Nunca se guarda nada
+ * propio del usuario (nombre, token CSRF): eso queda fuera de los bloques cacheados.
+ *
+ * Invalidación: cualquier CatalogoModificado (escrituras de LibroServicio, préstamos
+ * que cambian la disponibilidad) vacía la caché tras el commit. Un contador de
+ * generación evita guardar un render hecho con datos leídos antes del cambio.
+ *
+ * Dentro de una petición, cada clave se resuelve una sola vez: el controlador y la
+ * plantilla ven el mismo resultado aunque la caché se invalide entre medias.
+ *
+ * Acotada a biblioteca.cache-fragmentos.maximo entradas (LRU).
+ */
+@Component
+public class CacheFragmentos {
+
+    private static final String ATRIBUTO_GENERACION = CacheFragmentos.class.getName() + ".generacion";
+    private static final String ATRIBUTO_RESUELTAS = CacheFragmentos.class.getName() + ".resueltas";
+
+    private final boolean habilitada;
+    private final Map<String, String> entradas;
+    private final AtomicLong generacion = new AtomicLong();
+    private final Counter aciertos;
+    private final Counter fallos;
+
+    public CacheFragmentos(
+            @Value("${biblioteca.cache-fragmentos.habilitada:true}") boolean habilitada,
+            @Value("${biblioteca.cache-fragmentos.maximo:500}") int maximo,
+            MeterRegistry registro) {
+        this.habilitada = habilitada;
+        // LinkedHashMap en orden de acceso → la entrada menos usada sale primero
+        this.entradas = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> mayor) {
+                return size() > maximo;
+            }
+        };
+        this.aciertos = Counter.builder("biblioteca.cache.fragmentos")
+                .description("Búsquedas en la caché de fragmentos renderizados")
+                .tag("resultado", "acierto")
+                .register(registro);
+        this.fallos = Counter.builder("biblioteca.cache.fragmentos")
+                .description("Búsquedas en la caché de fragmentos renderizados")
+                .tag("resultado", "fallo")
+                .register(registro);
+        Gauge.builder("biblioteca.cache.fragmentos.entradas", this, CacheFragmentos::tamano)
+                .description("Fragmentos renderizados guardados en caché")
+                .register(registro);
+    }
+
+    /**
+     * HTML guardado para esta clave y el rol del usuario actual, o null si hay que renderizar.
+     * Fuera de una petición web (o con la caché desactivada) siempre null.
+     */
+    public String obtener(String clave) {
+        Map<String, String> resueltas = resueltasEnPeticion();
+        if (resueltas == null) {
+            return null;
+        }
+        String completa = claveConRol(clave);
+        if (resueltas.containsKey(completa)) {
+            return resueltas.get(completa);         // segunda consulta en la misma petición: no cuenta
+        }
+        String html;
+        synchronized (entradas) {
+            html = entradas.get(completa);
+        }
+        (html != null ? aciertos : fallos).increment();
+        resueltas.put(completa, html);
+        return html;
+    }
+
+    /**
+     * Guarda el HTML recién renderizado, salvo que el catálogo haya cambiado desde
+     * que empezó la petición (se habría renderizado con datos antiguos)
+     */
+    public void guardar(String clave, String html) {
+        Map<String, String> resueltas = resueltasEnPeticion();
+        if (resueltas == null) {
+            return;
+        }
+        String completa = claveConRol(clave);
+        resueltas.put(completa, html);
+        Long generacionPeticion = (Long) RequestContextHolder.currentRequestAttributes()
+                .getAttribute(ATRIBUTO_GENERACION, RequestAttributes.SCOPE_REQUEST);
+        synchronized (entradas) {
+            if (generacionPeticion != null && generacionPeticion == generacion.get()) {
+                entradas.put(completa, html);
+            }
+        }
+    }
+
+    /**
+     * Tras el commit de la operación que publicó el evento (o en el acto si no había transacción)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void catalogoModificado(CatalogoModificado evento) {
+        invalidar();
+    }
+
+    public void invalidar() {
+        synchronized (entradas) {
+            generacion.incrementAndGet();
+            entradas.clear();
+        }
+    }
+
+    public int tamano() {
+        synchronized (entradas) {
+            return entradas.size();
+        }
+    }
+
+    // ────────────────────────────────────────────────
+    // Estado por petición (atributos de la request)
+    // ────────────────────────────────────────────────
+
+    /**
+     * Claves ya resueltas en esta petición (valor null = fallo). La primera vez
+     * apunta también la generación de la caché en ese momento.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, String> resueltasEnPeticion() {
+        RequestAttributes peticion = RequestContextHolder.getRequestAttributes();
+        if (!habilitada || peticion == null) {
+            return null;
+        }
+        Map<String, String> resueltas =
+                (Map<String, String>) peticion.getAttribute(ATRIBUTO_RESUELTAS, RequestAttributes.SCOPE_REQUEST);
+        if (resueltas == null) {
+            resueltas = new HashMap<>();
+            peticion.setAttribute(ATRIBUTO_RESUELTAS, resueltas, RequestAttributes.SCOPE_REQUEST);
+            peticion.setAttribute(ATRIBUTO_GENERACION, generacion.get(), RequestAttributes.SCOPE_REQUEST);
+        }
+        return resueltas;
+    }
+
+    // ────────────────────────────────────────────────
+    // Rol del usuario actual (lo único del usuario que cambia el HTML cacheado)
+    // ────────────────────────────────────────────────
+
+    private static String claveConRol(String clave) {
+        return rolActual() + "|" + clave;
+    }
+
+    static String rolActual() {
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacion == null || !autenticacion.isAuthenticated()
+                || autenticacion instanceof AnonymousAuthenticationToken) {
+            return "ANONIMO";
+        }
+        for (Rol rol : Rol.values()) {                      // ADMIN antes que LECTOR
+            for (GrantedAuthority autoridad : autenticacion.getAuthorities()) {
+                if (("ROLE_" + rol.name()).equals(autoridad.getAuthority())) {
+                    return rol.name();
+                }
+            }
+        }
+        return "AUTENTICADO";
+    }
+}
@@ -0,0 +1,111 @@
+package com.optativa.thymeleaf.vista;
+
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.dialect.AbstractProcessorDialect;
+import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.engine.TemplateManager;
+import org.thymeleaf.engine.TemplateModel;
+import org.thymeleaf.exceptions.TemplateProcessingException;
+import org.thymeleaf.model.IModel;
+import org.thymeleaf.model.IModelFactory;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.processor.IProcessor;
+import org.thymeleaf.processor.element.AbstractAttributeModelProcessor;
+import org.thymeleaf.processor.element.IElementModelStructureHandler;
+import org.thymeleaf.standard.expression.StandardExpressions;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Set;
+
+/**
+ * Atributo bib:cache para las plantillas: el elemento y todo su contenido se
+ * renderizan una vez por rol y clave, y las siguientes peticiones reciben el HTML
+ * guardado en CacheFragmentos sin evaluar nada de dentro.
+ *
+ *   <th:block bib:cache="${claveCatalogo}"> ... </th:block>
+ *   <ul bib:cache="'navbar'"> ... </ul>
+ *
+ * Si la clave es null el bloque se procesa con normalidad (sin caché).
+ * Spring Boot registra el dialecto solo (cualquier bean IDialect).
+ */
+@Component
+public class CacheFragmentosDialecto extends AbstractProcessorDialect {
+
+    public static final String PREFIJO = "bib";
+
+    /**
+     * Antes que cualquier th:* (StandardDialect usa 1000) → el contenido llega sin procesar
+     */
+    private static final int PRECEDENCIA = 10;
+
+    private final CacheFragmentos cache;
+
+    public CacheFragmentosDialecto(CacheFragmentos cache) {
+        super("Caché de fragmentos de la biblioteca", PREFIJO, PRECEDENCIA);
+        this.cache = cache;
+    }
+
+    @Override
+    public Set<IProcessor> getProcessors(String dialectPrefix) {
+        return Set.of(new CacheAttributeProcessor(dialectPrefix, cache));
+    }
+
+    private static final class CacheAttributeProcessor extends AbstractAttributeModelProcessor {
+
+        private final CacheFragmentos cache;
+
+        CacheAttributeProcessor(String dialectPrefix, CacheFragmentos cache) {
+            super(TemplateMode.HTML, dialectPrefix, null, false, "cache", true, PRECEDENCIA, true);
+            this.cache = cache;
+        }
+
+        @Override
+        protected void doProcess(ITemplateContext context, IModel model, AttributeName attributeName,
+                                 String attributeValue, IElementModelStructureHandler structureHandler) {
+            Object clave = StandardExpressions.getExpressionParser(context.getConfiguration())
+                    .parseExpression(context, attributeValue)
+                    .execute(context);
+            if (clave == null) {
+                return;                                     // sin clave → se procesa como siempre
+            }
+
+            String html = cache.obtener(clave.toString());
+            if (html == null) {
+                html = renderizar(context, model, attributeName);
+                cache.guardar(clave.toString(), html);
+            }
+
+            model.reset();
+            model.add(context.getModelFactory().createText(html));
+        }
+
+        /**
+         * Procesa el bloque (sin el atributo bib:cache) y devuelve el HTML resultante.
+         * Mismo mecanismo que los inliners de Thymeleaf: se vuelve a analizar el marcado
+         * como plantilla de texto, con la misma plantilla propietaria y el mismo contexto
+         * (variables, usuario, locale). El análisis queda en la caché de plantillas.
+         */
+        private static String renderizar(ITemplateContext context, IModel model, AttributeName attributeName) {
+            IModelFactory fabrica = context.getModelFactory();
+            IProcessableElementTag apertura = (IProcessableElementTag) model.get(0);
+            model.replace(0, fabrica.removeAttribute(apertura, attributeName));
+
+            StringWriter marcado = new StringWriter();
+            try {
+                model.write(marcado);
+            } catch (IOException e) {
+                throw new TemplateProcessingException("No se puede escribir el bloque bib:cache", e);   // StringWriter: no ocurre
+            }
+
+            TemplateManager plantillas = context.getConfiguration().getTemplateManager();
+            TemplateModel bloque = plantillas.parseString(context.getTemplateData(), marcado.toString(),
+                    apertura.getLine(), apertura.getCol(), null, true);
+            StringWriter html = new StringWriter();
+            plantillas.process(bloque, context, html);
+            return html.toString();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.optativa.thymeleaf.vista;
+
+import com.optativa.thymeleaf.servicio.CatalogoModificado;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sello de versión del catálogo para GET condicionales (ETag): /libros y /libros/{id}
+ * contestan 304 Not Modified sin tocar la base de datos ni Thymeleaf si nada ha
+ * cambiado desde la copia que tiene el navegador o el proxy.
+ * Lo mismo para el JSON de /api/libros y /api/libros/{id}.
+ *
+ *   versión del catálogo   → sube con cada CatalogoModificado (tras el commit)
+ *   versión de cada libro  → la del último cambio de ese libro o general (un autor)
+ *
+ * Todo en memoria. El ETag empieza por un prefijo aleatorio de cada arranque: un
+ * reinicio invalida cualquier copia anterior y dos instancias nunca dan el mismo ETag
+ * para datos distintos. No se envía Last-Modified: en segundos enteros, dos escrituras
+ * en el mismo segundo darían un 304 falso a quien solo manda If-Modified-Since.
+ *
+ * Memoria acotada: una entrada por libro modificado desde el arranque.
+ *
+ * Solo sirve con una instancia: la versión sube con los eventos de esta JVM y las
+ * demás no se enteran (darían 304 de un catálogo viejo). Con varias (perfil
+ * "sesiones-jdbc") se apaga con biblioteca.peticiones-condicionales.habilitadas=false
+ * y todas las respuestas salen completas.
+ */
+@Component
+public class VersionCatalogo {
+
+    private final String prefijoEtag = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, Character.MAX_RADIX);
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Versión del último cambio que afecta a todo el catálogo (un autor): cuenta para todos los libros
+     */
+    private volatile long versionGeneral;
+    private final Map<Integer, Long> versionPorLibro = new ConcurrentHashMap<>();
+
+    private final boolean habilitada;
+
+    public VersionCatalogo(@Value("${biblioteca.peticiones-condicionales.habilitadas:true}") boolean habilitada) {
+        this.habilitada = habilitada;
+    }
+
+    /**
+     * Tras el commit de la operación que publicó el evento (o en el acto si no había transacción)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void catalogoModificado(CatalogoModificado evento) {
+        long nueva = version.incrementAndGet();
+        if (evento.getLibroId() != null) {
+            versionPorLibro.merge(evento.getLibroId(), nueva, Math::max);
+        } else {
+            versionGeneral = nueva;
+        }
+    }
+
+    // ────────────────────────────────────────────────
+    // Comprobaciones para los controladores
+    // ────────────────────────────────────────────────
+
+    /**
+     * Listado del catálogo. Pone ETag y Cache-Control; devuelve true
+     * si el cliente ya tiene esta versión (la respuesta queda en 304 y el controlador
+     * debe devolver null sin hacer nada más).
+     */
+    public boolean catalogoNoModificado(ServletWebRequest peticion) {
+        return noModificado(peticion, "c" + version.get());
+    }
+
+    /**
+     * Detalle de un libro: solo cambia con sus propias escrituras o las generales
+     */
+    public boolean libroNoModificado(ServletWebRequest peticion, Integer libroId) {
+        return noModificado(peticion, "l" + libroId + "-" + versionLibro(libroId));
+    }
+
+    /**
+     * Lo mismo para la API JSON. La respuesta no depende de quién la pida (ni sesión,
+     * ni token, ni CSRF) → un único ETag para todos y caché pública.
+     */
+    public boolean catalogoApiNoModificado(ServletWebRequest peticion) {
+        return noModificadoApi(peticion, "c" + version.get());
+    }
+
+    public boolean libroApiNoModificado(ServletWebRequest peticion, Integer libroId) {
+        return noModificadoApi(peticion, "l" + libroId + "-" + versionLibro(libroId));
+    }
+
+    private long versionLibro(Integer libroId) {
+        return Math.max(versionPorLibro.getOrDefault(libroId, 0L), versionGeneral);
+    }
+
+    private boolean noModificadoApi(ServletWebRequest peticion, String recurso) {
+        if (!habilitada) {
+            return false;
+        }
+        peticion.getResponse().setHeader("Cache-Control", CacheControl.noCache().cachePublic().getHeaderValue());
+        return peticion.checkNotModified("W/\"" + prefijoEtag + "-api-" + recurso + "\"");
+    }
+
+    private boolean noModificado(ServletWebRequest peticion, String recurso) {
+        if (!habilitada) {
+            return false;
+        }
+        HttpServletRequest request = peticion.getRequest();
+        // Un mensaje flash (tras un redirect) solo sale una vez: esa respuesta no puede ser un 304
+        if (RequestContextUtils.getInputFlashMap(request) != null) {
+            return false;
+        }
+
+        String rol = CacheFragmentos.rolActual();
+        String etag;
+        if ("ANONIMO".equals(rol)) {
+            // Igual para cualquier visitante anónimo → la pueden guardar proxies compartidos
+            etag = "W/\"" + prefijoEtag + "-" + recurso + "\"";
+            cacheControl(peticion, CacheControl.noCache().cachePublic());
+        } else {
+            // La página lleva el nombre del usuario y el token CSRF, que cambian con la
+            // sesión (login y logout la renuevan) → ETag ligado a la sesión y solo caché privada
+            HttpSession sesion = request.getSession(false);
+            String variante = rol + "-" + Integer.toHexString(
+                    (request.getRemoteUser() + "|" + (sesion != null ? sesion.getId() : "")).hashCode());
+            etag = "W/\"" + prefijoEtag + "-" + recurso + "-" + variante + "\"";
+            cacheControl(peticion, CacheControl.noCache().cachePrivate());
+        }
+        return peticion.checkNotModified(etag);
+    }
+
+    /**
+     * no-cache = se puede guardar, pero hay que revalidar (If-None-Match) antes de usarla.
+     * Sustituye al "no-store" que Spring Security pone por defecto en todas las respuestas.
+     */
+    private static void cacheControl(ServletWebRequest peticion, CacheControl cacheControl) {
+        peticion.getResponse().setHeader("Cache-Control", cacheControl.getHeaderValue());
+        peticion.getResponse().addHeader("Vary", "Cookie");
+    }
+}
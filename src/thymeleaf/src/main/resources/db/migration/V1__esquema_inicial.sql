@@ -0,0 +1,72 @@
+-- ────────────────────────────────────────────────────────────────
+-- V1: esquema inicial
+-- Mismo esquema que generaba Hibernate con ddl-auto=create-drop
+-- ────────────────────────────────────────────────────────────────
+
+-- Secuencias (allocationSize = 50 en las entidades)
+create sequence autor_seq start with 1 increment by 50;
+create sequence categoria_seq start with 1 increment by 50;
+create sequence libro_seq start with 1 increment by 50;
+create sequence prestamo_seq start with 1 increment by 50;
+create sequence usuario_seq start with 1 increment by 50;
+
+create table autores (
+    id integer not null,
+    nombre varchar(100) not null,
+    apellido varchar(100) not null,
+    fecha_nacimiento date,
+    nacionalidad varchar(100),
+    primary key (id)
+);
+
+create table categorias (
+    id integer not null,
+    nombre varchar(80) not null,
+    primary key (id),
+    constraint uk_categorias_nombre unique (nombre)
+);
+
+create table libro (
+    id integer not null,
+    isbn varchar(13) not null,
+    titulo varchar(200) not null,
+    año_publicacion integer check ((año_publicacion >= 1500) and (año_publicacion <= 2100)),
+    sinopsis clob,
+    disponible boolean not null,
+    autor_id integer,
+    primary key (id),
+    constraint uk_libro_isbn unique (isbn)
+);
+
+create table libro_categoria (
+    libro_id integer not null,
+    categoria_id integer not null,
+    primary key (categoria_id, libro_id)
+);
+
+create table usuarios (
+    id integer not null,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    nombre_completo varchar(120) not null,
+    rol enum ('ADMIN', 'LECTOR', 'USUARIO') not null,
+    primary key (id),
+    constraint uk_usuarios_email unique (email)
+);
+
+create table prestamo (
+    id integer not null,
+    fecha_prestamo date not null,
+    fecha_devolucion_prevista date not null,
+    fecha_devolucion_real date,
+    estado enum ('ACTIVO', 'CANCELADO', 'DEVUELTO', 'VENCIDO') not null,
+    libro_id integer not null,
+    usuario_id integer not null,
+    primary key (id)
+);
+
+alter table libro add constraint fk_libro_autor foreign key (autor_id) references autores;
+alter table libro_categoria add constraint fk_libro_categoria_categoria foreign key (categoria_id) references categorias;
+alter table libro_categoria add constraint fk_libro_categoria_libro foreign key (libro_id) references libro;
+alter table prestamo add constraint fk_prestamo_libro foreign key (libro_id) references libro;
+alter table prestamo add constraint fk_prestamo_usuario foreign key (usuario_id) references usuarios;
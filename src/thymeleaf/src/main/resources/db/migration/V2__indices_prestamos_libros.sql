@@ -0,0 +1,16 @@
+-- ────────────────────────────────────────────────────────────────
+-- V2: índices para las consultas de PrestamoRepositorio y LibroRepositorio
+-- ────────────────────────────────────────────────────────────────
+
+-- findByEstado / findByFechaDevolucionPrevistaBeforeAndEstado
+--   → igualdad por estado + rango por fecha prevista (detección de vencidos)
+create index idx_prestamo_estado_fecha on prestamo (estado, fecha_devolucion_prevista);
+
+-- Préstamos de un usuario filtrados por estado (activos de un lector, cupos, etc.).
+-- Nota: findByUsuario / findByUsuarioId ya usan el índice que H2 crea para la FK
+-- sobre usuario_id; este índice compuesto resuelve además el filtro por estado.
+create index idx_prestamo_usuario_estado on prestamo (usuario_id, estado);
+
+-- Catálogo paginado ordenado por título (@PageableDefault(sort = "titulo"))
+--   → se recorre el índice en orden y se corta al llenar la página
+create index idx_libro_titulo on libro (titulo);
@@ -0,0 +1,8 @@
+-- ────────────────────────────────────────────────────────────────
+-- V4: fuera el índice (usuario_id, estado) de V2
+-- ────────────────────────────────────────────────────────────────
+
+-- Ninguna consulta de PrestamoRepositorio filtra por usuario y estado a la vez:
+-- los préstamos de un usuario van por el índice de la FK usuario_id, así que este
+-- índice solo encarecía cada INSERT/UPDATE de prestamo.
+drop index if exists idx_prestamo_usuario_estado;
@@ -0,0 +1,122 @@
+package com.optativa.thymeleaf.pruebascarga;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parámetros de una prueba de carga, leídos de argumentos "--clave=valor".
+ *
+ *   --url=http://localhost:9000        aplicación a probar (solo localhost)
+ *   --usuarios-virtuales=50            usuarios simultáneos
+ *   --proporcion-lectores=0.3          parte de ellos que inicia sesión y pide préstamos (resto: anónimos)
+ *   --duracion=60s                     tiempo de medida
+ *   --calentamiento=15s                tiempo previo que no se mide (JIT, pools, cachés)
+ *   --pausa-media=500ms                tiempo de reflexión medio entre peticiones (distribución exponencial)
+ *   --paginas=100                      páginas del catálogo que recorren los usuarios
+ *   --cuenta=lector{n}@carga.biblioteca.com   email de los lectores ({n} = 0..cuentas-1)
+ *   --cuentas=1000
+ *   --password=1234
+ *   --salida=target/pruebas-carga      carpeta del CSV con los resultados
+ *
+ * Solo MedicionPaginas:
+ *   --admin=admin@biblioteca.com       cuenta con la que se piden las páginas
+ *   --medir=/libros?size=100,/prestamos   páginas a medir (las más pesadas)
+ *   --repeticiones=50                  peticiones medidas por página y variante
+ */
+public class ConfiguracionCarga {
+
+    final URI url;
+    final int usuariosVirtuales;
+    final double proporcionLectores;
+    final Duration duracion;
+    final Duration calentamiento;
+    final Duration pausaMedia;
+    final int paginas;
+    final String cuenta;
+    final int cuentas;
+    final String password;
+    final Path salida;
+    final String admin;
+    final List<String> medir;
+    final int repeticiones;
+
+    private ConfiguracionCarga(Map<String, String> valores) {
+        url = URI.create(valores.getOrDefault("url", "http://localhost:9000"));
+        usuariosVirtuales = Integer.parseInt(valores.getOrDefault("usuarios-virtuales", "50"));
+        proporcionLectores = Double.parseDouble(valores.getOrDefault("proporcion-lectores", "0.3"));
+        duracion = duracion(valores.getOrDefault("duracion", "60s"));
+        calentamiento = duracion(valores.getOrDefault("calentamiento", "15s"));
+        pausaMedia = duracion(valores.getOrDefault("pausa-media", "500ms"));
+        paginas = Integer.parseInt(valores.getOrDefault("paginas", "100"));
+        // Por defecto, el lector de IniciarDatos; con el perfil "carga" hay miles de lectores
+        cuenta = valores.getOrDefault("cuenta", "lector@biblioteca.com");
+        cuentas = Integer.parseInt(valores.getOrDefault("cuentas", "1"));
+        password = valores.getOrDefault("password", "1234");
+        salida = Path.of(valores.getOrDefault("salida", "target/pruebas-carga"));
+        admin = valores.getOrDefault("admin", "admin@biblioteca.com");
+        medir = List.of(valores.getOrDefault("medir", "/libros?size=100,/prestamos").split(","));
+        repeticiones = Integer.parseInt(valores.getOrDefault("repeticiones", "50"));
+    }
+
+    public static ConfiguracionCarga desdeArgumentos(String[] args) {
+        Map<String, String> valores = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento no válido (se espera --clave=valor): " + arg);
+            }
+            int igual = arg.indexOf('=');
+            valores.put(arg.substring(2, igual), arg.substring(igual + 1));
+        }
+        ConfiguracionCarga configuracion = new ConfiguracionCarga(valores);
+        configuracion.comprobarLocal();
+        return configuracion;
+    }
+
+    /**
+     * Email del lector que usa el usuario virtual número "n"
+     */
+    String emailLector(int n) {
+        return cuenta.replace("{n}", Integer.toString(n % cuentas));
+    }
+
+    /**
+     * La prueba solo se lanza contra la propia máquina: nunca contra un servidor compartido
+     */
+    private void comprobarLocal() {
+        try {
+            if (!InetAddress.getByName(url.getHost()).isLoopbackAddress()) {
+                throw new IllegalArgumentException("Las pruebas de carga solo se ejecutan contra localhost: " + url);
+            }
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Host desconocido: " + url.getHost(), e);
+        }
+    }
+
+    /**
+     * Acepta "500ms", "30s" o "2m"
+     */
+    private static Duration duracion(String texto) {
+        if (texto.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(texto.substring(0, texto.length() - 2)));
+        }
+        long valor = Long.parseLong(texto.substring(0, texto.length() - 1));
+        return switch (texto.charAt(texto.length() - 1)) {
+            case 's' -> Duration.ofSeconds(valor);
+            case 'm' -> Duration.ofMinutes(valor);
+            default -> throw new IllegalArgumentException("Duración no válida: " + texto);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return url + " · " + usuariosVirtuales + " usuarios virtuales (" + Math.round(proporcionLectores * 100)
+                + "% lectores) · calentamiento " + calentamiento.toSeconds() + " s · medida " + duracion.toSeconds()
+                + " s · pausa media " + pausaMedia.toMillis() + " ms";
+    }
+}
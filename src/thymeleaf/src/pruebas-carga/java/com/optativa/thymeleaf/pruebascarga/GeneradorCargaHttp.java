@@ -0,0 +1,74 @@
+package com.optativa.thymeleaf.pruebascarga;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prueba de carga HTTP contra la aplicación arrancada en local (mismo guion que un navegador:
+ * páginas HTML, cookies de sesión, formularios con CSRF).
+ *
+ * 1) Arrancar la aplicación, a ser posible con datos masivos:
+ *      mvn spring-boot:run -Dspring-boot.run.profiles=carga
+ *    Todos los usuarios virtuales salen de la misma IP (y por defecto con la misma cuenta):
+ *    sin quitar los límites de peticiones, casi todo serían 429 de FiltroLimites
+ *      -Dspring-boot.run.arguments=--biblioteca.limites.habilitados=false
+ * 2) Lanzar la prueba con el perfil "pruebas-carga" de Maven:
+ *      mvn -Ppruebas-carga test-compile exec:exec
+ *      mvn -Ppruebas-carga test-compile exec:exec -Dpruebas-carga.args="--usuarios-virtuales=200 --duracion=2m
+ *          --cuenta=lector{n}@carga.biblioteca.com --cuentas=20000"
+ *
+ * Hilos virtuales frente al pool de Tomcat: misma prueba, sin pausas y con más usuarios
+ * que hilos tiene el pool (200), contra la aplicación arrancada con y sin el perfil:
+ *      mvn spring-boot:run                      y      mvn -Philos-virtuales spring-boot:run
+ *      mvn -Ppruebas-carga test-compile exec:exec -Dpruebas-carga.args="--usuarios-virtuales=400
+ *          --pausa-media=0ms --duracion=30s --salida=target/pruebas-carga/virtuales"
+ *
+ * Opciones en {@link ConfiguracionCarga}. Al terminar imprime, por endpoint, peticiones/s y percentiles
+ * de latencia, y los guarda en <salida>/resultados-<fecha>.csv
+ */
+public class GeneradorCargaHttp {
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga configuracion = ConfiguracionCarga.desdeArgumentos(args);
+        Metricas metricas = new Metricas();
+
+        int lectores = (int) Math.round(configuracion.usuariosVirtuales * configuracion.proporcionLectores);
+        List<UsuarioVirtual> usuarios = new ArrayList<>();
+        List<Thread> hilos = new ArrayList<>();
+        for (int i = 0; i < configuracion.usuariosVirtuales; i++) {
+            String email = i < lectores ? configuracion.emailLector(i) : null;
+            UsuarioVirtual usuario = new UsuarioVirtual(configuracion, metricas, email, 31L * i + 7);
+            usuarios.add(usuario);
+            hilos.add(new Thread(usuario, "usuario-virtual-" + i));
+        }
+
+        System.out.println("######### Prueba de carga HTTP ###########");
+        System.out.println("→ " + configuracion);
+
+        // Arranque escalonado durante el primer tercio del calentamiento (no todos a la vez)
+        long escalon = configuracion.calentamiento.toMillis() / 3 / Math.max(1, hilos.size());
+        for (Thread hilo : hilos) {
+            hilo.start();
+            Thread.sleep(escalon);
+        }
+        Thread.sleep(Math.max(0, configuracion.calentamiento.toMillis() - escalon * hilos.size()));
+
+        System.out.println("→ Calentamiento terminado, midiendo " + configuracion.duracion.toSeconds() + " s...");
+        metricas.empezar();
+        Thread.sleep(configuracion.duracion.toMillis());
+        metricas.parar();
+
+        usuarios.forEach(UsuarioVirtual::parar);
+        for (Thread hilo : hilos) {
+            hilo.interrupt();
+            hilo.join(5_000);
+        }
+
+        String fecha = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path csv = configuracion.salida.resolve("resultados-" + fecha + ".csv");
+        metricas.informe(configuracion.duracion, csv);
+    }
+}
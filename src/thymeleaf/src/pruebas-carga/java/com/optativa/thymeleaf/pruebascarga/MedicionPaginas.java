@@ -0,0 +1,201 @@
+package com.optativa.thymeleaf.pruebascarga;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.CookieManager;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Bytes en la red y latencia de las páginas más pesadas, antes y después de la
+ * configuración del perfil "http2" (compresión + HTTP/2), contra el mismo servidor:
+ *
+ *   HTTP/1.1             → lo que se servía antes
+ *   HTTP/1.1 + gzip      → solo compresión
+ *   h2c                  → solo HTTP/2
+ *   h2c + gzip           → perfil completo
+ *
+ * La compresión y el protocolo se negocian en cada conexión (Accept-Encoding, Upgrade: h2c),
+ * así que un servidor arrancado con el perfil sirve las cuatro variantes.
+ *
+ * 1) mvn spring-boot:run -Dspring-boot.run.profiles=http2      (o mvn -Pprod spring-boot:run)
+ * 2) mvn -Ppruebas-carga test-compile exec:exec -Dpruebas-carga.principal=MedicionPaginas
+ *    mvn -Ppruebas-carga test-compile exec:exec -Dpruebas-carga.principal=MedicionPaginas
+ *        -Dpruebas-carga.args="--medir=/libros?size=100,/prestamos --repeticiones=200"
+ *
+ * Una petición cada vez (sin concurrencia) y con sesión de administrador, para que las
+ * páginas salgan completas. Bytes = cuerpo recibido (sin cabeceras). Resultados también en
+ * <salida>/medicion-paginas-<fecha>.csv
+ */
+public class MedicionPaginas {
+
+    private static final Pattern TOKEN_CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+    private static final int CALENTAMIENTO = 10;
+
+    private enum Variante {
+        HTTP11("HTTP/1.1", HttpClient.Version.HTTP_1_1, false),
+        HTTP11_GZIP("HTTP/1.1 + gzip", HttpClient.Version.HTTP_1_1, true),
+        H2C("h2c", HttpClient.Version.HTTP_2, false),
+        H2C_GZIP("h2c + gzip", HttpClient.Version.HTTP_2, true);
+
+        final String nombre;
+        final HttpClient.Version version;
+        final boolean gzip;
+
+        Variante(String nombre, HttpClient.Version version, boolean gzip) {
+            this.nombre = nombre;
+            this.version = version;
+            this.gzip = gzip;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga configuracion = ConfiguracionCarga.desdeArgumentos(args);
+
+        System.out.println("######### Medición de páginas ###########");
+        System.out.println("→ " + configuracion.url + " · " + configuracion.medir + " · "
+                + configuracion.repeticiones + " peticiones por página y variante");
+
+        String cabecera = String.format(Locale.ROOT, "%-24s %-16s %-9s %11s %9s %9s %9s",
+                "Página", "Variante", "Protocolo", "KB cuerpo", "media ms", "p50 ms", "p95 ms");
+        System.out.println();
+        System.out.println(cabecera);
+        System.out.println("-".repeat(cabecera.length()));
+
+        String fecha = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path csv = configuracion.salida.resolve("medicion-paginas-" + fecha + ".csv");
+        Files.createDirectories(csv.toAbsolutePath().getParent());
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv))) {
+            out.println("pagina,variante,protocolo,bytes_cuerpo,media_ms,p50_ms,p95_ms");
+            for (String pagina : configuracion.medir) {
+                for (Variante variante : Variante.values()) {
+                    Resultado r = medir(configuracion, variante, pagina);
+                    System.out.println(String.format(Locale.ROOT, "%-24s %-16s %-9s %11.1f %9.2f %9.2f %9.2f",
+                            pagina, variante.nombre, r.protocolo, r.bytes / 1024.0, r.mediaMs, r.p50Ms, r.p95Ms));
+                    out.println(String.format(Locale.ROOT, "\"%s\",\"%s\",%s,%d,%.3f,%.3f,%.3f",
+                            pagina, variante.nombre, r.protocolo, r.bytes, r.mediaMs, r.p50Ms, r.p95Ms));
+                }
+                System.out.println();
+            }
+        }
+        System.out.println("CSV: " + csv);
+    }
+
+    /**
+     * Cliente nuevo por variante (conexión y sesión propias): login, calentamiento y medida
+     */
+    private static Resultado medir(ConfiguracionCarga configuracion, Variante variante, String pagina)
+            throws IOException, InterruptedException {
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(variante.version)
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        iniciarSesion(cliente, configuracion);
+
+        HttpRequest.Builder peticion = HttpRequest.newBuilder(configuracion.url.resolve(pagina)).GET();
+        if (variante.gzip) {
+            peticion.header("Accept-Encoding", "gzip");
+        }
+        HttpRequest get = peticion.build();
+
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            comprobar(cliente.send(get, HttpResponse.BodyHandlers.ofByteArray()), pagina);
+        }
+
+        long[] nanos = new long[configuracion.repeticiones];
+        long bytes = 0;
+        String protocolo = "";
+        for (int i = 0; i < nanos.length; i++) {
+            long inicio = System.nanoTime();
+            HttpResponse<byte[]> respuesta = cliente.send(get, HttpResponse.BodyHandlers.ofByteArray());
+            String html = cuerpo(respuesta);                 // descomprimir cuenta: lo hace también el navegador
+            nanos[i] = System.nanoTime() - inicio;
+
+            comprobar(respuesta, pagina);
+            if (html.isEmpty()) {
+                throw new IllegalStateException(pagina + " ha devuelto una página vacía");
+            }
+            bytes = respuesta.body().length;
+            protocolo = respuesta.version() == HttpClient.Version.HTTP_2 ? "h2c" : "HTTP/1.1";
+        }
+
+        Arrays.sort(nanos);
+        return new Resultado(protocolo, bytes, Arrays.stream(nanos).average().orElse(0) / 1_000_000,
+                Metricas.percentil(nanos, 50, 1_000_000.0), Metricas.percentil(nanos, 95, 1_000_000.0));
+    }
+
+    private static void iniciarSesion(HttpClient cliente, ConfiguracionCarga configuracion)
+            throws IOException, InterruptedException {
+        HttpResponse<String> formulario = cliente.send(
+                HttpRequest.newBuilder(configuracion.url.resolve("/login")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher csrf = TOKEN_CSRF.matcher(formulario.body());
+        if (!csrf.find()) {
+            throw new IllegalStateException("No hay token CSRF en /login");
+        }
+        String cuerpo = "email=" + URLEncoder.encode(configuracion.admin, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(configuracion.password, StandardCharsets.UTF_8)
+                + "&_csrf=" + URLEncoder.encode(csrf.group(1), StandardCharsets.UTF_8);
+        HttpResponse<String> login = cliente.send(
+                HttpRequest.newBuilder(configuracion.url.resolve("/login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        String destino = login.headers().firstValue("Location").orElse("");
+        if (login.statusCode() != 302 || destino.contains("/login")) {
+            throw new IllegalStateException("No se puede iniciar sesión como " + configuracion.admin);
+        }
+    }
+
+    private static void comprobar(HttpResponse<?> respuesta, String pagina) {
+        if (respuesta.statusCode() != 200) {
+            throw new IllegalStateException(pagina + " → " + respuesta.statusCode());
+        }
+    }
+
+    private static String cuerpo(HttpResponse<byte[]> respuesta) {
+        byte[] cuerpo = respuesta.body();
+        if (respuesta.headers().firstValue("Content-Encoding").orElse("").equals("gzip")) {
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(cuerpo))) {
+                cuerpo = gzip.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new String(cuerpo, StandardCharsets.UTF_8);
+    }
+
+    private static final class Resultado {
+        final String protocolo;
+        final long bytes;
+        final double mediaMs;
+        final double p50Ms;
+        final double p95Ms;
+
+        Resultado(String protocolo, long bytes, double mediaMs, double p50Ms, double p95Ms) {
+            this.protocolo = protocolo;
+            this.bytes = bytes;
+            this.mediaMs = mediaMs;
+            this.p50Ms = p50Ms;
+            this.p95Ms = p95Ms;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.optativa.thymeleaf.pruebascarga;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latencias y errores por endpoint ("GET /libros", "POST /login"...).
+ *
+ * Se guardan todas las muestras (en microsegundos) para calcular percentiles exactos;
+ * durante el calentamiento no se registra nada.
+ */
+public class Metricas {
+
+    private static final double[] PERCENTILES = {50, 90, 95, 99};
+
+    private final Map<String, Serie> series = new ConcurrentHashMap<>();
+    private volatile boolean registrando;
+
+    public void empezar() {
+        registrando = true;
+    }
+
+    public void parar() {
+        registrando = false;
+    }
+
+    public void registrar(String endpoint, long nanos, boolean error) {
+        if (registrando) {
+            series.computeIfAbsent(endpoint, e -> new Serie()).anadir(nanos / 1_000, error);
+        }
+    }
+
+    /**
+     * Tabla por consola + CSV (una fila por endpoint) para comparar ejecuciones
+     */
+    public void informe(Duration medida, Path csv) throws IOException {
+        double segundos = medida.toMillis() / 1000.0;
+        String cabecera = String.format(Locale.ROOT, "%-32s %10s %8s %9s %9s %9s %9s %9s %9s",
+                "Endpoint", "Peticiones", "Errores", "req/s", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "max ms");
+        System.out.println();
+        System.out.println(cabecera);
+        System.out.println("-".repeat(cabecera.length()));
+
+        Files.createDirectories(csv.toAbsolutePath().getParent());
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv))) {
+            out.println("endpoint,peticiones,errores,req_s,p50_ms,p90_ms,p95_ms,p99_ms,max_ms");
+            for (Map.Entry<String, Serie> e : new TreeMap<>(series).entrySet()) {
+                long[] muestras = e.getValue().ordenadas();
+                int errores = e.getValue().errores();
+                double[] p = Arrays.stream(PERCENTILES).map(q -> percentil(muestras, q, 1000.0)).toArray();
+                double max = muestras.length == 0 ? 0 : muestras[muestras.length - 1] / 1000.0;
+                double rps = muestras.length / segundos;
+
+                System.out.println(String.format(Locale.ROOT, "%-32s %10d %8d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f",
+                        e.getKey(), muestras.length, errores, rps, p[0], p[1], p[2], p[3], max));
+                out.println(String.format(Locale.ROOT, "\"%s\",%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f",
+                        e.getKey(), muestras.length, errores, rps, p[0], p[1], p[2], p[3], max));
+            }
+        }
+        long total = series.values().stream().mapToLong(s -> s.ordenadas().length).sum();
+        System.out.println(String.format(Locale.ROOT, "%nTotal: %d peticiones en %.0f s → %.1f req/s · CSV: %s",
+                total, segundos, total / segundos, csv));
+    }
+
+    /**
+     * Percentil por el método "nearest rank", en milisegundos (0 sin muestras).
+     * unidadesPorMs: 1000 si las muestras van en microsegundos, 1_000_000 en nanosegundos
+     */
+    static double percentil(long[] ordenadas, double q, double unidadesPorMs) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int rango = (int) Math.ceil(q / 100.0 * ordenadas.length);
+        return ordenadas[Math.max(0, rango - 1)] / unidadesPorMs;
+    }
+
+    /**
+     * Muestras de un endpoint (array que crece; lo comparten todos los usuarios virtuales)
+     */
+    private static class Serie {
+        private long[] muestras = new long[1024];
+        private int total;
+        private int errores;
+
+        synchronized void anadir(long micros, boolean error) {
+            if (total == muestras.length) {
+                muestras = Arrays.copyOf(muestras, total * 2);
+            }
+            muestras[total++] = micros;
+            if (error) {
+                errores++;
+            }
+        }
+
+        synchronized long[] ordenadas() {
+            long[] copia = Arrays.copyOf(muestras, total);
+            Arrays.sort(copia);
+            return copia;
+        }
+
+        synchronized int errores() {
+            return errores;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.optativa.thymeleaf.pruebascarga;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Un usuario del navegador, con su propia sesión (cookies) y su propio guion.
+ *
+ * Anónimo: lista del catálogo → a veces una búsqueda → detalle de un libro.
+ * Lector:  login (con token CSRF) → catálogo → detalle → solicitar préstamo → mis préstamos → devolver.
+ *
+ * Cada petición se mide por separado: las redirecciones no se siguen (un 302 tras un POST es un éxito),
+ * salvo que lleven a /login, que significa que la sesión se ha perdido.
+ */
+public class UsuarioVirtual implements Runnable {
+
+    // Palabras frecuentes en los títulos generados por el perfil "carga" (y en los de IniciarDatos)
+    private static final String[] PALABRAS = {"el", "la", "de", "historia", "libro", "amor", "mundo", "vida", "tiempo", "noche"};
+
+    private static final Pattern ENLACE_LIBRO = Pattern.compile("href=\"/libros/(\\d+)\"");
+    private static final Pattern ENLACE_SOLICITAR = Pattern.compile("href=\"/prestamos/solicitar/(\\d+)\"");
+    private static final Pattern ENLACE_DEVOLVER = Pattern.compile("href=\"/prestamos/devolver/(\\d+)\"");
+    private static final Pattern TOKEN_CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+    private static final Pattern CAMPO_OCULTO = Pattern.compile("name=\"(libro\\.id|usuario\\.id)\"\\s+value=\"(\\d+)\"");
+
+    private final ConfiguracionCarga configuracion;
+    private final Metricas metricas;
+    private final String email;   // null → usuario anónimo
+    private final HttpClient cliente;
+    private final SplittableRandom aleatorio;
+    private volatile boolean activo = true;
+
+    private boolean sesionIniciada;
+    private List<Integer> librosVistos = List.of();
+
+    public UsuarioVirtual(ConfiguracionCarga configuracion, Metricas metricas, String email, long semilla) {
+        this.configuracion = configuracion;
+        this.metricas = metricas;
+        this.email = email;
+        this.aleatorio = new SplittableRandom(semilla);
+        this.cliente = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public void parar() {
+        activo = false;
+    }
+
+    @Override
+    public void run() {
+        while (activo) {
+            try {
+                if (email == null) {
+                    recorridoAnonimo();
+                } else {
+                    recorridoLector();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                // Conexión rechazada o cortada: ya está contada como error, se espera y se sigue
+                pausa();
+            }
+        }
+    }
+
+    // ────────────────────────────────────────────────
+    // Guiones
+    // ────────────────────────────────────────────────
+
+    private void recorridoAnonimo() throws IOException, InterruptedException {
+        verCatalogo();
+        pausa();
+        if (aleatorio.nextInt(10) < 3) {
+            String palabra = PALABRAS[aleatorio.nextInt(PALABRAS.length)];
+            HttpResponse<String> busqueda = get("GET /libros?keyword=", "/libros?keyword=" + palabra);
+            librosVistos = extraer(ENLACE_LIBRO, busqueda.body());
+            pausa();
+        }
+        verDetalle();
+        pausa();
+    }
+
+    private void recorridoLector() throws IOException, InterruptedException {
+        if (!sesionIniciada) {
+            iniciarSesion();
+            pausa();
+            if (!sesionIniciada) {
+                return;
+            }
+        }
+
+        verCatalogo();
+        pausa();
+        HttpResponse<String> detalle = verDetalle();
+        pausa();
+
+        // Solo se puede pedir el libro si está disponible (el detalle muestra el enlace)
+        if (detalle != null && ENLACE_SOLICITAR.matcher(detalle.body()).find()) {
+            solicitarPrestamo(extraer(ENLACE_SOLICITAR, detalle.body()).get(0));
+            pausa();
+        }
+
+        HttpResponse<String> mios = get("GET /prestamos/mios", "/prestamos/mios");
+        pausa();
+        List<Integer> activos = extraer(ENLACE_DEVOLVER, mios.body());
+        if (!activos.isEmpty()) {
+            Integer id = activos.get(aleatorio.nextInt(activos.size()));
+            get("GET /prestamos/devolver/{id}", "/prestamos/devolver/" + id);
+            pausa();
+        }
+    }
+
+    private void verCatalogo() throws IOException, InterruptedException {
+        int pagina = aleatorio.nextInt(configuracion.paginas);
+        HttpResponse<String> lista = get("GET /libros?page=", "/libros?page=" + pagina);
+        librosVistos = extraer(ENLACE_LIBRO, lista.body());
+    }
+
+    private HttpResponse<String> verDetalle() throws IOException, InterruptedException {
+        if (librosVistos.isEmpty()) {
+            return null;
+        }
+        Integer id = librosVistos.get(aleatorio.nextInt(librosVistos.size()));
+        return get("GET /libros/{id}", "/libros/" + id);
+    }
+
+    private void iniciarSesion() throws IOException, InterruptedException {
+        HttpResponse<String> formulario = get("GET /login", "/login");
+        String csrf = primero(TOKEN_CSRF, formulario.body());
+
+        HttpResponse<String> login = post("POST /login", "/login",
+                Map.of("email", email, "password", configuracion.password, "_csrf", csrf));
+        // Login correcto → 302 a /libros; credenciales erróneas → 302 a /login?error=true
+        sesionIniciada = login.statusCode() == 302 && !destino(login).contains("/login");
+    }
+
+    private void solicitarPrestamo(Integer libroId) throws IOException, InterruptedException {
+        HttpResponse<String> formulario = get("GET /prestamos/solicitar/{id}", "/prestamos/solicitar/" + libroId);
+        if (formulario.statusCode() != 200) {
+            return; // otro usuario se lo ha llevado antes: el controlador redirige al catálogo
+        }
+        pausa();
+
+        Map<String, String> campos = new HashMap<>();
+        campos.put("_csrf", primero(TOKEN_CSRF, formulario.body()));
+        Matcher m = CAMPO_OCULTO.matcher(formulario.body());
+        while (m.find()) {
+            campos.put(m.group(1), m.group(2));
+        }
+        post("POST /prestamos/solicitar", "/prestamos/solicitar", campos);
+    }
+
+    // ────────────────────────────────────────────────
+    // HTTP
+    // ────────────────────────────────────────────────
+
+    private HttpResponse<String> get(String endpoint, String ruta) throws IOException, InterruptedException {
+        return medir(endpoint, HttpRequest.newBuilder(uri(ruta)).GET().build());
+    }
+
+    private HttpResponse<String> post(String endpoint, String ruta, Map<String, String> campos)
+            throws IOException, InterruptedException {
+        StringJoiner cuerpo = new StringJoiner("&");
+        campos.forEach((k, v) -> cuerpo.add(URLEncoder.encode(k, StandardCharsets.UTF_8) + "="
+                + URLEncoder.encode(v, StandardCharsets.UTF_8)));
+        return medir(endpoint, HttpRequest.newBuilder(uri(ruta))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo.toString()))
+                .build());
+    }
+
+    /**
+     * Ejecuta la petición y registra su latencia. Es error: excepción de red, 4xx/5xx,
+     * o una redirección a /login en una página que exige sesión (la sesión ha caducado)
+     */
+    private HttpResponse<String> medir(String endpoint, HttpRequest peticion) throws IOException, InterruptedException {
+        long inicio = System.nanoTime();
+        try {
+            HttpResponse<String> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.ofString());
+            boolean sesionPerdida = email != null && !endpoint.endsWith("/login")
+                    && respuesta.statusCode() == 302 && destino(respuesta).endsWith("/login");
+            if (sesionPerdida) {
+                sesionIniciada = false;
+            }
+            metricas.registrar(endpoint, System.nanoTime() - inicio, respuesta.statusCode() >= 400 || sesionPerdida);
+            return respuesta;
+        } catch (IOException e) {
+            metricas.registrar(endpoint, System.nanoTime() - inicio, true);
+            throw e;
+        }
+    }
+
+    private URI uri(String ruta) {
+        return configuracion.url.resolve(ruta);
+    }
+
+    private static String destino(HttpResponse<?> respuesta) {
+        return respuesta.headers().firstValue("Location").orElse("");
+    }
+
+    /**
+     * Tiempo de reflexión: exponencial con la media configurada (limitada a 5 veces la media)
+     */
+    private void pausa() {
+        long media = configuracion.pausaMedia.toMillis();
+        if (media <= 0) {
+            return;
+        }
+        long espera = (long) Math.min(-media * Math.log(1 - aleatorio.nextDouble()), 5.0 * media);
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            activo = false;
+        }
+    }
+
+    private static List<Integer> extraer(Pattern patron, String html) {
+        List<Integer> ids = new ArrayList<>();
+        Matcher m = patron.matcher(html);
+        while (m.find()) {
+            ids.add(Integer.valueOf(m.group(1)));
+        }
+        return ids;
+    }
+
+    private static String primero(Pattern patron, String html) {
+        Matcher m = patron.matcher(html);
+        return m.find() ? m.group(1) : "";
+    }
+}
@@ -0,0 +1,87 @@
+package com.optativa.thymeleaf.config;
+
+import com.optativa.thymeleaf.entidad.Usuario;
+import com.optativa.thymeleaf.entidad.enumerado.Rol;
+import com.optativa.thymeleaf.repositorio.UsuarioRepositorio;
+import com.optativa.thymeleaf.soporte.DatosPrueba;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.unauthenticated;
+
+/**
+ * Hashes de contraseñas configurables: al iniciar sesión, un hash con otro coste (o sin
+ * el prefijo {algoritmo}) se sustituye por uno con los parámetros actuales.
+ */
+@SpringBootTest(properties = "biblioteca.contrasenas.coste-bcrypt=5")
+@AutoConfigureMockMvc
+class ContrasenasTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UsuarioRepositorio usuarioRepositorio;
+
+    @Test
+    void losHashesNuevosLlevanAlgoritmoYCosteConfigurados() {
+        assertThat(passwordEncoder.encode("1234")).startsWith("{bcrypt}$2a$05$");
+    }
+
+    @Test
+    void unHashAntiguoSeRecalculaAlIniciarSesion() throws Exception {
+        // como los de antes: BCrypt sin prefijo y con otro coste
+        String email = nuevoUsuario(new BCryptPasswordEncoder(4).encode("1234"));
+
+        mockMvc.perform(formLogin("/login").userParameter("email").user(email).password("1234"))
+                .andExpect(authenticated());
+
+        String hash = usuarioRepositorio.findByEmail(email).orElseThrow().getPassword();
+        assertThat(hash).startsWith("{bcrypt}$2a$05$");
+        assertThat(passwordEncoder.matches("1234", hash)).isTrue();
+    }
+
+    @Test
+    void unCosteMayorTambienSeRecalcula() throws Exception {
+        String email = nuevoUsuario("{bcrypt}" + new BCryptPasswordEncoder(6).encode("1234"));
+
+        mockMvc.perform(formLogin("/login").userParameter("email").user(email).password("1234"))
+                .andExpect(authenticated());
+
+        assertThat(usuarioRepositorio.findByEmail(email).orElseThrow().getPassword()).startsWith("{bcrypt}$2a$05$");
+    }
+
+    @Test
+    void unHashAlDiaOUnaContrasenaIncorrectaNoLoCambian() throws Exception {
+        String actual = passwordEncoder.encode("1234");
+        String email = nuevoUsuario(actual);
+
+        mockMvc.perform(formLogin("/login").userParameter("email").user(email).password("1234"))
+                .andExpect(authenticated());
+        mockMvc.perform(formLogin("/login").userParameter("email").user(email).password("otra"))
+                .andExpect(unauthenticated());
+
+        assertThat(usuarioRepositorio.findByEmail(email).orElseThrow().getPassword()).isEqualTo(actual);
+    }
+
+    private String nuevoUsuario(String hash) {
+        Usuario usuario = new Usuario();
+        usuario.setEmail(DatosPrueba.emailUnico("contrasenas"));
+        usuario.setNombreCompleto("Usuario de prueba");
+        usuario.setRol(Rol.LECTOR);
+        usuario.setPassword(hash);
+        return usuarioRepositorio.save(usuario).getEmail();
+    }
+}
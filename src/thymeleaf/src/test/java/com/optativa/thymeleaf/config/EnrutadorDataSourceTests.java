@@ -0,0 +1,55 @@
+package com.optativa.thymeleaf.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Enrutado lectura/escritura con dos bases de datos H2 en memoria
+ * ("principal" y "replica"), montado igual que en ReplicaLecturaConfig.
+ */
+class EnrutadorDataSourceTests {
+
+    @Test
+    void soloLecturaVaALaReplicaYElRestoALaPrincipal() {
+        DataSource dataSource = enrutador(h2("jdbc:h2:mem:principal"), h2("jdbc:h2:mem:replica"));
+
+        assertThat(baseDatosEnTransaccion(dataSource, true)).isEqualToIgnoringCase("replica");
+        assertThat(baseDatosEnTransaccion(dataSource, false)).isEqualToIgnoringCase("principal");
+        // Sin transacción → principal
+        assertThat(new JdbcTemplate(dataSource).queryForObject("select database()", String.class))
+                .isEqualToIgnoringCase("principal");
+    }
+
+    @Test
+    void replicaCaidaUsaLaPrincipal() {
+        // IFEXISTS=TRUE → H2 rechaza la conexión porque la base de datos no existe
+        DataSource dataSource = enrutador(h2("jdbc:h2:mem:principal"), h2("jdbc:h2:mem:sinReplica;IFEXISTS=TRUE"));
+
+        assertThat(baseDatosEnTransaccion(dataSource, true)).isEqualToIgnoringCase("principal");
+        // Dentro del plazo de reintento ya ni se intenta
+        assertThat(baseDatosEnTransaccion(dataSource, true)).isEqualToIgnoringCase("principal");
+    }
+
+    private static DataSource enrutador(DataSource principal, DataSource lectura) {
+        return new LazyConnectionDataSourceProxy(new EnrutadorDataSource(principal, lectura, Duration.ofSeconds(30)));
+    }
+
+    private static DataSource h2(String url) {
+        return new DriverManagerDataSource(url, "sa", "");
+    }
+
+    private static String baseDatosEnTransaccion(DataSource dataSource, boolean soloLectura) {
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        tx.setReadOnly(soloLectura);
+        return tx.execute(estado -> new JdbcTemplate(dataSource).queryForObject("select database()", String.class));
+    }
+}
@@ -0,0 +1,160 @@
+package com.optativa.thymeleaf.config;
+
+import com.optativa.thymeleaf.entidad.Libro;
+import com.optativa.thymeleaf.repositorio.AutorRepositorio;
+import com.optativa.thymeleaf.repositorio.LibroRepositorio;
+import com.optativa.thymeleaf.soporte.DatosPrueba;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Perfil "hilos-virtuales": los caminos calientes (catálogo, detalle, préstamos, gauges)
+ * ejecutados a la vez desde muchos hilos virtuales no fijan el hilo portador (pinning):
+ * JFR registra cada jdk.VirtualThreadPinned y no debe haber ninguno.
+ *
+ * Un hilo solo queda fijado si se bloquea dentro de un synchronized; con H2 en memoria
+ * eso pasa sobre todo esperando conexión → pool pequeño (con hilos virtuales el límite
+ * real de concurrencia es el pool) y los gauges recalculados en cada lectura.
+ *
+ * Se ejecuta en cada build: la versión mínima del proyecto es Java 21.
+ */
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "biblioteca.cache-fragmentos.habilitada=false",
+        "biblioteca.metricas.refresco=0s",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "biblioteca.limites.habilitados=false"})
+@AutoConfigureMockMvc
+class HilosVirtualesTests {
+
+    private static final RequestPostProcessor LECTOR = user("lector@biblioteca.com").roles("LECTOR");
+    private static final int HILOS = 64;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry registro;
+
+    @Autowired
+    private LibroRepositorio libroRepositorio;
+
+    @Autowired
+    private AutorRepositorio autorRepositorio;
+
+    @Test
+    void losCaminosCalientesNoFijanElHiloPortador() throws Exception {
+        List<Libro> libros = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            libros.add(nuevoLibro());
+        }
+
+        SimpleAsyncTaskExecutor hilosVirtuales = new SimpleAsyncTaskExecutor("virtual-");
+        hilosVirtuales.setVirtualThreads(true);
+
+        try (Recording grabacion = new Recording()) {
+            grabacion.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            grabacion.start();
+
+            List<Future<?>> tareas = new ArrayList<>();
+            for (Libro libro : libros) {
+                tareas.add(hilosVirtuales.submit((Callable<Void>) () -> {
+                    recorrido(libro);
+                    return null;
+                }));
+            }
+            // Si los hilos bloqueados en un monitor fijan todos los portadores, el que tiene el
+            // monitor no vuelve a ejecutarse (espera una conexión que no se libera) → bloqueo
+            for (Future<?> tarea : tareas) {
+                try {
+                    tarea.get(60, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    fail("Los hilos virtuales no terminan: portadores fijados (synchronized + espera)");
+                }
+            }
+
+            grabacion.stop();
+            Path fichero = Files.createTempFile("hilos-virtuales", ".jfr");
+            try {
+                grabacion.dump(fichero);
+                List<RecordedEvent> fijados = RecordingFile.readAllEvents(fichero);
+                assertThat(fijados).as("hilos virtuales fijados:%n%s", describir(fijados)).isEmpty();
+            } finally {
+                Files.deleteIfExists(fichero);
+            }
+        }
+    }
+
+    /**
+     * Lo que hace un lector: catálogo, búsqueda, detalle, préstamo y sus préstamos,
+     * con el scrape de Prometheus (gauges) intercalado
+     */
+    private void recorrido(Libro libro) throws Exception {
+        leerGauges();
+        mockMvc.perform(get("/libros").param("page", "1")).andExpect(status().isOk());
+        leerGauges();
+        mockMvc.perform(get("/libros").param("keyword", libro.getTitulo())).andExpect(status().isOk());
+        leerGauges();
+        mockMvc.perform(get("/libros/{id}", libro.getId()).with(LECTOR)).andExpect(status().isOk());
+        leerGauges();
+        mockMvc.perform(post("/prestamos/solicitar").with(LECTOR).with(csrf())
+                        .param("libro.id", libro.getId().toString()))
+                .andExpect(status().is3xxRedirection());
+        leerGauges();
+        mockMvc.perform(get("/prestamos/mios").with(LECTOR)).andExpect(status().isOk());
+        leerGauges();
+    }
+
+    private void leerGauges() {
+        registro.get("biblioteca.prestamos.activos").gauge().value();
+        registro.get("biblioteca.prestamos.vencidos").gauge().value();
+        registro.get("biblioteca.libros.disponibles").gauge().value();
+    }
+
+    private Libro nuevoLibro() {
+        return libroRepositorio.save(DatosPrueba.nuevoLibro("Hilos virtuales", autorRepositorio.findAll().get(0), true));
+    }
+
+    private static String describir(List<RecordedEvent> eventos) {
+        return eventos.stream()
+                .limit(5)
+                .map(e -> e.getStackTrace() == null ? "(sin pila)" : e.getStackTrace().getFrames().stream()
+                        .limit(25)
+                        .map(RecordedFrame::getMethod)
+                        .map(m -> "  " + m.getType().getName() + "." + m.getName())
+                        .collect(Collectors.joining("\n")))
+                .collect(Collectors.joining("\n----\n"));
+    }
+}
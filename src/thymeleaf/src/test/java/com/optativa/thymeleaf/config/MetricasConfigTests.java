@@ -0,0 +1,90 @@
+package com.optativa.thymeleaf.config;
+
+import com.optativa.thymeleaf.entidad.Libro;
+import com.optativa.thymeleaf.entidad.Prestamo;
+import com.optativa.thymeleaf.servicio.LibroServicio;
+import com.optativa.thymeleaf.servicio.PrestamoServicio;
+import com.optativa.thymeleaf.servicio.UsuarioServicio;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Timers @Timed de los servicios y gauges de MetricasConfig (sin caché de conteos: refresco=0s).
+ */
+@SpringBootTest(properties = "biblioteca.metricas.refresco=0s")
+class MetricasConfigTests {
+
+    @Autowired
+    private MeterRegistry registro;
+
+    @Autowired
+    private LibroServicio libroServicio;
+
+    @Autowired
+    private PrestamoServicio prestamoServicio;
+
+    @Autowired
+    private UsuarioServicio usuarioServicio;
+
+    @Test
+    void cadaMetodoDeServicioTieneSuTimer() {
+        libroServicio.contarLibros();
+        usuarioServicio.findByEmail("lector@biblioteca.com");
+
+        assertThat(timer("biblioteca.servicio", "contarLibros").count()).isPositive();
+        assertThat(timer("biblioteca.servicio", "findByEmail").count()).isPositive();
+    }
+
+    @Test
+    void listadoYSolicitudTienenHistograma() {
+        libroServicio.obtenerTodosLosLibros(PageRequest.of(0, 10));
+        libroServicio.buscarPorTitulo("a", PageRequest.of(0, 10));
+
+        Libro libro = libroServicio.obtenerLibrosDisponibles().get(0);
+        Integer lectorId = usuarioServicio.findByEmail("lector@biblioteca.com").orElseThrow().getId();
+        Prestamo prestamo = prestamoServicio.solicitarPrestamo(libro.getId(), lectorId);
+        prestamoServicio.devolverPrestamo(prestamo.getId());
+
+        for (Timer timer : new Timer[] {
+                timer("biblioteca.libros.listar", "obtenerTodosLosLibros"),
+                timer("biblioteca.libros.listar", "buscarPorTitulo"),
+                timer("biblioteca.prestamos.solicitar", "solicitarPrestamo")}) {
+            assertThat(timer.count()).isPositive();
+            // percentiles-histogram → cubetas que Prometheus agrega con histogram_quantile()
+            assertThat(timer.takeSnapshot().histogramCounts()).isNotEmpty();
+        }
+    }
+
+    @Test
+    void gaugesSiguenLosPrestamosYLaDisponibilidad() {
+        double activos = gauge("biblioteca.prestamos.activos");
+        double disponibles = gauge("biblioteca.libros.disponibles");
+        assertThat(gauge("biblioteca.prestamos.vencidos")).isNotNegative();
+
+        Libro libro = libroServicio.obtenerLibrosDisponibles().get(0);
+        Integer lectorId = usuarioServicio.findByEmail("lector@biblioteca.com").orElseThrow().getId();
+        Prestamo prestamo = prestamoServicio.solicitarPrestamo(libro.getId(), lectorId);
+
+        assertThat(gauge("biblioteca.prestamos.activos")).isEqualTo(activos + 1);
+        assertThat(gauge("biblioteca.libros.disponibles")).isEqualTo(disponibles - 1);
+
+        prestamoServicio.devolverPrestamo(prestamo.getId());
+        assertThat(gauge("biblioteca.prestamos.activos")).isEqualTo(activos);
+    }
+
+    private Timer timer(String nombre, String metodo) {
+        return registro.get(nombre).tag("method", metodo).timer();
+    }
+
+    private double gauge(String nombre) {
+        return registro.get(nombre).gauge().value();
+    }
+}
@@ -0,0 +1,77 @@
+package com.optativa.thymeleaf.config;
+
+import com.optativa.thymeleaf.entidad.Libro;
+import com.optativa.thymeleaf.repositorio.LibroRepositorio;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.thymeleaf.cache.ICache;
+import org.thymeleaf.cache.TemplateCacheKey;
+import org.thymeleaf.engine.TemplateModel;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Con la caché y el precalentamiento del perfil "prod": renderizar las páginas no
+ * debe analizar ninguna plantilla ni fragmento que no estuviera ya en la caché.
+ */
+@SpringBootTest(properties = {
+        "spring.thymeleaf.cache=true",
+        "biblioteca.plantillas.precalentar=true"
+})
+@AutoConfigureMockMvc
+class PrecalentamientoPlantillasTests {
+
+    private static final RequestPostProcessor ADMIN = user("admin@biblioteca.com").roles("ADMIN");
+    private static final RequestPostProcessor LECTOR = user("lector@biblioteca.com").roles("LECTOR");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SpringTemplateEngine motor;
+
+    @Autowired
+    private LibroRepositorio libroRepositorio;
+
+    @Test
+    void lasPaginasNoAnalizanNadaNuevo() throws Exception {
+        Set<TemplateCacheKey> precalentadas = plantillasEnCache();
+        assertThat(precalentadas).extracting(TemplateCacheKey::getTemplate)
+                .contains("libros/lista-libros", "prestamos/mis-prestamos", "layout/main", "fragments/navbar");
+
+        Libro libro = libroRepositorio.findByDisponibleTrue().get(0);
+        mockMvc.perform(get("/")).andExpect(status().isOk());
+        mockMvc.perform(get("/login")).andExpect(status().isOk());
+        mockMvc.perform(get("/libros")).andExpect(status().isOk());
+        mockMvc.perform(get("/libros/{id}", libro.getId()).with(LECTOR)).andExpect(status().isOk());
+        mockMvc.perform(get("/libros/nuevo").with(ADMIN)).andExpect(status().isOk());
+        mockMvc.perform(get("/prestamos/mios").with(LECTOR)).andExpect(status().isOk());
+        mockMvc.perform(get("/prestamos").with(ADMIN)).andExpect(status().isOk());
+        mockMvc.perform(get("/prestamos/nuevo").with(ADMIN)).andExpect(status().isOk());
+
+        assertThat(plantillasEnCache()).isEqualTo(precalentadas);
+    }
+
+    /**
+     * Solo plantillas de fichero: los trozos de JavaScript en línea (th:onclick...) también
+     * se guardan en caché, pero no se pueden analizar sin procesar la página
+     */
+    private Set<TemplateCacheKey> plantillasEnCache() {
+        ICache<TemplateCacheKey, TemplateModel> cache = motor.getConfiguration().getCacheManager().getTemplateCache();
+        return cache.keySet().stream()
+                .filter(clave -> clave.getTemplateMode() == null)
+                .collect(Collectors.toSet());
+    }
+}
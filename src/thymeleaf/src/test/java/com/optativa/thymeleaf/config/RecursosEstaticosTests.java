@@ -0,0 +1,61 @@
+package com.optativa.thymeleaf.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Resource chain: enlaces con hash en las plantillas, caché de un año y
+ * variantes precomprimidas en el build.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class RecursosEstaticosTests {
+
+    private static final Pattern HOJA_ESTILOS = Pattern.compile("/css/style-[0-9a-f]{32}\\.css");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void lasPlantillasEnlazanLaVersionConHash() throws Exception {
+        String pagina = mockMvc.perform(get("/libros")).andReturn().getResponse().getContentAsString();
+
+        Matcher enlace = HOJA_ESTILOS.matcher(pagina);
+        assertThat(enlace.find()).as("enlace a style.css con hash").isTrue();
+
+        mockMvc.perform(get(enlace.group()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=31536000")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("public")));
+    }
+
+    @Test
+    void sirveLaVarianteComprimidaSiSeAcepta() throws Exception {
+        assumeThat(new ClassPathResource("static/css/style.css.gz").exists())
+                .as("style.css.gz generado en process-resources (necesita gzip)").isTrue();
+
+        mockMvc.perform(get("/css/style.css").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)));
+
+        mockMvc.perform(get("/css/style.css"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+}
@@ -0,0 +1,57 @@
+package com.optativa.thymeleaf.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Perfil "http2" contra el Tomcat real (MockMvc no pasa por el conector):
+ * gzip negociado con Accept-Encoding y HTTP/2 en claro (h2c).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.server.port=0")
+@ActiveProfiles("http2")
+class ServidorHttpConfigTests {
+
+    @LocalServerPort
+    private int puerto;
+
+    @Test
+    void elHtmlSeComprimeSiElClienteLoAcepta() throws Exception {
+        HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        HttpResponse<byte[]> plano = cliente.send(peticion("/libros?size=100").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        HttpResponse<byte[]> gzip = cliente.send(peticion("/libros?size=100").header("Accept-Encoding", "gzip").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(plano.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(gzip.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(gzip.body().length).isLessThan(plano.body().length / 3);
+    }
+
+    @Test
+    void http2EnClaro() throws Exception {
+        HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+
+        cliente.send(peticion("/login").build(), HttpResponse.BodyHandlers.discarding());    // Upgrade: h2c
+        HttpResponse<byte[]> respuesta = cliente.send(peticion("/libros").header("Accept-Encoding", "gzip").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(respuesta.version()).isEqualTo(HttpClient.Version.HTTP_2);
+        assertThat(respuesta.statusCode()).isEqualTo(200);
+        assertThat(respuesta.headers().firstValue("Content-Encoding")).hasValue("gzip");
+    }
+
+    private HttpRequest.Builder peticion(String ruta) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + ruta)).GET();
+    }
+}
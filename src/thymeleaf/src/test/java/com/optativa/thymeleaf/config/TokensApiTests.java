@@ -0,0 +1,163 @@
+package com.optativa.thymeleaf.config;
+
+import com.jayway.jsonpath.JsonPath;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.optativa.thymeleaf.repositorio.UsuarioRepositorio;
+import com.optativa.thymeleaf.servicio.seguridad.PropiedadesTokens;
+import com.optativa.thymeleaf.soporte.ContadorConsultas;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cadena /api/**: con el token de POST /api/token cada petición se autentica sin sesión
+ * y sin consultar la BD; sin token válido → 401, nunca la sesión de las páginas.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "biblioteca.api.tokens.duracion=10m"})
+@AutoConfigureMockMvc
+class TokensApiTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UsuarioRepositorio usuarioRepositorio;
+
+    @Autowired
+    private JwtEncoder jwtEncoder;
+
+    @Test
+    void unTokenAutenticaSinSesionNiBaseDeDatos() throws Exception {
+        String token = token("lector@biblioteca.com", "1234");
+        Integer id = usuarioRepositorio.findByEmail("lector@biblioteca.com").orElseThrow().getId();
+        ContadorConsultas contador = new ContadorConsultas(entityManagerFactory);
+
+        MvcResult[] resultado = new MvcResult[1];
+        long sentencias = contador.contar(() -> resultado[0] = mockMvc.perform(get("/api/yo")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usuarioId").value(id))
+                .andExpect(jsonPath("$.rol").value("LECTOR"))
+                .andExpect(header().doesNotExist("Set-Cookie"))
+                .andReturn());
+
+        assertThat(sentencias).isZero();
+        assertThat(resultado[0].getRequest().getSession(false)).isNull();
+    }
+
+    @Test
+    void elTokenSePideConEmailYContrasena() throws Exception {
+        mockMvc.perform(post("/api/token").with(httpBasic("lector@biblioteca.com", "1234")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tipo").value("Bearer"))
+                .andExpect(jsonPath("$.caducaEnSegundos").value(600))
+                .andExpect(header().doesNotExist("Set-Cookie"));
+
+        mockMvc.perform(post("/api/token").with(httpBasic("lector@biblioteca.com", "mal")))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void sinTokenValidoSeContesta401() throws Exception {
+        String token = token("admin@biblioteca.com", "1234");
+
+        mockMvc.perform(get("/api/yo")).andExpect(status().isUnauthorized());
+
+        // firma alterada
+        String alterado = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        mockMvc.perform(get("/api/yo").header("Authorization", "Bearer " + alterado))
+                .andExpect(status().isUnauthorized());
+
+        // firmado con otra clave
+        JwtEncoder otraClave = new NimbusJwtEncoder(new ImmutableSecret<>(
+                new SecretKeySpec("otra-clave-de-al-menos-32-bytes!!".getBytes(), "HmacSHA256")));
+        Instant ahora = Instant.now();
+        mockMvc.perform(get("/api/yo").header("Authorization", "Bearer " + firmar(otraClave, ahora.plus(1, ChronoUnit.HOURS))))
+                .andExpect(status().isUnauthorized());
+
+        // caducado
+        mockMvc.perform(get("/api/yo").header("Authorization", "Bearer " + firmar(jwtEncoder, ahora.minus(1, ChronoUnit.HOURS))))
+                .andExpect(status().isUnauthorized());
+        // el mismo, vigente → sí
+        mockMvc.perform(get("/api/yo").header("Authorization", "Bearer " + firmar(jwtEncoder, ahora.plus(1, ChronoUnit.HOURS))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void laApiNoUsaLaSesionDeLasPaginas() throws Exception {
+        MockHttpSession sesion = (MockHttpSession) mockMvc.perform(
+                        formLogin("/login").userParameter("email").user("lector@biblioteca.com").password("1234"))
+                .andReturn().getRequest().getSession(false);
+
+        mockMvc.perform(get("/prestamos/mios").session(sesion)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/yo").session(sesion)).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void sinSecretoObligatorioNoArranca() {
+        PropiedadesTokens propiedades = new PropiedadesTokens();
+        propiedades.setSecretoObligatorio(true);
+
+        assertThatThrownBy(() -> new SecurityConfig().claveTokens(propiedades))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("biblioteca.api.tokens.secreto");
+    }
+
+    // ────────────────────────────────────────────────────────────────
+    // Utilidades
+    // ────────────────────────────────────────────────────────────────
+
+    private String token(String email, String contrasena) throws Exception {
+        String cuerpo = mockMvc.perform(post("/api/token").with(httpBasic(email, contrasena)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(cuerpo, "$.token");
+    }
+
+    private static String firmar(JwtEncoder codificador, Instant caduca) {
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("biblioteca")
+                .subject("1")
+                .claim("rol", "ADMIN")
+                .issuedAt(caduca.minus(2, ChronoUnit.HOURS))
+                .expiresAt(caduca)
+                .build();
+        return codificador.encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims))
+                .getTokenValue();
+    }
+}
@@ -0,0 +1,194 @@
+package com.optativa.thymeleaf.controlador;
+
+import com.jayway.jsonpath.JsonPath;
+import com.optativa.thymeleaf.entidad.Libro;
+import com.optativa.thymeleaf.repositorio.AutorRepositorio;
+import com.optativa.thymeleaf.servicio.LibroServicio;
+import com.optativa.thymeleaf.soporte.ContadorConsultas;
+import com.optativa.thymeleaf.soporte.DatosPrueba;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * API JSON de catálogo y préstamos: paginación por cursor sin repetir ni saltar libros,
+ * selección de campos, ETags (304) y préstamo/devolución con las reglas de las vistas.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "biblioteca.limites.habilitados=false"})
+@AutoConfigureMockMvc
+class ApiJsonTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private LibroServicio libroServicio;
+
+    @Autowired
+    private AutorRepositorio autorRepositorio;
+
+    @Test
+    void elCursorRecorreElCatalogoEnteroSinRepetir() throws Exception {
+        String token = token("lector@biblioteca.com");
+        List<Integer> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            String url = "/api/libros?limite=7&fields=id,titulo" + (cursor == null ? "" : "&despues=" + cursor);
+            String cuerpo = mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            List<Map<String, Object>> elementos = JsonPath.read(cuerpo, "$.elementos");
+            assertThat(elementos).hasSizeLessThanOrEqualTo(7);
+            for (Map<String, Object> libro : elementos) {
+                assertThat(libro).containsOnlyKeys("id", "titulo");
+                ids.add((Integer) libro.get("id"));
+            }
+            cursor = JsonPath.read(cuerpo, "$.siguiente");
+        } while (cursor != null);
+
+        assertThat(new HashSet<>(ids)).hasSize(ids.size());
+        assertThat(ids).hasSize((int) libroServicio.contarLibros());
+    }
+
+    @Test
+    void elListadoSaleDeUnaConsultaYNoLlevaSinopsis() throws Exception {
+        String token = token("lector@biblioteca.com");
+        ContadorConsultas contador = new ContadorConsultas(entityManagerFactory);
+
+        long sentencias = contador.contar(() -> mockMvc.perform(get("/api/libros?limite=50")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.elementos[0].titulo").exists())
+                .andExpect(jsonPath("$.elementos[0].autor").exists())
+                .andExpect(jsonPath("$.elementos[0].sinopsis").doesNotExist()));
+
+        assertThat(sentencias).isEqualTo(1);
+
+        mockMvc.perform(get("/api/libros?fields=sinopsis").header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value(containsString("sinopsis")));
+        mockMvc.perform(get("/api/libros?despues=basura").header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void elDetalleContesta304MientrasElLibroNoCambie() throws Exception {
+        String token = token("lector@biblioteca.com");
+        Libro libro = nuevoLibro();
+        String url = "/api/libros/" + libro.getId();
+
+        MockHttpServletResponse primera = mockMvc.perform(get(url + "?fields=titulo,sinopsis")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.titulo").value(libro.getTitulo()))
+                .andExpect(jsonPath("$.isbn").doesNotExist())
+                .andReturn().getResponse();
+        String etag = primera.getHeader("ETag");
+        assertThat(etag).startsWith("W/\"");
+        assertThat(primera.getHeader("Cache-Control")).contains("no-cache", "public");
+
+        ContadorConsultas contador = new ContadorConsultas(entityManagerFactory);
+        long sentencias = contador.contar(() -> mockMvc.perform(get(url)
+                        .header("Authorization", "Bearer " + token).header("If-None-Match", etag))
+                .andExpect(status().isNotModified()));
+        assertThat(sentencias).as("304 sin consultas").isZero();
+
+        libro.setTitulo(libro.getTitulo() + " (2ª ed.)");
+        libroServicio.guardarLibro(libro);
+        mockMvc.perform(get(url).header("Authorization", "Bearer " + token).header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/libros/999999").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void prestarYDevolverPorLaApi() throws Exception {
+        String lector = token("lector@biblioteca.com");
+        Libro libro = nuevoLibro();
+
+        String cuerpo = mockMvc.perform(post("/api/prestamos").header("Authorization", "Bearer " + lector)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"libroId\": " + libro.getId() + "}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.libroId").value(libro.getId()))
+                .andExpect(jsonPath("$.estado").value("ACTIVO"))
+                .andReturn().getResponse().getContentAsString();
+        Integer prestamoId = JsonPath.read(cuerpo, "$.id");
+
+        // Ya prestado → 409
+        mockMvc.perform(post("/api/prestamos").header("Authorization", "Bearer " + lector)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"libroId\": " + libro.getId() + "}"))
+                .andExpect(status().isConflict());
+
+        // El más reciente primero; con ETag del cuerpo → 304 si no cambia
+        MockHttpServletResponse mios = mockMvc.perform(get("/api/prestamos/mios?limite=1&fields=id,estado")
+                        .header("Authorization", "Bearer " + lector))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.elementos[0].id").value(prestamoId))
+                .andExpect(jsonPath("$.elementos[0].libroTitulo").doesNotExist())
+                .andReturn().getResponse();
+        assertThat(mios.getHeader("Cache-Control")).contains("private");
+        mockMvc.perform(get("/api/prestamos/mios?limite=1&fields=id,estado")
+                        .header("Authorization", "Bearer " + lector).header("If-None-Match", mios.getHeader("ETag")))
+                .andExpect(status().isNotModified());
+
+        // De otro usuario → 403
+        String otro = token("admin@biblioteca.com");
+        String ajeno = mockMvc.perform(post("/api/prestamos").header("Authorization", "Bearer " + otro)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"libroId\": " + nuevoLibro().getId() + "}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(post("/api/prestamos/" + JsonPath.read(ajeno, "$.id") + "/devolucion")
+                        .header("Authorization", "Bearer " + lector))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/api/prestamos/" + prestamoId + "/devolucion").header("Authorization", "Bearer " + lector))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado").value("DEVUELTO"))
+                .andExpect(jsonPath("$.fechaDevolucionReal").exists());
+        assertThat(libroServicio.obtenerLibroPorId(libro.getId()).orElseThrow().getDisponible()).isTrue();
+    }
+
+    // ────────────────────────────────────────────────────────────────
+    // Utilidades
+    // ────────────────────────────────────────────────────────────────
+
+    private String token(String email) throws Exception {
+        String cuerpo = mockMvc.perform(post("/api/token").with(httpBasic(email, "1234")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(cuerpo, "$.token");
+    }
+
+    private Libro nuevoLibro() {
+        return libroServicio.guardarLibro(DatosPrueba.nuevoLibro("API JSON", autorRepositorio.findAll().get(0), true));
+    }
+}
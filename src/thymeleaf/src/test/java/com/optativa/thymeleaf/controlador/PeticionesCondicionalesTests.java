@@ -0,0 +1,135 @@
+package com.optativa.thymeleaf.controlador;
+
+import com.optativa.thymeleaf.entidad.Libro;
+import com.optativa.thymeleaf.repositorio.AutorRepositorio;
+import com.optativa.thymeleaf.servicio.LibroServicio;
+import com.optativa.thymeleaf.servicio.PrestamoServicio;
+import com.optativa.thymeleaf.servicio.UsuarioServicio;
+import com.optativa.thymeleaf.soporte.ContadorConsultas;
+import com.optativa.thymeleaf.soporte.DatosPrueba;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET condicionales (ETag) de /libros y /libros/{id}: un 304 no lanza
+ * ninguna consulta, y cualquier cambio del catálogo (o del libro) cambia el ETag.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PeticionesCondicionalesTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private LibroServicio libroServicio;
+
+    @Autowired
+    private PrestamoServicio prestamoServicio;
+
+    @Autowired
+    private UsuarioServicio usuarioServicio;
+
+    @Autowired
+    private AutorRepositorio autorRepositorio;
+
+    private ContadorConsultas contador;
+
+    @BeforeEach
+    void preparar() {
+        contador = new ContadorConsultas(entityManagerFactory);
+    }
+
+    @Test
+    void catalogoSinCambiosContesta304SinConsultas() throws Exception {
+        MockHttpServletResponse primera = mockMvc.perform(get("/libros"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        String etag = primera.getHeader("ETag");
+
+        assertThat(etag).startsWith("W/\"");
+        assertThat(primera.getHeader("Last-Modified")).as("solo ETag: Last-Modified va en segundos").isNull();
+        assertThat(primera.getHeader("Cache-Control")).contains("no-cache", "public").doesNotContain("no-store");
+        assertThat(primera.getHeader("Server-Timing")).as("página pública sin tiempos internos").isNull();
+
+        long sentencias = contador.contar(() ->
+                mockMvc.perform(get("/libros").header("If-None-Match", etag))
+                        .andExpect(status().isNotModified()));
+        assertThat(sentencias).as("304 sin consultas").isZero();
+    }
+
+    @Test
+    void guardarUnLibroCambiaElEtagDelCatalogo() throws Exception {
+        String etag = etag(get("/libros"));
+
+        nuevoLibro();
+
+        mockMvc.perform(get("/libros").header("If-None-Match", etag)).andExpect(status().isOk());
+    }
+
+    @Test
+    void elDetalleSoloCambiaConSuLibro() throws Exception {
+        Libro libro = nuevoLibro();
+        Libro otro = nuevoLibro();
+        String etag = etag(get("/libros/{id}", libro.getId()));
+
+        // un préstamo de otro libro no afecta a este detalle
+        Integer lectorId = usuarioServicio.findByEmail("lector@biblioteca.com").orElseThrow().getId();
+        prestamoServicio.solicitarPrestamo(otro.getId(), lectorId);
+        long sentencias = contador.contar(() ->
+                mockMvc.perform(get("/libros/{id}", libro.getId()).header("If-None-Match", etag))
+                        .andExpect(status().isNotModified()));
+        assertThat(sentencias).isZero();
+
+        // uno de este libro sí (cambia su disponibilidad)
+        prestamoServicio.solicitarPrestamo(libro.getId(), lectorId);
+        String html = mockMvc.perform(get("/libros/{id}", libro.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(html).contains("Actualmente prestado");
+    }
+
+    @Test
+    void usuariosAutenticadosConEtagPrivadoYPropio() throws Exception {
+        String anonimo = etag(get("/libros"));
+        MockHttpServletResponse lector = mockMvc.perform(get("/libros").with(user("lector@biblioteca.com").roles("LECTOR")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertThat(lector.getHeader("ETag")).isNotEqualTo(anonimo);
+        assertThat(lector.getHeader("Cache-Control")).contains("private");
+
+        // el ETag anónimo no vale para un usuario con sesión (su página lleva nombre y token CSRF)
+        mockMvc.perform(get("/libros").header("If-None-Match", anonimo).with(user("lector@biblioteca.com").roles("LECTOR")))
+                .andExpect(status().isOk());
+    }
+
+    // ────────────────────────────────────────────────────────────────
+    // Utilidades
+    // ────────────────────────────────────────────────────────────────
+
+    private String etag(RequestBuilder peticion) throws Exception {
+        return mockMvc.perform(peticion).andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+    }
+
+    private Libro nuevoLibro() {
+        return libroServicio.guardarLibro(DatosPrueba.nuevoLibro("Petición condicional", autorRepositorio.findAll().get(0), true));
+    }
+}
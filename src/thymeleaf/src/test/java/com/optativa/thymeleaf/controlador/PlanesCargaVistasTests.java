@@ -0,0 +1,100 @@
+package com.optativa.thymeleaf.controlador;
+
+import com.optativa.thymeleaf.entidad.Libro;
+import com.optativa.thymeleaf.entidad.Prestamo;
+import com.optativa.thymeleaf.repositorio.LibroRepositorio;
+import com.optativa.thymeleaf.repositorio.PrestamoRepositorio;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Renderiza todas las vistas con open-in-view desactivado y el modo estricto de
+ * carga perezosa: si una plantilla navega una relación que el servicio no ha
+ * cargado, la petición falla.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.open-in-view=false",
+        "biblioteca.jpa.carga-perezosa-estricta=true"
+})
+@AutoConfigureMockMvc
+class PlanesCargaVistasTests {
+
+    private static final RequestPostProcessor ADMIN = user("admin@biblioteca.com").roles("ADMIN");
+    private static final RequestPostProcessor LECTOR = user("lector@biblioteca.com").roles("LECTOR");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PrestamoRepositorio prestamoRepositorio;
+
+    @Autowired
+    private LibroRepositorio libroRepositorio;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Prestamo prestamo;
+    private Libro libroDisponible;
+
+    @BeforeEach
+    void cargarDatos() {
+        prestamo = prestamoRepositorio.findAll().get(0);
+        libroDisponible = libroRepositorio.findByDisponibleTrue().get(0);
+    }
+
+    @Test
+    void vistasDeLibros() throws Exception {
+        mockMvc.perform(get("/libros")).andExpect(status().isOk());
+        mockMvc.perform(get("/libros").param("keyword", "a")).andExpect(status().isOk());
+        mockMvc.perform(get("/libros/{id}", libroDisponible.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/libros/nuevo").with(ADMIN)).andExpect(status().isOk());
+        mockMvc.perform(get("/libros/{id}/editar", libroDisponible.getId()).with(ADMIN)).andExpect(status().isOk());
+    }
+
+    @Test
+    void vistasDePrestamos() throws Exception {
+        RequestPostProcessor duenio = user(prestamo.getUsuario().getEmail()).roles("LECTOR");
+
+        mockMvc.perform(get("/prestamos/mios").with(duenio))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(prestamo.getLibro().getTitulo())));
+        mockMvc.perform(get("/prestamos/{id}", prestamo.getId()).with(duenio)).andExpect(status().isOk());
+        mockMvc.perform(get("/prestamos/solicitar/{libroId}", libroDisponible.getId()).with(LECTOR))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/prestamos").with(ADMIN)).andExpect(status().isOk());
+        mockMvc.perform(get("/prestamos/{id}/editar", prestamo.getId()).with(ADMIN)).andExpect(status().isOk());
+        mockMvc.perform(get("/prestamos/nuevo").with(ADMIN)).andExpect(status().isOk());
+    }
+
+    @Test
+    void cargaPerezosaSinTransaccionFalla() {
+        // Sesión abierta pero sin transacción (lo que hacía open-in-view durante la vista)
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            Prestamo sinPlan = em.find(Prestamo.class, prestamo.getId());
+            assertThatThrownBy(() -> sinPlan.getLibro().getTitulo())
+                    .isInstanceOf(LazyInitializationException.class);
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.optativa.thymeleaf.controlador;
+
+import com.optativa.thymeleaf.entidad.Autor;
+import com.optativa.thymeleaf.entidad.Libro;
+import com.optativa.thymeleaf.entidad.Prestamo;
+import com.optativa.thymeleaf.entidad.Usuario;
+import com.optativa.thymeleaf.repositorio.AutorRepositorio;
+import com.optativa.thymeleaf.repositorio.LibroRepositorio;
+import com.optativa.thymeleaf.repositorio.PrestamoRepositorio;
+import com.optativa.thymeleaf.repositorio.UsuarioRepositorio;
+import com.optativa.thymeleaf.servicio.PrestamoServicio;
+import com.optativa.thymeleaf.soporte.ContadorConsultas;
+import com.optativa.thymeleaf.soporte.DatosPrueba;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDate;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Presupuesto de sentencias SQL de cada endpoint de LibroController y PrestamoController
+ * (y de las operaciones de préstamo del servicio).
+ *
+ * Si un cambio introduce un N+1 o una consulta de más, el test correspondiente
+ * indica cuántas sentencias lanza ahora y cuál era el límite.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class PresupuestoConsultasTests {
+
+    private static final RequestPostProcessor ADMIN = user("admin@biblioteca.com").roles("ADMIN");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PrestamoServicio prestamoServicio;
+
+    @Autowired
+    private LibroRepositorio libroRepositorio;
+
+    @Autowired
+    private AutorRepositorio autorRepositorio;
+
+    @Autowired
+    private UsuarioRepositorio usuarioRepositorio;
+
+    @Autowired
+    private PrestamoRepositorio prestamoRepositorio;
+
+    private ContadorConsultas contador;
+    private Usuario lector;
+    private RequestPostProcessor comoLector;
+
+    @BeforeEach
+    void preparar() {
+        contador = new ContadorConsultas(entityManagerFactory);
+        lector = usuarioRepositorio.findByEmail("lector@biblioteca.com").orElseThrow();
+        comoLector = user(lector.getEmail()).roles("LECTOR");
+    }
+
+    // ────────────────────────────────────────────────────────────────
+    // LibroController
+    // ────────────────────────────────────────────────────────────────
+
+    @Test
+    void listadoYBusquedaDeLibros() throws Exception {
+        // página + count, con el autor en el mismo SELECT
+        contador.maximo(2, "GET /libros", () ->
+                mockMvc.perform(get("/libros")).andExpect(status().isOk()));
+        contador.maximo(2, "GET /libros?page=1", () ->
+                mockMvc.perform(get("/libros").param("page", "1")).andExpect(status().isOk()));
+        contador.maximo(2, "GET /libros?keyword=", () ->
+                mockMvc.perform(get("/libros").param("keyword", "a")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void detalleYFormulariosDeLibro() throws Exception {
+        Libro libro = nuevoLibro(true);
+
+        contador.maximo(1, "GET /libros/{id}", () ->
+                mockMvc.perform(get("/libros/{id}", libro.getId())).andExpect(status().isOk()));
+        contador.maximo(2, "GET /libros/nuevo", () ->
+                mockMvc.perform(get("/libros/nuevo").with(ADMIN)).andExpect(status().isOk()));
+        contador.maximo(3, "GET /libros/{id}/editar", () ->
+                mockMvc.perform(get("/libros/{id}/editar", libro.getId()).with(ADMIN)).andExpect(status().isOk()));
+    }
+
+    @Test
+    void guardarYEliminarLibro() throws Exception {
+        Autor autor = autorRepositorio.findAll().get(0);
+        String isbn = DatosPrueba.isbnUnico();
+
+        // comprobación de ISBN + INSERT (+ secuencia cada 50 altas)
+        contador.maximo(3, "POST /libros/guardar (alta)", () ->
+                mockMvc.perform(post("/libros/guardar").with(ADMIN).with(csrf())
+                                .param("titulo", "Presupuesto de consultas")
+                                .param("isbn", isbn)
+                                .param("autor.id", autor.getId().toString())
+                                .param("disponible", "true"))
+                        .andExpect(status().is3xxRedirection()));
+
+        Libro libro = libroRepositorio.findByIsbn(isbn).orElseThrow();
+
+        // comprobación de ISBN + SELECT del merge + UPDATE
+        contador.maximo(4, "POST /libros/guardar (edición)", () ->
+                mockMvc.perform(post("/libros/guardar").with(ADMIN).with(csrf())
+                                .param("id", libro.getId().toString())
+                                .param("titulo", "Presupuesto de consultas (2ª ed.)")
+                                .param("isbn", isbn)
+                                .param("autor.id", autor.getId().toString())
+                                .param("disponible", "true"))
+                        .andExpect(status().is3xxRedirection()));
+
+        contador.maximo(4, "POST /libros/{id}/eliminar", () ->
+                mockMvc.perform(post("/libros/{id}/eliminar", libro.getId()).with(ADMIN).with(csrf()))
+                        .andExpect(status().is3xxRedirection()));
+    }
+
+    // ────────────────────────────────────────────────────────────────
+    // PrestamoController
+    // ────────────────────────────────────────────────────────────────
+
+    @Test
+    void vistasDePrestamos() throws Exception {
+        Prestamo prestamo = prestamoServicio.solicitarPrestamo(nuevoLibro(true).getId(), lector.getId());
+
+        // usuario + sus préstamos con el libro
+        contador.maximo(2, "GET /prestamos/mios", () ->
+                mockMvc.perform(get("/prestamos/mios").with(comoLector)).andExpect(status().isOk()));
+        contador.maximo(1, "GET /prestamos", () ->
+                mockMvc.perform(get("/prestamos").with(ADMIN)).andExpect(status().isOk()));
+        contador.maximo(1, "GET /prestamos/{id}", () ->
+                mockMvc.perform(get("/prestamos/{id}", prestamo.getId()).with(comoLector)).andExpect(status().isOk()));
+        contador.maximo(3, "GET /prestamos/{id}/editar", () ->
+                mockMvc.perform(get("/prestamos/{id}/editar", prestamo.getId()).with(ADMIN)).andExpect(status().isOk()));
+        contador.maximo(2, "GET /prestamos/nuevo", () ->
+                mockMvc.perform(get("/prestamos/nuevo").with(ADMIN)).andExpect(status().isOk()));
+        Libro disponible = nuevoLibro(true);
+        contador.maximo(2, "GET /prestamos/solicitar/{libroId}", () ->
+                mockMvc.perform(get("/prestamos/solicitar/{libroId}", disponible.getId()).with(comoLector))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void solicitarYDevolverDesdeLaWeb() throws Exception {
+        Libro libro = nuevoLibro(true);
+
+        contador.maximo(6, "POST /prestamos/solicitar", () ->
+                mockMvc.perform(post("/prestamos/solicitar").with(comoLector).with(csrf())
+                                .param("libro.id", libro.getId().toString()))
+                        .andExpect(status().is3xxRedirection()));
+
+        Prestamo prestamo = ultimoPrestamoDe(libro);
+
+        contador.maximo(5, "GET /prestamos/devolver/{id}", () ->
+                mockMvc.perform(get("/prestamos/devolver/{id}", prestamo.getId()).with(comoLector))
+                        .andExpect(status().is3xxRedirection()));
+    }
+
+    @Test
+    void cancelarEditarYCrearPrestamo() throws Exception {
+        Prestamo prestamo = prestamoServicio.solicitarPrestamo(nuevoLibro(true).getId(), lector.getId());
+
+        contador.maximo(2, "POST /prestamos/editar", () ->
+                mockMvc.perform(post("/prestamos/editar").with(ADMIN).with(csrf())
+                                .param("id", prestamo.getId().toString())
+                                .param("fechaDevolucionPrevista", LocalDate.now().plusDays(30).toString()))
+                        .andExpect(status().is3xxRedirection()));
+
+        contador.maximo(4, "GET /prestamos/cancelar/{id}", () ->
+                mockMvc.perform(get("/prestamos/cancelar/{id}", prestamo.getId()).with(comoLector))
+                        .andExpect(status().is3xxRedirection()));
+
+        Libro libro = nuevoLibro(true);
+        contador.maximo(5, "POST /prestamos/crear", () ->
+                mockMvc.perform(post("/prestamos/crear").with(ADMIN).with(csrf())
+                                .param("usuario.id", lector.getId().toString())
+                                .param("libro.id", libro.getId().toString())
+                                .param("fechaDevolucionPrevista", LocalDate.now().plusDays(14).toString()))
+                        .andExpect(status().is3xxRedirection()));
+    }
+
+    // ────────────────────────────────────────────────────────────────
+    // PrestamoServicio
+    // ────────────────────────────────────────────────────────────────
+
+    @Test
+    void solicitarYDevolverEnElServicio() throws Exception {
+        Libro libro = nuevoLibro(true);
+
+        // libro + usuario + INSERT préstamo + UPDATE libro (+ secuencia cada 50 préstamos)
+        Prestamo prestamo = contador.maximo(5, "solicitarPrestamo", () ->
+                prestamoServicio.solicitarPrestamo(libro.getId(), lector.getId()));
+
+        // préstamo + libro + UPDATE préstamo + UPDATE libro
+        contador.maximo(4, "devolverPrestamo", () -> prestamoServicio.devolverPrestamo(prestamo.getId()));
+    }
+
+    // ────────────────────────────────────────────────────────────────
+    // Datos propios de cada test (no dependen de los préstamos aleatorios de IniciarDatos)
+    // ────────────────────────────────────────────────────────────────
+
+    private Libro nuevoLibro(boolean disponible) {
+        return libroRepositorio.save(
+                DatosPrueba.nuevoLibro("Libro de presupuesto", autorRepositorio.findAll().get(0), disponible));
+    }
+
+    private Prestamo ultimoPrestamoDe(Libro libro) {
+        return prestamoRepositorio.findByUsuario(lector).stream()
+                .filter(p -> p.getLibro().getId().equals(libro.getId()))
+                .reduce((a, b) -> b)
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,75 @@
+package com.optativa.thymeleaf.datos;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Instantánea de una BD H2 en fichero: se crea en caliente, se borra el .mv.db y
+ * al restaurarla vuelven las mismas filas. Si el fichero ya existe no se toca.
+ */
+class InstantaneaBaseDatosTests {
+
+    @TempDir
+    private Path directorio;
+
+    @Test
+    void restaurarDevuelveLasMismasFilas() throws Exception {
+        PropiedadesPersistencia propiedades = propiedades();
+
+        SingleConnectionDataSource dataSource = abrir(propiedades);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table libro (id int primary key, titulo varchar(100))");
+        jdbcTemplate.execute("create table prestamo (id int primary key, libro_id int)");
+        for (int i = 1; i <= 250; i++) {
+            jdbcTemplate.update("insert into libro values (?, ?)", i, "Libro " + i);
+            if (i % 5 == 0) {
+                jdbcTemplate.update("insert into prestamo values (?, ?)", i, i);
+            }
+        }
+
+        new InstantaneaBaseDatos(jdbcTemplate, propiedades).crear(propiedades.getInstantanea());
+        assertThat(propiedades.getInstantanea()).exists();
+
+        // Cambios posteriores a la instantánea: no deben volver
+        jdbcTemplate.update("delete from prestamo");
+        cerrar(dataSource);
+
+        // Con el fichero presente no se restaura nada
+        assertThat(InstantaneaBaseDatos.restaurarSiHaceFalta(propiedades)).isFalse();
+
+        Files.delete(propiedades.getFicheroBaseDatos());
+        assertThat(InstantaneaBaseDatos.restaurarSiHaceFalta(propiedades)).isTrue();
+
+        SingleConnectionDataSource restaurada = abrir(propiedades);
+        JdbcTemplate consultas = new JdbcTemplate(restaurada);
+        assertThat(consultas.queryForObject("select count(*) from libro", Integer.class)).isEqualTo(250);
+        assertThat(consultas.queryForObject("select count(*) from prestamo", Integer.class)).isEqualTo(50);
+        cerrar(restaurada);
+    }
+
+    private PropiedadesPersistencia propiedades() {
+        PropiedadesPersistencia propiedades = new PropiedadesPersistencia();
+        propiedades.setDirectorio(directorio.resolve("bd"));
+        propiedades.setNombre("prueba");
+        propiedades.setInstantanea(directorio.resolve("instantanea.zip"));
+        return propiedades;
+    }
+
+    private static SingleConnectionDataSource abrir(PropiedadesPersistencia propiedades) {
+        String url = "jdbc:h2:file:" + propiedades.getDirectorio().resolve(propiedades.getNombre()).toAbsolutePath()
+                + ";DB_CLOSE_ON_EXIT=FALSE";
+        return new SingleConnectionDataSource(url, "sa", "", true);
+    }
+
+    private static void cerrar(SingleConnectionDataSource dataSource) {
+        new JdbcTemplate(dataSource).execute("shutdown");
+        dataSource.destroy();
+    }
+}
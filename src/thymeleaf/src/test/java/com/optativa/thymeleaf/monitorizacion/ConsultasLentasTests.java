@@ -0,0 +1,70 @@
+package com.optativa.thymeleaf.monitorizacion;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Umbral de 0 ms → todas las sentencias cuentan como lentas, así se comprueba
+ * el camino completo: DataSource medido → registro → vista de administración.
+ */
+@SpringBootTest(properties = "biblioteca.monitorizacion.consulta-lenta=0ms")
+@AutoConfigureMockMvc
+class ConsultasLentasTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ConsultasLentas consultasLentas;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void elDataSourceDeLaAplicacionEstaMedido() {
+        assertThat(dataSource).isInstanceOf(DataSourceMedido.class);
+    }
+
+    @Test
+    void cadaConsultaLentaGuardaElControladorQueLaLanzo() throws Exception {
+        consultasLentas.limpiar();
+
+        mockMvc.perform(get("/libros").param("keyword", "a")).andExpect(status().isOk());
+
+        assertThat(consultasLentas.ultimas())
+                .isNotEmpty()
+                .allSatisfy(c -> assertThat(c.getOrigen()).isEqualTo("LibroController.listarLibros"))
+                .anySatisfy(c -> assertThat(c.getSql()).containsIgnoringCase("from libro"));
+    }
+
+    @Test
+    void paginaDeRendimientoSoloParaAdmin() throws Exception {
+        mockMvc.perform(get("/libros")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/admin/rendimiento").with(user("admin@biblioteca.com").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Pools de conexiones")))
+                .andExpect(content().string(containsString("LibroController.listarLibros")));
+
+        mockMvc.perform(get("/admin/rendimiento").with(user("lector@biblioteca.com").roles("LECTOR")))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/admin/rendimiento/reiniciar").with(csrf()).with(user("admin@biblioteca.com").roles("ADMIN")))
+                .andExpect(status().is3xxRedirection());
+        assertThat(consultasLentas.ultimas()).allSatisfy(c -> assertThat(c.getOrigen()).doesNotContain("LibroController"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.optativa.thymeleaf.monitorizacion;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Umbral de 0 ms → todas las peticiones se guardan como lentas, así se comprueba
+ * el camino completo: filtro → interceptor/aspecto/DataSource → TrazasLentas → vista.
+ * Sin caché de fragmentos: /libros tiene que pasar siempre por servicio y SQL.
+ * Server-Timing está apagado por defecto; aquí se enciende para comprobar la cabecera.
+ */
+@SpringBootTest(properties = {
+        "biblioteca.monitorizacion.traza-lenta=0ms",
+        "biblioteca.monitorizacion.trazas.server-timing=true",
+        "biblioteca.cache-fragmentos.habilitada=false"})
+@AutoConfigureMockMvc
+class TrazasPeticionTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TrazasLentas trazasLentas;
+
+    @Test
+    void cadaRespuestaLlevaServerTiming() throws Exception {
+        mockMvc.perform(get("/libros"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Server-Timing", allOf(
+                        containsString("total;dur="),
+                        containsString("ctrl;dur="),
+                        containsString("desc=\"LibroController.listarLibros\""),
+                        containsString("svc;dur="),
+                        containsString("sql;dur="),
+                        containsString("render;dur="))));
+    }
+
+    @Test
+    void laTrazaGuardadaTieneElDesglose() throws Exception {
+        trazasLentas.limpiar();
+
+        mockMvc.perform(get("/libros").param("keyword", "a")).andExpect(status().isOk());
+
+        assertThat(trazasLentas.ultimas()).first().satisfies(t -> {
+            assertThat(t.getUri()).isEqualTo("/libros");
+            assertThat(t.getControlador()).isEqualTo("LibroController.listarLibros");
+            assertThat(t.getEstado()).isEqualTo(200);
+            assertThat(t.getLlamadasServicio()).isPositive();
+            assertThat(t.getConsultasSql()).isPositive();
+            assertThat(t.getTotalMs()).isGreaterThanOrEqualTo(t.getControladorMs() + t.getRenderMs());
+        });
+    }
+
+    @Test
+    void paginaDeTrazasSoloParaAdmin() throws Exception {
+        mockMvc.perform(get("/libros")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/admin/rendimiento/trazas").with(user("admin@biblioteca.com").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Peticiones lentas")))
+                .andExpect(content().string(containsString("LibroController.listarLibros")));
+
+        mockMvc.perform(get("/admin/rendimiento/trazas").with(user("lector@biblioteca.com").roles("LECTOR")))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,137 @@
+package com.optativa.thymeleaf.proteccion;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compartimentos por grupo de endpoints: con el grupo admin lleno sus páginas se
+ * rechazan al momento (503 + Retry-After) y el catálogo sigue contestando. Solo entran
+ * en el compartimento las peticiones que Spring Security ya ha dejado pasar.
+ */
+@SpringBootTest(properties = {
+        "biblioteca.compartimentos.grupos.admin.concurrencia=1",
+        "biblioteca.compartimentos.grupos.admin.cola=0"})
+@AutoConfigureMockMvc
+class CompartimentosTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FilterRegistrationBean<FiltroCompartimentos> filtroCompartimentos;
+
+    @Test
+    void cadaRutaEnSuGrupoGanandoElPatronMasEspecifico() {
+        FiltroCompartimentos filtro = filtroCompartimentos.getFilter();
+
+        assertThat(grupo(filtro, "/libros")).isEqualTo("catalogo");
+        assertThat(grupo(filtro, "/libros/5")).isEqualTo("catalogo");
+        assertThat(grupo(filtro, "/libros/nuevo")).isEqualTo("admin");
+        assertThat(grupo(filtro, "/libros/5/editar")).isEqualTo("admin");
+        assertThat(grupo(filtro, "/prestamos")).isEqualTo("admin");
+        assertThat(grupo(filtro, "/prestamos/nuevo")).isEqualTo("admin");
+        assertThat(grupo(filtro, "/prestamos/mios")).isEqualTo("prestamos");
+        assertThat(grupo(filtro, "/prestamos/7")).isEqualTo("prestamos");
+        assertThat(grupo(filtro, "/css/estilos.css")).isNull();
+    }
+
+    @Test
+    void adminLlenoNoAfectaAlCatalogo() throws Exception {
+        Compartimento admin = filtroCompartimentos.getFilter().compartimento(new MockHttpServletRequest("GET", "/prestamos"));
+        assertThat(admin.entrar()).isTrue();                      // un informe de admin en curso
+        try {
+            mockMvc.perform(get("/prestamos").with(user("admin@biblioteca.com").roles("ADMIN")))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "5"))
+                    .andExpect(content().string("Servicio ocupado, inténtalo de nuevo en unos segundos."));
+
+            mockMvc.perform(get("/libros")).andExpect(status().isOk());
+            mockMvc.perform(get("/prestamos/mios").with(user("lector@biblioteca.com").roles("LECTOR")))
+                    .andExpect(status().isOk());
+        } finally {
+            admin.salir();
+        }
+
+        mockMvc.perform(get("/prestamos").with(user("admin@biblioteca.com").roles("ADMIN")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void lasPeticionesSinPermisoNoOcupanHuecoDeAdmin() throws Exception {
+        Compartimento admin = filtroCompartimentos.getFilter().compartimento(new MockHttpServletRequest("GET", "/prestamos"));
+        assertThat(admin.entrar()).isTrue();                      // grupo admin lleno
+        try {
+            // Sin sesión → al login; un lector → 403. Ninguna llega al compartimento (ni al 503)
+            mockMvc.perform(get("/prestamos")).andExpect(status().is3xxRedirection());
+            mockMvc.perform(get("/admin/usuarios").with(user("lector@biblioteca.com").roles("LECTOR")))
+                    .andExpect(status().isForbidden());
+            mockMvc.perform(post("/prestamos/crear").with(user("lector@biblioteca.com").roles("LECTOR")).with(csrf()))
+                    .andExpect(status().isForbidden());
+        } finally {
+            admin.salir();
+        }
+    }
+
+    @Test
+    void conHuecoEnLaColaSeEsperaYSinElSeRechazaAlMomento() throws Exception {
+        Compartimento compartimento = new Compartimento("prueba", 1, 1, Duration.ofSeconds(10),
+                new SimpleMeterRegistry());
+        assertThat(compartimento.entrar()).isTrue();
+
+        // segunda: a la cola, entra en cuanto sale la primera
+        CompletableFuture<Boolean> enCola = CompletableFuture.supplyAsync(() -> {
+            try {
+                return compartimento.entrar();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(200);
+        assertThat(enCola).isNotDone();
+
+        // tercera: cola llena → rechazada sin esperar
+        long inicio = System.nanoTime();
+        assertThat(compartimento.entrar()).isFalse();
+        assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isLessThan(Duration.ofSeconds(1));
+
+        compartimento.salir();
+        assertThat(enCola.get(5, TimeUnit.SECONDS)).isTrue();
+        compartimento.salir();
+    }
+
+    @Test
+    void sinHuecoAlAcabarLaEsperaSeRechaza() throws Exception {
+        Compartimento compartimento = new Compartimento("prueba", 1, 5, Duration.ofMillis(100),
+                new SimpleMeterRegistry());
+        assertThat(compartimento.entrar()).isTrue();
+
+        assertThat(compartimento.entrar()).isFalse();
+        assertThat(compartimento.reintentarEnSegundos()).isEqualTo(1);
+        compartimento.salir();
+    }
+
+    private static String grupo(FiltroCompartimentos filtro, String ruta) {
+        Compartimento compartimento = filtro.compartimento(new MockHttpServletRequest("GET", ruta));
+        return compartimento == null ? null : compartimento.getNombre();
+    }
+}
@@ -0,0 +1,145 @@
+package com.optativa.thymeleaf.proteccion;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Límites de los endpoints calientes: ráfagas por usuario o IP (429 + Retry-After) y
+ * límite de concurrencia que sigue a la latencia.
+ */
+@SpringBootTest(properties = {
+        "biblioteca.limites.reglas.busqueda.rafaga=3",
+        "biblioteca.limites.reglas.busqueda.por-minuto=1",
+        "biblioteca.limites.reglas.login.rafaga=2",
+        "biblioteca.limites.reglas.login.por-minuto=1"})
+@AutoConfigureMockMvc
+class LimitesTests {
+
+    private static final long BASE = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void laRafagaSeCuentaPorUsuario() throws Exception {
+        MockHttpSession lector = sesion("lector@biblioteca.com", "ROLE_LECTOR");
+        MockHttpSession admin = sesion("admin@biblioteca.com", "ROLE_ADMIN");
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/libros").param("keyword", "a").session(lector)).andExpect(status().isOk());
+        }
+        String reintentar = mockMvc.perform(get("/libros").param("keyword", "a").session(lector))
+                .andExpect(status().isTooManyRequests())
+                .andReturn().getResponse().getHeader("Retry-After");
+        assertThat(Integer.parseInt(reintentar)).isBetween(1, 60);     // 1 token por minuto
+
+        // otro usuario desde la misma IP tiene su propio cubo; el catálogo sin búsqueda no se limita
+        mockMvc.perform(get("/libros").param("keyword", "a").session(admin)).andExpect(status().isOk());
+        mockMvc.perform(get("/libros").session(lector)).andExpect(status().isOk());
+    }
+
+    @Test
+    void elLoginSeCuentaPorIp() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(login("10.0.0.1")).andExpect(status().is3xxRedirection());
+        }
+        mockMvc.perform(login("10.0.0.1")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(login("10.0.0.2")).andExpect(status().is3xxRedirection());
+    }
+
+    @Test
+    void losCubosSeRellenanConElTiempoYOcupanMemoriaAcotada() {
+        CubosTokens cubos = new CubosTokens(2, 60, 640);            // 1 token por segundo
+        long ahora = 0;
+        assertThat(cubos.consumir("ip:1", ahora)).isZero();
+        assertThat(cubos.consumir("ip:1", ahora)).isZero();
+        assertThat(cubos.consumir("ip:1", ahora)).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+
+        ahora += TimeUnit.MILLISECONDS.toNanos(1500);
+        assertThat(cubos.consumir("ip:1", ahora)).isZero();
+        assertThat(cubos.consumir("ip:1", ahora)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+
+        for (int i = 0; i < 100_000; i++) {
+            cubos.consumir("ip:" + i, ahora);
+        }
+        assertThat(cubos.tamano()).isLessThanOrEqualTo(640);
+    }
+
+    @Test
+    void elLimiteSigueALaCapacidadDelServidor() {
+        LimiteAdaptativo limite = new LimiteAdaptativo(50, 2, 200);
+
+        // el límite de partida se respeta
+        for (int i = 0; i < 50; i++) {
+            assertThat(limite.entrar()).isTrue();
+        }
+        assertThat(limite.entrar()).isFalse();
+        for (int i = 0; i < 50; i++) {
+            limite.salir(BASE);
+        }
+
+        // servidor que atiende 10 a la vez: con más, la latencia crece en proporción → el
+        // límite baja hasta donde la latencia ronda el doble de la base
+        simular(limite, 10, 300);
+        assertThat(limite.getLimite()).isBetween(15, 35);
+
+        // más capacidad (80 a la vez): la latencia vuelve a la base y el límite sube
+        simular(limite, 80, 300);
+        assertThat(limite.getLimite()).isGreaterThan(80);
+    }
+
+    // ────────────────────────────────────────────────────────────────
+    // Utilidades
+    // ────────────────────────────────────────────────────────────────
+
+    /**
+     * Rondas con tantas peticiones en curso como permite el límite (demanda infinita);
+     * cada una tarda BASE × en curso / capacidad (nunca menos que BASE)
+     */
+    private static void simular(LimiteAdaptativo limite, int capacidad, int rondas) {
+        for (int i = 0; i < rondas; i++) {
+            int enCurso = 0;
+            while (limite.entrar()) {
+                enCurso++;
+            }
+            long latencia = BASE * Math.max(capacidad, enCurso) / capacidad;
+            for (int j = 0; j < enCurso; j++) {
+                limite.salir(latencia);
+            }
+        }
+    }
+
+    private static MockHttpSession sesion(String email, String rol) {
+        MockHttpSession sesion = new MockHttpSession();
+        sesion.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(
+                        email, null, AuthorityUtils.createAuthorityList(rol))));
+        return sesion;
+    }
+
+    private static org.springframework.test.web.servlet.RequestBuilder login(String ip) {
+        RequestPostProcessor desde = peticion -> {
+            peticion.setRemoteAddr(ip);
+            return peticion;
+        };
+        return post("/login").param("email", "nadie@biblioteca.com").param("password", "mal")
+                .with(csrf()).with(desde);
+    }
+}
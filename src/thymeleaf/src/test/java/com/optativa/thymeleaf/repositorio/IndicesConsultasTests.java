@@ -0,0 +1,86 @@
+package com.optativa.thymeleaf.repositorio;
+
+import com.optativa.thymeleaf.entidad.Prestamo;
+import com.optativa.thymeleaf.soporte.CapturaSql;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba con EXPLAIN (H2) que las consultas de los repositorios usan
+ * los índices creados por la migración V2 en lugar de recorrer la tabla entera.
+ *
+ * El SQL es el que genera Hibernate para cada método del repositorio (CapturaSql),
+ * con los mismos parámetros: si cambia la consulta, el plan se comprueba sobre la nueva.
+ */
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.optativa.thymeleaf.soporte.CapturaSql")
+class IndicesConsultasTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PrestamoRepositorio prestamoRepositorio;
+
+    @Autowired
+    private LibroRepositorio libroRepositorio;
+
+    @BeforeEach
+    void limpiar() {
+        CapturaSql.limpiar();
+    }
+
+    @Test
+    void vencidosUsaIndiceEstadoFecha() {
+        prestamoRepositorio.findByFechaDevolucionPrevistaBeforeAndEstado(LocalDate.now(), Prestamo.EstadoPrestamo.ACTIVO);
+
+        assertThat(plan(LocalDate.now(), "ACTIVO")).contains("IDX_PRESTAMO_ESTADO_FECHA");
+    }
+
+    @Test
+    void prestamosPorEstadoUsaIndiceEstadoFecha() {
+        prestamoRepositorio.findByEstado(Prestamo.EstadoPrestamo.VENCIDO);
+
+        assertThat(plan("VENCIDO")).contains("IDX_PRESTAMO_ESTADO_FECHA");
+    }
+
+    @Test
+    void prestamosDeUsuarioUsanIndiceDeLaFk() {
+        prestamoRepositorio.findByUsuarioId(1);
+
+        assertThat(plan(1)).doesNotContain("tableScan");
+    }
+
+    @Test
+    void catalogoOrdenadoPorTituloUsaIndiceTitulo() {
+        // LibroController: @PageableDefault(size = 10, sort = "titulo"); página 2 para que lleve OFFSET
+        libroRepositorio.findAll(PageRequest.of(1, 10, Sort.by("titulo")));
+
+        assertThat(plan(10, 10)).contains("IDX_LIBRO_TITULO");
+    }
+
+    @Test
+    void paginaSiguienteDeLaApiUsaIndiceTitulo() {
+        libroRepositorio.findResumenesDespuesDe("M", 1, Limit.of(20));
+
+        assertThat(plan("M", "M", 1, 20)).contains("IDX_LIBRO_TITULO");
+    }
+
+    /**
+     * Plan de la primera sentencia que lanzó el repositorio, con sus parámetros en orden
+     */
+    private String plan(Object... parametros) {
+        return jdbcTemplate.queryForObject("explain " + CapturaSql.primera(), String.class, parametros);
+    }
+}
@@ -0,0 +1,118 @@
+package com.optativa.thymeleaf.repositorio;
+
+import com.optativa.thymeleaf.entidad.Libro;
+import com.optativa.thymeleaf.entidad.Prestamo;
+import com.optativa.thymeleaf.entidad.Usuario;
+import com.optativa.thymeleaf.entidad.enumerado.Rol;
+import com.optativa.thymeleaf.soporte.DatosPrueba;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba que guardar N entidades emite ~N/batch_size sentencias
+ * (INSERT agrupados en batch + secuencias que reservan IDs en bloques).
+ *
+ * Se cuentan las sentencias preparadas con las estadísticas de Hibernate.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class InsercionPorLotesTests {
+
+    private static final int N = 500;
+    private static final int BATCH = 50;            // hibernate.jdbc.batch_size
+    private static final int RESERVA_IDS = 50;      // allocationSize de las secuencias
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private LibroRepositorio libroRepositorio;
+
+    @Autowired
+    private PrestamoRepositorio prestamoRepositorio;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void preparar() {
+        estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void guardarLibrosAgrupaLosInsert() {
+        List<Libro> libros = new ArrayList<>();
+        for (int i = 0; i < N; i++) {
+            libros.add(libro(i));
+        }
+
+        estadisticas.clear();
+        libroRepositorio.saveAll(libros);
+        em.flush();
+
+        assertThat(estadisticas.getEntityInsertCount()).isEqualTo(N);
+        assertThat(estadisticas.getPrepareStatementCount()).isLessThanOrEqualTo(maximoSentencias(N));
+    }
+
+    @Test
+    void guardarPrestamosAgrupaLosInsert() {
+        Libro libro = em.persist(libro(N + 1));
+        Usuario usuario = new Usuario();
+        usuario.setEmail("lotes@biblioteca.com");
+        usuario.setPassword("secreta");
+        usuario.setNombreCompleto("Prueba Lotes");
+        usuario.setRol(Rol.LECTOR);
+        em.persist(usuario);
+        em.flush();
+
+        List<Prestamo> prestamos = new ArrayList<>();
+        for (int i = 0; i < N; i++) {
+            Prestamo p = new Prestamo();
+            p.setLibro(libro);
+            p.setUsuario(usuario);
+            p.setFechaPrestamo(LocalDate.now().minusDays(30));
+            p.setFechaDevolucionPrevista(LocalDate.now().minusDays(16));
+            p.setFechaDevolucionReal(LocalDate.now().minusDays(20));
+            p.setEstado(Prestamo.EstadoPrestamo.DEVUELTO);
+            prestamos.add(p);
+        }
+
+        estadisticas.clear();
+        prestamoRepositorio.saveAll(prestamos);
+        em.flush();
+
+        assertThat(estadisticas.getEntityInsertCount()).isEqualTo(N);
+        assertThat(estadisticas.getPrepareStatementCount()).isLessThanOrEqualTo(maximoSentencias(N));
+    }
+
+    /**
+     * Un batch de INSERT por cada BATCH entidades + una llamada a la secuencia por cada
+     * bloque de IDs reservado (+1 por el bloque inicial del optimizador "pooled").
+     */
+    private static long maximoSentencias(int n) {
+        return (long) Math.ceil((double) n / BATCH) + (long) Math.ceil((double) n / RESERVA_IDS) + 1;
+    }
+
+    private static Libro libro(int i) {
+        Libro libro = new Libro();
+        libro.setIsbn(DatosPrueba.isbnUnico());
+        libro.setTitulo("Libro de prueba " + i);
+        libro.setDisponible(true);
+        return libro;
+    }
+}
@@ -0,0 +1,127 @@
+package com.optativa.thymeleaf.servicio.seguridad;
+
+import com.optativa.thymeleaf.entidad.Usuario;
+import com.optativa.thymeleaf.entidad.enumerado.Rol;
+import com.optativa.thymeleaf.servicio.UsuarioModificado;
+import com.optativa.thymeleaf.servicio.UsuarioServicio;
+import com.optativa.thymeleaf.soporte.ContadorConsultas;
+import com.optativa.thymeleaf.soporte.DatosPrueba;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.unauthenticated;
+
+/**
+ * Caché de cuentas para la autenticación: un login repetido no consulta la BD, guardar
+ * el usuario la invalida y la caché no pierde la contraseña al autenticar.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class CacheUsuariosTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UsuarioServicio usuarioServicio;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private CacheUsuarios cacheUsuarios;
+
+    @Test
+    void unLoginRepetidoNoConsultaLaBaseDeDatos() throws Exception {
+        String email = nuevoUsuario("1234").getEmail();
+        ContadorConsultas contador = new ContadorConsultas(entityManagerFactory);
+
+        assertThat(contador.contar(() -> mockMvc.perform(login(email, "1234")).andExpect(authenticated())))
+                .isPositive();
+        // la segunda vez, desde la caché (y con la contraseña intacta tras eraseCredentials)
+        double tasaAntes = cacheUsuarios.tasaAciertos();
+        assertThat(contador.contar(() -> mockMvc.perform(login(email, "1234")).andExpect(authenticated())))
+                .isZero();
+        assertThat(cacheUsuarios.tasaAciertos()).isGreaterThan(tasaAntes);
+    }
+
+    @Test
+    void guardarElUsuarioInvalidaSuEntrada() throws Exception {
+        Usuario usuario = nuevoUsuario("1234");
+        mockMvc.perform(login(usuario.getEmail(), "1234")).andExpect(authenticated());
+
+        usuario.setPassword(passwordEncoder.encode("nueva"));
+        usuarioServicio.guardarUsuario(usuario);
+
+        mockMvc.perform(login(usuario.getEmail(), "1234")).andExpect(unauthenticated());
+        mockMvc.perform(login(usuario.getEmail(), "nueva")).andExpect(authenticated());
+    }
+
+    @Test
+    void estaAcotadaYNoGuardaLecturasAnterioresAUnCambio() {
+        CacheUsuarios cache = new CacheUsuarios(true, 3, new SimpleMeterRegistry());
+        for (int i = 0; i < 10; i++) {
+            cache.guardar("u" + i, cuenta("u" + i), cache.generacion());
+        }
+        assertThat(cache.tamano()).isEqualTo(3);
+        assertThat(cache.obtener("u0")).isNull();
+        assertThat(cache.obtener("u9")).isNotNull();
+
+        // leída antes de un cambio, guardada después → se descarta
+        long generacion = cache.generacion();
+        cache.usuarioModificado(new UsuarioModificado("otro"));
+        cache.guardar("u1", cuenta("u1"), generacion);
+        assertThat(cache.obtener("u1")).isNull();
+
+        // un cambio general vacía la caché
+        cache.usuarioModificado(UsuarioModificado.general());
+        assertThat(cache.tamano()).isZero();
+    }
+
+    @Test
+    void entregaCopias() {
+        CacheUsuarios cache = new CacheUsuarios(true, 3, new SimpleMeterRegistry());
+        cache.guardar("u", cuenta("u"), cache.generacion());
+
+        ((User) cache.obtener("u")).eraseCredentials();
+        assertThat(cache.obtener("u").getPassword()).isEqualTo("{noop}1234");
+    }
+
+    // ────────────────────────────────────────────────────────────────
+    // Utilidades
+    // ────────────────────────────────────────────────────────────────
+
+    private Usuario nuevoUsuario(String contrasena) {
+        Usuario usuario = new Usuario();
+        usuario.setEmail(DatosPrueba.emailUnico("cache"));
+        usuario.setPassword(passwordEncoder.encode(contrasena));
+        usuario.setNombreCompleto("Lector Caché");
+        usuario.setRol(Rol.LECTOR);
+        return usuarioServicio.guardarUsuario(usuario);
+    }
+
+    private static UserDetails cuenta(String email) {
+        return User.withUsername(email).password("{noop}1234").roles("LECTOR").build();
+    }
+
+    private static org.springframework.test.web.servlet.RequestBuilder login(String email, String contrasena) {
+        return formLogin("/login").userParameter("email").user(email).password(contrasena);
+    }
+}
@@ -0,0 +1,205 @@
+package com.optativa.thymeleaf.sesiones;
+
+import com.optativa.thymeleaf.ThymeleafApplication;
+import com.optativa.thymeleaf.entidad.Libro;
+import com.optativa.thymeleaf.servicio.LibroServicio;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContext;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Perfil "sesiones-jdbc": dos instancias de la aplicación contra la misma base de datos
+ * (H2 en memoria con nombre, compartida dentro de la JVM). Un cliente que inicia sesión
+ * en una sigue autenticado en la otra, con sus mensajes flash, como detrás de un
+ * balanceador sin sesiones pegajosas.
+ */
+class SesionesJdbcTests {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+    private static final String SECRETO_TOKENS = "c2VjcmV0by1kZS1wcnVlYmEtcGFyYS10b2tlbnMtaHMyNTY=";
+
+    private static ConfigurableApplicationContext instanciaA;
+    private static ConfigurableApplicationContext instanciaB;
+
+    @BeforeAll
+    static void arrancarDosInstancias() {
+        String url = "jdbc:h2:mem:sesiones-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        instanciaA = instancia(url);
+        instanciaB = instancia(url);
+    }
+
+    @AfterAll
+    static void pararInstancias() {
+        if (instanciaB != null) {
+            instanciaB.close();
+        }
+        if (instanciaA != null) {
+            instanciaA.close();
+        }
+    }
+
+    @Test
+    void laSesionSobreviveAlCambiarDeInstancia() throws Exception {
+        // el CookieManager hace de navegador: la cookie SESSION vale para las dos (mismo host)
+        HttpClient navegador = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+
+        // login en A (el token CSRF va en la cookie XSRF-TOKEN, común a las dos)
+        String csrf = csrf(get(navegador, instanciaA, "/login").body());
+        HttpResponse<String> login = post(navegador, instanciaA, "/login",
+                "email=lector%40biblioteca.com&password=1234&_csrf=" + URLEncoder.encode(csrf, StandardCharsets.UTF_8));
+        assertThat(login.headers().firstValue("Location")).hasValueSatisfying(l -> assertThat(l).doesNotContain("error"));
+
+        // autenticado en B
+        assertThat(get(navegador, instanciaB, "/prestamos/mios").statusCode()).isEqualTo(200);
+
+        // atributo flash puesto en B, mostrado en A tras la redirección, y solo una vez
+        HttpResponse<String> devolver = get(navegador, instanciaB, "/prestamos/devolver/999999");
+        assertThat(devolver.statusCode()).isEqualTo(302);
+        assertThat(get(navegador, instanciaA, "/prestamos/mios").body()).contains("Préstamo no encontrado");
+        assertThat(get(navegador, instanciaB, "/prestamos/mios").body()).doesNotContain("Préstamo no encontrado");
+
+        // logout en B → tampoco hay sesión en A
+        csrf = csrf(get(navegador, instanciaB, "/prestamos/mios").body());
+        post(navegador, instanciaB, "/logout", "_csrf=" + URLEncoder.encode(csrf, StandardCharsets.UTF_8));
+        HttpResponse<String> tras = get(navegador, instanciaA, "/prestamos/mios");
+        assertThat(tras.statusCode()).isEqualTo(302);
+        assertThat(tras.headers().firstValue("Location")).hasValueSatisfying(l -> assertThat(l).endsWith("/login"));
+    }
+
+    @Test
+    void elContextoDeSeguridadSeGuardaCompacto() throws Exception {
+        HttpClient navegador = HttpClient.newBuilder().cookieHandler(new CookieManager()).build();
+        String csrf = csrf(get(navegador, instanciaA, "/login").body());
+        post(navegador, instanciaA, "/login",
+                "email=admin%40biblioteca.com&password=1234&_csrf=" + URLEncoder.encode(csrf, StandardCharsets.UTF_8));
+
+        byte[] guardado = instanciaA.getBean(JdbcTemplate.class).queryForObject(
+                "select a.attribute_bytes from spring_session_attributes a join spring_session s"
+                        + " on s.primary_id = a.session_primary_id"
+                        + " where s.principal_name = 'admin@biblioteca.com' and a.attribute_name = 'SPRING_SECURITY_CONTEXT'"
+                        + " fetch first 1 rows only",
+                byte[].class);
+
+        SerializadorSesion serializador = new SerializadorSesion(getClass().getClassLoader());
+        SecurityContext contexto = (SecurityContext) serializador.deserializar(guardado);
+        assertThat(contexto.getAuthentication().getName()).isEqualTo("admin@biblioteca.com");
+        assertThat(contexto.getAuthentication().getAuthorities()).extracting(a -> a.getAuthority())
+                .contains("ROLE_ADMIN");
+
+        byte[] conJava = new SerializingConverter().convert(contexto);
+        assertThat(guardado.length).isLessThan(conJava.length / 10);
+    }
+
+    @Test
+    void unCambioEnUnaInstanciaSeVeEnLaOtra() throws Exception {
+        HttpClient navegador = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+        LibroServicio libroServicioA = instanciaA.getBean(LibroServicio.class);
+        Libro libro = libroServicioA.obtenerTodosLosLibros(PageRequest.of(0, 1)).getContent().get(0);
+        String ruta = "/libros/" + libro.getId();
+
+        // B sin ETag (su versión del catálogo no se entera de los cambios de A)
+        HttpResponse<String> antes = get(navegador, instanciaB, ruta);
+        assertThat(antes.statusCode()).isEqualTo(200);
+        assertThat(antes.headers().firstValue("ETag")).isEmpty();
+        get(navegador, instanciaB, "/libros");
+
+        // "0000" → primero por título: sale en la primera página del listado (la que se cachearía)
+        libro.setTitulo("0000 Cambiado en A " + UUID.randomUUID());
+        libroServicioA.guardarLibro(libro);
+
+        assertThat(get(navegador, instanciaB, ruta).body()).contains(libro.getTitulo());
+        assertThat(get(navegador, instanciaB, "/libros").body()).contains(libro.getTitulo());
+    }
+
+    @Test
+    void lasSesionesCaducadasSeBorranPorLotes() {
+        JdbcTemplate jdbc = instanciaA.getBean(JdbcTemplate.class);
+        long caducada = System.currentTimeMillis() - 60_000;
+        for (int i = 0; i < 1_200; i++) {
+            String id = UUID.randomUUID().toString();
+            jdbc.update("insert into spring_session values (?, ?, ?, ?, 1800, ?, null)",
+                    id, UUID.randomUUID().toString(), caducada, caducada, caducada);
+            jdbc.update("insert into spring_session_attributes values (?, 'a', X'00')", id);
+        }
+        String viva = UUID.randomUUID().toString();
+        long futuro = System.currentTimeMillis() + 600_000;
+        jdbc.update("insert into spring_session values (?, ?, ?, ?, 1800, ?, null)",
+                viva, UUID.randomUUID().toString(), futuro, futuro, futuro);
+
+        assertThat(instanciaA.getBean(LimpiezaSesiones.class).limpiar()).isGreaterThanOrEqualTo(1_200);
+
+        assertThat(jdbc.queryForObject("select count(*) from spring_session where expiry_time < ?",
+                Long.class, System.currentTimeMillis() - 1_000)).isZero();
+        assertThat(jdbc.queryForObject("select count(*) from spring_session_attributes where attribute_name = 'a'",
+                Long.class)).isZero();
+        assertThat(jdbc.queryForObject("select count(*) from spring_session where primary_id = ?",
+                Long.class, viva)).isOne();
+    }
+
+    // ────────────────────────────────────────────────────────────────
+    // Utilidades
+    // ────────────────────────────────────────────────────────────────
+
+    private static ConfigurableApplicationContext instancia(String url) {
+        // como argumentos: por encima de application.properties (server.port=9000)
+        return new SpringApplicationBuilder(ThymeleafApplication.class)
+                .profiles("sesiones-jdbc")
+                .run("--server.port=0",
+                        "--management.server.port=0",
+                        "--spring.datasource.url=" + url,
+                        // obligatorio con el perfil, y el mismo en las dos instancias
+                        "--biblioteca.api.tokens.secreto=" + SECRETO_TOKENS,
+                        "--biblioteca.sesiones.limpieza.lote=500",
+                        // la limpieza se lanza a mano en el test
+                        "--biblioteca.sesiones.limpieza.cron=-");
+    }
+
+    private static HttpResponse<String> get(HttpClient cliente, ConfigurableApplicationContext instancia, String ruta)
+            throws Exception {
+        return cliente.send(HttpRequest.newBuilder(uri(instancia, ruta)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> post(HttpClient cliente, ConfigurableApplicationContext instancia, String ruta,
+                                             String formulario) throws Exception {
+        return cliente.send(HttpRequest.newBuilder(uri(instancia, ruta))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(formulario))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static URI uri(ConfigurableApplicationContext instancia, String ruta) {
+        return URI.create("http://localhost:" + instancia.getEnvironment().getProperty("local.server.port") + ruta);
+    }
+
+    private static String csrf(String html) {
+        Matcher token = CSRF.matcher(html);
+        assertThat(token.find()).as("token CSRF en la página").isTrue();
+        return token.group(1);
+    }
+}
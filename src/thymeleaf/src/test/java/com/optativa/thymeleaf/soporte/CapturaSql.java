@@ -0,0 +1,39 @@
+package com.optativa.thymeleaf.soporte;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Guarda el SQL que genera Hibernate, tal cual se prepara (con sus "?"), para poder
+ * pasarlo por EXPLAIN en los tests:
+ *
+ *   spring.jpa.properties.hibernate.session_factory.statement_inspector=com.optativa.thymeleaf.soporte.CapturaSql
+ *
+ * Como ContadorConsultas, es global: los tests que lo usan no deben ejecutarse en paralelo.
+ */
+public class CapturaSql implements StatementInspector {
+
+    private static final List<String> SENTENCIAS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        SENTENCIAS.add(sql);
+        return sql;
+    }
+
+    public static void limpiar() {
+        SENTENCIAS.clear();
+    }
+
+    /**
+     * Primera sentencia capturada desde el último limpiar() (la consulta, no el COUNT de una página)
+     */
+    public static String primera() {
+        if (SENTENCIAS.isEmpty()) {
+            throw new IllegalStateException("Hibernate no ha lanzado ninguna sentencia");
+        }
+        return SENTENCIAS.get(0);
+    }
+}
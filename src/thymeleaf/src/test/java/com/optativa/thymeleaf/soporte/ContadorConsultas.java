@@ -0,0 +1,66 @@
+package com.optativa.thymeleaf.soporte;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cuenta las sentencias SQL que lanza Hibernate durante una petición o una
+ * llamada a un servicio, para fijar "presupuestos" de consultas en los tests:
+ *
+ *   contador.maximo(2, "GET /libros", () -> mockMvc.perform(get("/libros")));
+ *
+ * Un N+1 (una consulta por fila del listado) rompe el presupuesto en cuanto aparece.
+ *
+ * Usa las estadísticas de Hibernate → el contexto de test necesita
+ * spring.jpa.properties.hibernate.generate_statistics=true.
+ * Los contadores son globales: los tests que lo usan no deben ejecutarse en paralelo.
+ */
+public class ContadorConsultas {
+
+    /**
+     * Operación a medir (puede lanzar excepciones, como MockMvc.perform)
+     */
+    @FunctionalInterface
+    public interface Operacion<T> {
+        T ejecutar() throws Exception;
+    }
+
+    private final Statistics estadisticas;
+
+    public ContadorConsultas(EntityManagerFactory entityManagerFactory) {
+        this.estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!estadisticas.isStatisticsEnabled()) {
+            throw new IllegalStateException(
+                    "Activa spring.jpa.properties.hibernate.generate_statistics=true en el test");
+        }
+    }
+
+    /**
+     * Ejecuta la operación y devuelve cuántas sentencias SQL ha preparado Hibernate
+     * (SELECT, INSERT, UPDATE, DELETE y llamadas a secuencias; un batch cuenta como una)
+     */
+    public long contar(Operacion<?> operacion) throws Exception {
+        estadisticas.clear();
+        operacion.ejecutar();
+        return estadisticas.getPrepareStatementCount();
+    }
+
+    /**
+     * Ejecuta la operación y falla si lanza más sentencias de las permitidas
+     *
+     * @return el resultado de la operación (p. ej. el ResultActions de MockMvc)
+     */
+    public <T> T maximo(long permitidas, String descripcion, Operacion<T> operacion) throws Exception {
+        estadisticas.clear();
+        T resultado = operacion.ejecutar();
+        long sentencias = estadisticas.getPrepareStatementCount();
+        assertThat(sentencias)
+                .as("%s lanza %d sentencias SQL (presupuesto: %d)", descripcion, sentencias, permitidas)
+                .isLessThanOrEqualTo(permitidas);
+        return resultado;
+    }
+}
@@ -0,0 +1,51 @@
+package com.optativa.thymeleaf.soporte;
+
+import com.optativa.thymeleaf.entidad.Autor;
+import com.optativa.thymeleaf.entidad.Libro;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Datos propios de los tests: libros con ISBN único y emails únicos.
+ *
+ * Los contextos de @SpringBootTest comparten la BD en memoria (testdb) dentro de la
+ * JVM: una sola secuencia para todas las clases evita chocar con la restricción
+ * única de ISBN o de email, sin repartir prefijos a mano. Los ISBN empiezan por 979
+ * (978 es el de GeneradorDatosMasivos).
+ *
+ * Solo construye las entidades: cada test las guarda con el repositorio o el servicio
+ * que le interese (el servicio publica los eventos de invalidación de cachés).
+ */
+public final class DatosPrueba {
+
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    private DatosPrueba() {
+    }
+
+    /**
+     * ISBN-13 que no ha usado ningún otro test de esta JVM
+     */
+    public static String isbnUnico() {
+        return String.format("979%010d", SECUENCIA.incrementAndGet());
+    }
+
+    /**
+     * Email que no ha usado ningún otro test de esta JVM, p. ej. "cache17@biblioteca.com"
+     */
+    public static String emailUnico(String prefijo) {
+        return prefijo + SECUENCIA.incrementAndGet() + "@biblioteca.com";
+    }
+
+    /**
+     * Libro sin guardar con ISBN único; el título lleva el ISBN detrás para distinguirlo
+     */
+    public static Libro nuevoLibro(String titulo, Autor autor, boolean disponible) {
+        Libro libro = new Libro();
+        libro.setIsbn(isbnUnico());
+        libro.setTitulo(titulo + " " + libro.getIsbn());
+        libro.setAutor(autor);
+        libro.setDisponible(disponible);
+        return libro;
+    }
+}
@@ -0,0 +1,165 @@
+package com.optativa.thymeleaf.vista;
+
+import com.optativa.thymeleaf.entidad.Libro;
+import com.optativa.thymeleaf.repositorio.AutorRepositorio;
+import com.optativa.thymeleaf.repositorio.LibroRepositorio;
+import com.optativa.thymeleaf.servicio.PrestamoServicio;
+import com.optativa.thymeleaf.servicio.UsuarioServicio;
+import com.optativa.thymeleaf.soporte.ContadorConsultas;
+import com.optativa.thymeleaf.soporte.DatosPrueba;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Caché de HTML renderizado (bib:cache): el listado /libros se sirve sin consultas
+ * la segunda vez, cada rol tiene su propia copia y cualquier cambio del catálogo
+ * o de la disponibilidad la invalida.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CacheFragmentosTests {
+
+    private static final RequestPostProcessor ADMIN = user("admin@biblioteca.com").roles("ADMIN");
+    private static final RequestPostProcessor LECTOR = user("lector@biblioteca.com").roles("LECTOR");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheFragmentos cacheFragmentos;
+
+    @Autowired
+    private MeterRegistry registro;
+
+    @Autowired
+    private LibroRepositorio libroRepositorio;
+
+    @Autowired
+    private AutorRepositorio autorRepositorio;
+
+    @Autowired
+    private PrestamoServicio prestamoServicio;
+
+    @Autowired
+    private UsuarioServicio usuarioServicio;
+
+    private ContadorConsultas contador;
+
+    @BeforeEach
+    void preparar() {
+        contador = new ContadorConsultas(entityManagerFactory);
+        cacheFragmentos.invalidar();
+    }
+
+    @Test
+    void segundaVisitaAnonimaSinConsultas() throws Exception {
+        Libro libro = nuevoLibro();
+        double aciertos = aciertos();
+
+        String primera = catalogo(libro, null);
+        long sentencias = contador.contar(() -> catalogo(libro, null));
+
+        assertThat(primera).contains(libro.getTitulo());
+        assertThat(sentencias).as("GET /libros servido desde la caché").isZero();
+        assertThat(catalogo(libro, null)).isEqualTo(primera);
+        assertThat(aciertos()).isGreaterThan(aciertos);
+    }
+
+    @Test
+    void cadaRolTieneSuCopia() throws Exception {
+        Libro libro = nuevoLibro();
+
+        catalogo(libro, ADMIN);
+        String admin = catalogo(libro, ADMIN);
+        String lector = catalogo(libro, LECTOR);
+        String anonimo = catalogo(libro, null);
+
+        assertThat(admin).contains("Nuevo Libro", "form=\"form-eliminar-libro\"", "Gestión Préstamos");
+        assertThat(lector).contains("Mis Préstamos").doesNotContain("Nuevo Libro", "Gestión Préstamos");
+        assertThat(anonimo).contains("Iniciar sesión")
+                .doesNotContain("Nuevo Libro", "Mis Préstamos", "form-eliminar-libro");
+    }
+
+    @Test
+    void datosDelUsuarioFueraDeLaCache() throws Exception {
+        Libro libro = nuevoLibro();
+
+        catalogo(libro, user("admin@biblioteca.com").roles("ADMIN"));
+        String otroAdmin = catalogo(libro, user("otro.admin@biblioteca.com").roles("ADMIN"));
+
+        // mismo HTML cacheado para el rol, pero nombre y token CSRF de quien pide
+        assertThat(otroAdmin).contains("otro.admin@biblioteca.com").doesNotContain(">admin@biblioteca.com<");
+        assertThat(otroAdmin).containsPattern("id=\"form-eliminar-libro\"[^>]*>\\s*<input type=\"hidden\" name=\"_csrf\"");
+    }
+
+    @Test
+    void unPrestamoInvalidaElCatalogo() throws Exception {
+        Libro libro = nuevoLibro();
+        Integer lectorId = usuarioServicio.findByEmail("lector@biblioteca.com").orElseThrow().getId();
+
+        assertThat(catalogo(libro, null)).contains("Disponible");
+        prestamoServicio.solicitarPrestamo(libro.getId(), lectorId);
+
+        assertThat(catalogo(libro, null)).contains("Prestado").doesNotContain(">Disponible<");
+    }
+
+    @Test
+    void eliminarDesdeElListadoCacheado() throws Exception {
+        Libro libro = nuevoLibro();
+
+        catalogo(libro, ADMIN);
+        assertThat(catalogo(libro, ADMIN))
+                .contains("formaction=\"/libros/" + libro.getId() + "/eliminar\"")
+                .doesNotContain("No se han encontrado libros");
+
+        mockMvc.perform(post("/libros/{id}/eliminar", libro.getId()).with(ADMIN).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        assertThat(catalogo(libro, ADMIN)).contains("No se han encontrado libros");
+    }
+
+    // ────────────────────────────────────────────────────────────────
+    // Utilidades
+    // ────────────────────────────────────────────────────────────────
+
+    /**
+     * Busca el libro por su título (único) → la página solo depende de él
+     */
+    private String catalogo(Libro libro, RequestPostProcessor usuario) throws Exception {
+        var peticion = get("/libros").param("keyword", libro.getTitulo());
+        if (usuario != null) {
+            peticion.with(usuario);
+        }
+        return mockMvc.perform(peticion)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private Libro nuevoLibro() {
+        return libroRepositorio.save(DatosPrueba.nuevoLibro("Caché de fragmentos", autorRepositorio.findAll().get(0), true));
+    }
+
+    private double aciertos() {
+        return registro.get("biblioteca.cache.fragmentos").tag("resultado", "acierto").counter().count();
+    }
+}